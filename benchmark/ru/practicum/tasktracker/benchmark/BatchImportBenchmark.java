@@ -0,0 +1,38 @@
+package ru.practicum.tasktracker.benchmark;
+
+import ru.practicum.tasktracker.manager.FileBackedTaskManager;
+import ru.practicum.tasktracker.task.Task;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import static ru.practicum.tasktracker.benchmark.BenchmarkSupport.*;
+
+/**
+ * Импорт задач в FileBackedTaskManager по одной (файл переписывается после каждой задачи)
+ * и одним пакетом через createAll (одна проверка пересечений и одна запись файла).
+ */
+public class BatchImportBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        int singleSize = intArg(args, 0, 2_000);
+        int batchSize = intArg(args, 1, 100_000);
+        File file = File.createTempFile("kanban", ".csv");
+        file.deleteOnExit();
+
+        FileBackedTaskManager singleManager = new FileBackedTaskManager(file.getPath());
+        List<Task> single = timedTasks(singleSize);
+        long begin = System.nanoTime();
+        for (Task task : single) {
+            singleManager.createTask(task);
+        }
+        System.out.printf("createTask x %d: %d ms%n", singleSize, (System.nanoTime() - begin) / 1_000_000);
+
+        FileBackedTaskManager batchManager = new FileBackedTaskManager(file.getPath());
+        List<Task> batch = timedTasks(batchSize);
+        begin = System.nanoTime();
+        batchManager.createAll(batch);
+        System.out.printf("createAll(%d): %d ms%n", batchSize, (System.nanoTime() - begin) / 1_000_000);
+    }
+}
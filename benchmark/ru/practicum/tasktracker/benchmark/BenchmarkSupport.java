@@ -0,0 +1,93 @@
+package ru.practicum.tasktracker.benchmark;
+
+import ru.practicum.tasktracker.enums.Status;
+import ru.practicum.tasktracker.http.HttpTaskServer;
+import ru.practicum.tasktracker.manager.TaskManager;
+import ru.practicum.tasktracker.task.Task;
+
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Общие данные и замеры для замеров производительности: задачи в непересекающихся интервалах
+ * расписания, лучший результат из нескольких прогонов, занятая куча и выделенные потоком байты.
+ * Замеры — обычные программы с main, JUnit их не запускает.
+ */
+final class BenchmarkSupport {
+
+    static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+    /**
+     * Длительность задачи; задачи идут с шагом в 10 минут, поэтому их интервалы не пересекаются.
+     */
+    static final Duration SLOT = Duration.ofMinutes(5);
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private BenchmarkSupport() {
+    }
+
+    static int intArg(String[] args, int index, int defaultValue) {
+        return args.length > index ? Integer.parseInt(args[index]) : defaultValue;
+    }
+
+    /**
+     * Начало i-го интервала расписания.
+     */
+    static LocalDateTime slot(long i) {
+        return START.plusMinutes(i * 10);
+    }
+
+    /**
+     * Задачи без id с номерами 1..size в интервалах slot(i).
+     */
+    static List<Task> timedTasks(int size) {
+        List<Task> tasks = new ArrayList<>(size);
+        for (int i = 1; i <= size; i++) {
+            tasks.add(new Task("Задача " + i, "Описание задачи " + i, Status.NEW, slot(i), SLOT));
+        }
+        return tasks;
+    }
+
+    /**
+     * Выполняет замер rounds раз и возвращает наименьшее время одного прогона в наносекундах.
+     */
+    static long best(int rounds, Runnable run) {
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < rounds; round++) {
+            long begin = System.nanoTime();
+            run.run();
+            best = Math.min(best, System.nanoTime() - begin);
+        }
+        return best;
+    }
+
+    static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    static long allocatedBytes() {
+        return THREADS.getThreadAllocatedBytes(Thread.currentThread().threadId());
+    }
+
+    /**
+     * Сервер на свободном порту, чтобы замер не зависел от занятости порта по умолчанию.
+     * Как и HttpTaskServer.main, включает TCP_NODELAY, иначе каждый ответ ждал бы отложенного ACK.
+     */
+    static HttpTaskServer.Builder server(TaskManager taskManager) {
+        HttpTaskServer.enableTcpNoDelay();
+        return HttpTaskServer.builder(taskManager).port(0);
+    }
+
+    static URI uri(HttpTaskServer server, String path) {
+        return URI.create("http://localhost:" + server.getAddress().getPort() + path);
+    }
+}
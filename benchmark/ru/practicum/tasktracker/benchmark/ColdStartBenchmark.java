@@ -0,0 +1,110 @@
+package ru.practicum.tasktracker.benchmark;
+
+import ru.practicum.tasktracker.enums.SnapshotFormat;
+import ru.practicum.tasktracker.enums.Status;
+import ru.practicum.tasktracker.manager.CSVFormatter;
+import ru.practicum.tasktracker.manager.FileBackedTaskManager;
+import ru.practicum.tasktracker.manager.Snapshots;
+import ru.practicum.tasktracker.task.Epic;
+import ru.practicum.tasktracker.task.Subtask;
+import ru.practicum.tasktracker.task.Task;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static ru.practicum.tasktracker.benchmark.BenchmarkSupport.*;
+
+/**
+ * Холодный старт FileBackedTaskManager с CSV-снимка: прежний загрузчик (весь файл в списке строк, затем
+ * split) против потокового чтения через отображение файла в память. Кроме времени печатается пик
+ * занятой кучи за загрузку; в сравнении важна разница, а не абсолютные значения.
+ */
+public class ColdStartBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        int size = intArg(args, 0, 1_000_000);
+        File file = File.createTempFile("kanban", ".csv");
+        try (OutputStream out = new FileOutputStream(file)) {
+            Snapshots.codec(SnapshotFormat.CSV).write(board(size), out);
+        }
+        System.out.printf("file=%d bytes%n", file.length());
+        for (int round = 0; round < 3; round++) {
+            measure("lines+split", () -> new LegacyLoader(file).legacyLoad());
+            measure("mapped", () -> new FileBackedTaskManager(file.getPath()).loadFromFile());
+        }
+        file.delete();
+    }
+
+    private static void measure(String name, Runnable load) {
+        System.gc();
+        List<MemoryPoolMXBean> pools = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .toList();
+        long baseline = pools.stream().mapToLong(pool -> pool.getUsage().getUsed()).sum();
+        pools.forEach(MemoryPoolMXBean::resetPeakUsage);
+        long begin = System.nanoTime();
+        load.run();
+        long elapsed = (System.nanoTime() - begin) / 1_000_000;
+        long peak = pools.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum() - baseline;
+        System.out.printf("%-12s load=%d ms peak heap=+%d MB%n", name, elapsed, peak / (1024 * 1024));
+    }
+
+    private static List<Task> board(int size) {
+        List<Task> tasks = new ArrayList<>(size);
+        int id = 1;
+        while (tasks.size() < size) {
+            int epicId = id++;
+            tasks.add(new Epic(epicId, "Эпик", "Описание эпика", Status.NEW));
+            for (int i = 0; i < 4 && tasks.size() < size; i++, id++) {
+                tasks.add(new Subtask(id, "Подзадача", "Описание подзадачи " + id, Status.NEW,
+                        slot(id), SLOT, epicId));
+            }
+            if (tasks.size() < size) {
+                tasks.add(new Task(id, "Задача", "Описание задачи " + id, Status.NEW));
+                id++;
+            }
+        }
+        return tasks;
+    }
+
+    /*
+     * Загрузчик в том виде, в каком он был до потокового чтения.
+     */
+    private static class LegacyLoader extends FileBackedTaskManager {
+        private final File file;
+
+        private LegacyLoader(File file) {
+            super(file.getPath());
+            this.file = file;
+        }
+
+        private void legacyLoad() {
+            try (BufferedReader reader = new BufferedReader(new FileReader(file, StandardCharsets.UTF_8))) {
+                List<String> lines = reader.lines().toList();
+                lines.stream()
+                        .skip(1)
+                        .map(l -> l.split(","))
+                        .forEach(line -> {
+                            Task task = CSVFormatter.fromString(line);
+                            switch (task.getType()) {
+                                case TASK -> storeTask(task);
+                                case EPIC -> storeEpic((Epic) task);
+                                case SUBTASK -> storeSubtask((Subtask) task);
+                            }
+                        });
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+}
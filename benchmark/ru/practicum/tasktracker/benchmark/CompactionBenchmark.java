@@ -0,0 +1,58 @@
+package ru.practicum.tasktracker.benchmark;
+
+import ru.practicum.tasktracker.enums.PersistenceMode;
+import ru.practicum.tasktracker.enums.Status;
+import ru.practicum.tasktracker.manager.FileBackedTaskManager;
+import ru.practicum.tasktracker.task.Task;
+
+import java.io.File;
+import java.io.IOException;
+
+import static ru.practicum.tasktracker.benchmark.BenchmarkSupport.*;
+
+/**
+ * Холодный старт FileBackedTaskManager в режиме WAL до и после уплотнения: доска из небольшого
+ * числа задач, каждая из которых много раз обновлялась, так что журнал намного больше самой доски.
+ */
+public class CompactionBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        int boardSize = intArg(args, 0, 10_000);
+        int updatesPerTask = intArg(args, 1, 20);
+        File file = File.createTempFile("kanban", ".csv");
+        file.delete();
+        FileBackedTaskManager taskManager = FileBackedTaskManager.builder(file.getPath())
+                .mode(PersistenceMode.WAL)
+                .compactionCheckMillis(0)
+                .build();
+        for (int round = 0; round < updatesPerTask; round++) {
+            for (int i = 1; i <= boardSize; i++) {
+                Task task = new Task(i, "Задача", "description " + round, Status.NEW,
+                        slot(i), SLOT);
+                if (round == 0) {
+                    taskManager.createTask(task);
+                } else {
+                    taskManager.updateTask(task);
+                }
+            }
+        }
+        System.out.printf("log=%d bytes, cold start=%d ms%n", taskManager.getLogSize(), coldStart(file));
+
+        taskManager.compact();
+        System.out.printf("compaction: %s%n", taskManager.getCompactionMetrics());
+        System.out.printf("log=%d bytes, cold start=%d ms%n", taskManager.getLogSize(), coldStart(file));
+
+        taskManager.close();
+        file.delete();
+    }
+
+    private static long coldStart(File file) {
+        long begin = System.nanoTime();
+        FileBackedTaskManager loaded = FileBackedTaskManager.builder(file.getPath())
+                .mode(PersistenceMode.WAL)
+                .compactionCheckMillis(0)
+                .build();
+        loaded.loadFromFile();
+        return (System.nanoTime() - begin) / 1_000_000;
+    }
+}
@@ -0,0 +1,61 @@
+package ru.practicum.tasktracker.benchmark;
+
+import ru.practicum.tasktracker.http.HttpTaskServer;
+import ru.practicum.tasktracker.manager.InMemoryTaskManager;
+import ru.practicum.tasktracker.manager.TaskManager;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static ru.practicum.tasktracker.benchmark.BenchmarkSupport.*;
+
+/**
+ * GET /tasks на 10 000 задач без сжатия, с gzip и с deflate: с потоковым сжатием (кэш ответов
+ * выключен) и из кэша, где сжатый вариант хранится готовым. Печатаются размер тела на проводе,
+ * лучшее среднее время запроса на локальной петле и расчётное время передачи тела по каналу 10 Мбит/с.
+ */
+public class CompressionBenchmark {
+
+    private static final int REQUESTS = 50;
+    private static final int ROUNDS = 3;
+    private static final double LINK_BYTES_PER_SECOND = 10_000_000 / 8.0;
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int size = intArg(args, 0, 10_000);
+        TaskManager taskManager = new InMemoryTaskManager();
+        taskManager.createAll(timedTasks(size));
+        for (long cacheBytes : new long[]{0, HttpTaskServer.RESPONSE_CACHE_BYTES}) {
+            HttpTaskServer server = server(taskManager).responseCacheBytes(cacheBytes).build();
+            server.start();
+            try {
+                HttpClient client = HttpClient.newHttpClient();
+                for (String encoding : new String[]{"identity", "gzip", "deflate"}) {
+                    report(cacheBytes == 0 ? "streamed" : "cached", encoding, client, server);
+                }
+            } finally {
+                server.stop();
+            }
+        }
+    }
+
+    private static void report(String mode, String encoding, HttpClient client, HttpTaskServer server)
+            throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(uri(server, "/tasks"))
+                .header("Accept-Encoding", encoding)
+                .GET()
+                .build();
+        long best = Long.MAX_VALUE;
+        int bytes = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long begin = System.nanoTime();
+            for (int i = 0; i < REQUESTS; i++) {
+                bytes = client.send(request, HttpResponse.BodyHandlers.ofByteArray()).body().length;
+            }
+            best = Math.min(best, (System.nanoTime() - begin) / REQUESTS);
+        }
+        System.out.printf("%-8s %-8s body=%8d bytes %8d us per request, 10 Mbit/s transfer=%5d ms%n", mode,
+                encoding, bytes, best / 1_000, (long) (bytes / LINK_BYTES_PER_SECOND * 1_000));
+    }
+}
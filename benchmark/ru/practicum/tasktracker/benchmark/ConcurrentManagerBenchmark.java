@@ -0,0 +1,65 @@
+package ru.practicum.tasktracker.benchmark;
+
+import ru.practicum.tasktracker.enums.Status;
+import ru.practicum.tasktracker.manager.ConcurrentTaskManager;
+import ru.practicum.tasktracker.manager.InMemoryTaskManager;
+import ru.practicum.tasktracker.manager.TaskManager;
+import ru.practicum.tasktracker.task.Epic;
+import ru.practicum.tasktracker.task.Subtask;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static ru.practicum.tasktracker.benchmark.BenchmarkSupport.*;
+
+/**
+ * Сравнение пропускной способности InMemoryTaskManager (один поток) и ConcurrentTaskManager
+ * при росте числа потоков. Каждый поток работает со своими эпиками: создаёт подзадачи
+ * в непересекающихся интервалах и читает их.
+ */
+public class ConcurrentManagerBenchmark {
+
+    private static final int OPERATIONS_PER_THREAD = 200_000;
+    private static final int SUBTASKS_PER_EPIC = 100;
+
+    public static void main(String[] args) throws Exception {
+        int maxThreads = Runtime.getRuntime().availableProcessors();
+        run("InMemoryTaskManager", new InMemoryTaskManager(), 1);
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            run("ConcurrentTaskManager", new ConcurrentTaskManager(), threads);
+        }
+    }
+
+    private static void run(String name, TaskManager taskManager, int threads) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        long begin = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            final long offset = (long) t * OPERATIONS_PER_THREAD;
+            futures.add(executor.submit(() -> work(taskManager, offset)));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        long nanos = System.nanoTime() - begin;
+        executor.shutdown();
+        long operations = (long) threads * OPERATIONS_PER_THREAD;
+        System.out.printf("%-22s threads=%-3d %,12d ops/s%n", name, threads, operations * 1_000_000_000L / nanos);
+    }
+
+    private static Void work(TaskManager taskManager, long offset) {
+        Epic epic = null;
+        for (int i = 0; i < OPERATIONS_PER_THREAD; i += 2) {
+            if (i % (SUBTASKS_PER_EPIC * 2) == 0) {
+                epic = taskManager.createEpic(new Epic("Эпик", "description", Status.NEW));
+            }
+            Subtask subtask = taskManager.createSubtask(new Subtask("Подзадача", "description", Status.NEW,
+                    slot(offset + i), SLOT, epic.getId()));
+            taskManager.getSubtask(subtask.getId());
+        }
+        return null;
+    }
+}
@@ -0,0 +1,61 @@
+package ru.practicum.tasktracker.benchmark;
+
+import ru.practicum.tasktracker.http.HttpTaskServer;
+import ru.practicum.tasktracker.manager.InMemoryTaskManager;
+import ru.practicum.tasktracker.manager.TaskManager;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static ru.practicum.tasktracker.benchmark.BenchmarkSupport.*;
+
+/**
+ * Опрос GET /tasks клиентом, у которого список уже есть: обычный запрос, каждый раз сериализующий
+ * всю коллекцию, против запроса с If-None-Match, на который сервер отвечает 304 после сравнения
+ * номера изменения. Печатаются лучшее среднее время запроса и размер тела ответа.
+ */
+public class ConditionalGetBenchmark {
+
+    private static final int REQUESTS = 200;
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int size = intArg(args, 0, 10_000);
+        TaskManager taskManager = new InMemoryTaskManager();
+        taskManager.createAll(timedTasks(size));
+        HttpTaskServer server = server(taskManager).build();
+        server.start();
+        try {
+            URI tasks = uri(server, "/tasks");
+            HttpClient client = HttpClient.newHttpClient();
+            HttpResponse<String> first = client.send(HttpRequest.newBuilder(tasks).GET().build(),
+                    HttpResponse.BodyHandlers.ofString());
+            String etag = first.headers().firstValue("ETag").orElseThrow();
+
+            HttpRequest plain = HttpRequest.newBuilder(tasks).GET().build();
+            HttpRequest conditional = HttpRequest.newBuilder(tasks).header("If-None-Match", etag).GET().build();
+            report("full GET", client, plain, size);
+            report("If-None-Match", client, conditional, size);
+        } finally {
+            server.stop();
+        }
+    }
+
+    private static void report(String name, HttpClient client, HttpRequest request, int size)
+            throws IOException, InterruptedException {
+        long best = Long.MAX_VALUE;
+        HttpResponse<String> response = null;
+        for (int round = 0; round < ROUNDS; round++) {
+            long begin = System.nanoTime();
+            for (int i = 0; i < REQUESTS; i++) {
+                response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            }
+            best = Math.min(best, (System.nanoTime() - begin) / REQUESTS);
+        }
+        System.out.printf("tasks=%d %-14s status=%d body=%d chars %8d us per request%n", size, name,
+                response.statusCode(), response.body().length(), best / 1_000);
+    }
+}
@@ -0,0 +1,106 @@
+package ru.practicum.tasktracker.benchmark;
+
+import ru.practicum.tasktracker.enums.Status;
+import ru.practicum.tasktracker.manager.CSVFormatter;
+import ru.practicum.tasktracker.task.Epic;
+import ru.practicum.tasktracker.task.Subtask;
+import ru.practicum.tasktracker.task.Task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+import static ru.practicum.tasktracker.benchmark.BenchmarkSupport.*;
+
+/**
+ * Запись и разбор строк CSV: прежняя реализация (конкатенация строк, split и DateTimeFormatter на каждую
+ * дату) против посимвольного CSVFormatter. Каждая фаза прогревается и измеряется несколько раз,
+ * печатается лучший результат.
+ */
+public class CsvCodecBenchmark {
+
+    private static final int ROUNDS = 7;
+
+    private static long blackhole;
+
+    public static void main(String[] args) {
+        int size = intArg(args, 0, 500_000);
+        List<Task> tasks = new ArrayList<>(size);
+        for (int i = 1; i <= size; i++) {
+            LocalDateTime start = i % 4 == 0 ? null : slot(i);
+            Duration duration = start == null ? null : SLOT;
+            tasks.add(i % 5 == 0 ? new Subtask(i, "Подзадача", "Описание " + i, Status.NEW, start, duration, 1)
+                    : new Task(i, "Задача", "Описание " + i, Status.IN_PROGRESS, start, duration));
+        }
+        List<String> lines = tasks.stream().map(CSVFormatter::format).toList();
+
+        report("format  legacy", () -> {
+            for (Task task : tasks) {
+                blackhole += Legacy.format(task).length();
+            }
+        });
+        report("format  builder", () -> {
+            StringBuilder builder = new StringBuilder(256);
+            for (Task task : tasks) {
+                builder.setLength(0);
+                CSVFormatter.format(task, builder);
+                blackhole += builder.length();
+            }
+        });
+        report("parse   legacy", () -> {
+            for (String line : lines) {
+                blackhole += Legacy.parse(line.split(",")).getId();
+            }
+        });
+        report("parse   cursor", () -> {
+            for (String line : lines) {
+                blackhole += CSVFormatter.parse(line).getId();
+            }
+        });
+        System.out.println(blackhole == 42 ? "" : "ok");
+    }
+
+    private static void report(String name, Runnable phase) {
+        System.out.printf("%-16s %d ms%n", name, best(ROUNDS, phase) / 1_000_000);
+    }
+
+    /*
+     * Реализация CSVFormatter до посимвольного разбора.
+     */
+    private static class Legacy {
+
+        private static String format(Task task) {
+            String times = task.getStartTime() != null
+                    ? date(task.getStartTime()) + "," + date(task.getEndTime()) + "," + task.getDuration().toMinutes()
+                    : null + "," + null + "," + null;
+            String result = task.getId() + "," + task.getType() + "," + task.getName() + "," +
+                    task.getDescription() + "," + task.getStatus() + "," + times;
+            return task instanceof Subtask ? result + "," + task.getEpicId() : result;
+        }
+
+        private static String date(LocalDateTime time) {
+            return time.format(DateTimeFormatter.ofPattern("dd.MM.yy HH:mm"));
+        }
+
+        private static Task parse(String[] line) {
+            int id = Integer.parseInt(line[0]);
+            String type = line[1];
+            Status status = Status.valueOf(line[4]);
+            LocalDateTime startTime = null;
+            LocalDateTime endTime = null;
+            if (!line[5].equals("null")) {
+                startTime = LocalDateTime.parse(line[5], DateTimeFormatter.ofPattern("dd.MM.yy HH:mm"));
+                endTime = LocalDateTime.parse(line[6], DateTimeFormatter.ofPattern("dd.MM.yy HH:mm"));
+            }
+            Duration duration = line[7].equals("null") ? null : Duration.ofMinutes(Long.parseLong(line[7]));
+            return switch (type) {
+                case "EPIC" -> new Epic(id, line[2], line[3], status, startTime, duration, endTime);
+                case "SUBTASK" -> new Subtask(id, line[2], line[3], status, startTime, duration,
+                        Integer.parseInt(line[8]));
+                default -> new Task(id, line[2], line[3], status, startTime, duration);
+            };
+        }
+    }
+}
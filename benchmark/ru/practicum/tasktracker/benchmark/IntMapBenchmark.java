@@ -0,0 +1,68 @@
+package ru.practicum.tasktracker.benchmark;
+
+import ru.practicum.tasktracker.enums.Status;
+import ru.practicum.tasktracker.manager.IntObjectMap;
+import ru.practicum.tasktracker.task.Task;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static ru.practicum.tasktracker.benchmark.BenchmarkSupport.*;
+
+/**
+ * Сравнение хранилища задач на HashMap&lt;Integer, Task&gt; и на IntObjectMap: занимаемая память
+ * (без учёта самих задач) и среднее время случайного поиска по id.
+ * Память оценивается по разнице занятой кучи после сборки мусора, поэтому цифры приблизительные.
+ */
+public class IntMapBenchmark {
+
+    private static final int LOOKUPS = 10_000_000;
+
+    public static void main(String[] args) {
+        int size = intArg(args, 0, 1_000_000);
+        Task[] tasks = new Task[size];
+        for (int i = 0; i < size; i++) {
+            tasks[i] = new Task(i + 1, "Задача", "description", Status.NEW);
+        }
+        int[] probes = new int[LOOKUPS];
+        Random random = new Random(42);
+        for (int i = 0; i < LOOKUPS; i++) {
+            probes[i] = random.nextInt(size) + 1;
+        }
+
+        long before = usedHeap();
+        Map<Integer, Task> hashMap = new HashMap<>();
+        for (Task task : tasks) {
+            hashMap.put(task.getId(), task);
+        }
+        long hashMapBytes = usedHeap() - before;
+
+        before = usedHeap();
+        IntObjectMap<Task> intMap = new IntObjectMap<>();
+        for (Task task : tasks) {
+            intMap.put(task.getId(), task);
+        }
+        long intMapBytes = usedHeap() - before;
+
+        for (int round = 0; round < 5; round++) {
+            long begin = System.nanoTime();
+            long found = 0;
+            for (int probe : probes) {
+                found += hashMap.get(probe).getId();
+            }
+            long hashMapNanos = System.nanoTime() - begin;
+
+            begin = System.nanoTime();
+            for (int probe : probes) {
+                found -= intMap.get(probe).getId();
+            }
+            long intMapNanos = System.nanoTime() - begin;
+
+            System.out.printf("round=%d HashMap get=%.1f ns IntObjectMap get=%.1f ns (check=%d)%n", round,
+                    (double) hashMapNanos / LOOKUPS, (double) intMapNanos / LOOKUPS, found);
+        }
+        System.out.printf("entries=%d HashMap=%d bytes/entry IntObjectMap=%d bytes/entry%n", size,
+                hashMapBytes / size, intMapBytes / size);
+    }
+}
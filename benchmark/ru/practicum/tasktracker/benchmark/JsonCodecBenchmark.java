@@ -0,0 +1,77 @@
+package ru.practicum.tasktracker.benchmark;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import ru.practicum.tasktracker.enums.Status;
+import ru.practicum.tasktracker.http.adapter.DurationAdapter;
+import ru.practicum.tasktracker.http.adapter.LocalDateTimeAdapter;
+import ru.practicum.tasktracker.manager.Managers;
+import ru.practicum.tasktracker.task.Epic;
+import ru.practicum.tasktracker.task.Subtask;
+import ru.practicum.tasktracker.task.Task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.function.Supplier;
+
+import static ru.practicum.tasktracker.benchmark.BenchmarkSupport.*;
+
+/**
+ * Сериализация задач в JSON и обратно: новый рефлексивный Gson на каждый запрос (как было в обработчиках),
+ * общий рефлексивный Gson и общий Gson с собственными адаптерами. Печатаются время и число байт,
+ * выделенных в куче на одну операцию (по счётчику потока), лучший результат из нескольких прогонов.
+ */
+public class JsonCodecBenchmark {
+
+    private static final int ROUNDS = 5;
+
+    private static long blackhole;
+
+    public static void main(String[] args) {
+        int operations = intArg(args, 0, 200_000);
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 9, 0);
+        Task task = new Task(1, "Задача", "Описание задачи", Status.IN_PROGRESS, start, Duration.ofMinutes(30));
+        Subtask subtask = new Subtask(2, "Подзадача", "Описание подзадачи", Status.NEW, start,
+                Duration.ofMinutes(15), 3);
+        Epic epic = new Epic(3, "Эпик", "Описание эпика", Status.NEW, start, Duration.ofMinutes(15),
+                start.plusMinutes(15));
+        epic.addSubtask(subtask);
+        Gson reflective = reflectiveGson();
+        Gson cached = Managers.getGson();
+
+        for (Object value : new Object[]{task, subtask, epic}) {
+            Class<?> type = value.getClass();
+            String json = cached.toJson(value);
+            System.out.println(type.getSimpleName() + ": " + json);
+            measure("toJson   new Gson", operations, () -> reflectiveGson().toJson(value));
+            measure("toJson   reflective", operations, () -> reflective.toJson(value));
+            measure("toJson   adapters", operations, () -> cached.toJson(value));
+            measure("fromJson new Gson", operations, () -> reflectiveGson().fromJson(json, type));
+            measure("fromJson reflective", operations, () -> reflective.fromJson(json, type));
+            measure("fromJson adapters", operations, () -> cached.fromJson(json, type));
+        }
+        System.out.println(blackhole == 42 ? "" : "ok");
+    }
+
+    private static Gson reflectiveGson() {
+        return new GsonBuilder()
+                .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())
+                .registerTypeAdapter(Duration.class, new DurationAdapter())
+                .create();
+    }
+
+    private static void measure(String name, int operations, Supplier<Object> operation) {
+        long bestTime = Long.MAX_VALUE;
+        long bestBytes = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long bytes = allocatedBytes();
+            long begin = System.nanoTime();
+            for (int i = 0; i < operations; i++) {
+                blackhole += operation.get().hashCode();
+            }
+            bestTime = Math.min(bestTime, System.nanoTime() - begin);
+            bestBytes = Math.min(bestBytes, allocatedBytes() - bytes);
+        }
+        System.out.printf("  %-20s %6d ns/op %7d B/op%n", name, bestTime / operations, bestBytes / operations);
+    }
+}
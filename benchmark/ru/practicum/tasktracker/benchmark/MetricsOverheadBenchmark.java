@@ -0,0 +1,83 @@
+package ru.practicum.tasktracker.benchmark;
+
+import ru.practicum.tasktracker.enums.Status;
+import ru.practicum.tasktracker.manager.InMemoryTaskManager;
+import ru.practicum.tasktracker.manager.MeteredTaskManager;
+import ru.practicum.tasktracker.manager.TaskManager;
+import ru.practicum.tasktracker.metrics.LatencyHistogram;
+import ru.practicum.tasktracker.metrics.MetricsRegistry;
+import ru.practicum.tasktracker.task.Task;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static ru.practicum.tasktracker.benchmark.BenchmarkSupport.*;
+
+/**
+ * Цена метрик: запись в LatencyHistogram из одного и из нескольких потоков и чтение задачи
+ * через MeteredTaskManager против прямого вызова менеджера. Печатается лучшее время на операцию.
+ */
+public class MetricsOverheadBenchmark {
+
+    private static final int OPERATIONS = 2_000_000;
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws InterruptedException {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int threads : new int[]{1, 4, Runtime.getRuntime().availableProcessors()}) {
+            long best = Long.MAX_VALUE;
+            for (int round = 0; round < ROUNDS; round++) {
+                best = Math.min(best, recordConcurrently(histogram, threads));
+            }
+            System.out.printf("record, %2d threads %6.1f ns per operation%n", threads, (double) best / OPERATIONS);
+        }
+
+        TaskManager taskManager = new InMemoryTaskManager();
+        List<Task> batch = new ArrayList<>();
+        for (int i = 1; i <= 1_000; i++) {
+            batch.add(new Task("Задача " + i, "Описание задачи " + i, Status.NEW));
+        }
+        taskManager.createAll(batch);
+        TaskManager metered = new MeteredTaskManager(taskManager, new MetricsRegistry());
+        for (int round = 0; round < 2; round++) {
+            report("getTask, plain", taskManager);
+            report("getTask, metered", metered);
+        }
+    }
+
+    private static long recordConcurrently(LatencyHistogram histogram, int threads) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < OPERATIONS / threads; i++) {
+                    histogram.record(i * 37L);
+                }
+            });
+            worker.start();
+            workers.add(worker);
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return System.nanoTime() - begin;
+    }
+
+    private static void report(String name, TaskManager taskManager) {
+        long[] checksum = new long[1];
+        long best = best(ROUNDS, () -> {
+            for (int i = 0; i < OPERATIONS; i++) {
+                checksum[0] += taskManager.getTask(i % 1_000 + 1).getId();
+            }
+        });
+        System.out.printf("%-18s %6.1f ns per operation (checksum %d)%n", name, (double) best / OPERATIONS, checksum[0]);
+    }
+}
@@ -0,0 +1,55 @@
+package ru.practicum.tasktracker.benchmark;
+
+import ru.practicum.tasktracker.manager.InMemoryTaskManager;
+import ru.practicum.tasktracker.manager.TaskManager;
+import ru.practicum.tasktracker.task.Task;
+
+import static ru.practicum.tasktracker.benchmark.BenchmarkSupport.*;
+
+/**
+ * Замер первой страницы списка задач и расписания в сравнении с полным списком при росте числа задач.
+ * Перед каждым чтением одна задача обновляется, как при живой нагрузке, поэтому кэш упорядоченного
+ * списка расписания не помогает. Полный список растёт линейно, страница — практически нет.
+ */
+public class PaginationBenchmark {
+
+    private static final int PAGE_SIZE = 100;
+    private static final int ROUNDS = 50;
+
+    public static void main(String[] args) {
+        int maxSize = intArg(args, 0, 1_000_000);
+        TaskManager taskManager = new InMemoryTaskManager();
+        int created = 0;
+        for (int size = 10_000; size <= maxSize; size *= 10) {
+            taskManager.createAll(timedTasks(size).subList(created, size));
+            created = size;
+            Task touched = taskManager.getTasks(null, 1).get(0);
+            long fullTasks = best(() -> taskManager.getTasks().size(), taskManager, touched);
+            long pageTasks = best(() -> taskManager.getTasks(null, PAGE_SIZE).size(), taskManager, touched);
+            long fullSchedule = best(() -> taskManager.getPrioritizedTasks().size(), taskManager, touched);
+            long pageSchedule = best(() -> taskManager.getPrioritizedTasks(null, null, PAGE_SIZE).size(),
+                    taskManager, touched);
+            System.out.printf("tasks=%-8d getTasks=%d us page=%d us | prioritized=%d us page=%d us%n", size,
+                    fullTasks / 1_000, pageTasks / 1_000, fullSchedule / 1_000, pageSchedule / 1_000);
+        }
+    }
+
+    private static long best(Read read, TaskManager taskManager, Task touched) {
+        long best = Long.MAX_VALUE;
+        int sink = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            taskManager.updateTask(touched);
+            long begin = System.nanoTime();
+            sink += read.size();
+            best = Math.min(best, System.nanoTime() - begin);
+        }
+        if (sink == 42) {
+            System.out.println();
+        }
+        return best;
+    }
+
+    private interface Read {
+        int size();
+    }
+}
@@ -0,0 +1,51 @@
+package ru.practicum.tasktracker.benchmark;
+
+import ru.practicum.tasktracker.enums.SnapshotFormat;
+import ru.practicum.tasktracker.manager.Snapshots;
+import ru.practicum.tasktracker.task.Task;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static ru.practicum.tasktracker.benchmark.BenchmarkSupport.*;
+
+/**
+ * Разбор CSV-снимка на ForkJoinPool разного размера: от одного потока до числа ядер.
+ */
+public class ParallelLoadBenchmark {
+
+    private static final int ROUNDS = 3;
+
+    public static void main(String[] args) throws IOException {
+        int size = intArg(args, 0, 1_000_000);
+        List<Task> tasks = timedTasks(size);
+        for (int i = 0; i < size; i++) {
+            tasks.get(i).setId(i + 1);
+        }
+        File file = File.createTempFile("kanban", ".csv");
+        try (OutputStream out = new FileOutputStream(file)) {
+            Snapshots.codec(SnapshotFormat.CSV).write(tasks, out);
+        }
+        tasks = null;
+        int cores = Runtime.getRuntime().availableProcessors();
+        System.out.printf("file=%d bytes, cores=%d%n", file.length(), cores);
+        for (int threads = 1; threads <= cores; threads *= 2) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            long best = best(ROUNDS, () -> {
+                try {
+                    Snapshots.readAll(file.toPath(), pool);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            System.out.printf("threads=%d parse=%d ms%n", threads, best / 1_000_000);
+            pool.shutdown();
+        }
+        file.delete();
+    }
+}
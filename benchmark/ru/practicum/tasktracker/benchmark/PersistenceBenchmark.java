@@ -0,0 +1,56 @@
+package ru.practicum.tasktracker.benchmark;
+
+import ru.practicum.tasktracker.enums.Durability;
+import ru.practicum.tasktracker.enums.PersistenceMode;
+import ru.practicum.tasktracker.enums.Status;
+import ru.practicum.tasktracker.manager.FileBackedTaskManager;
+import ru.practicum.tasktracker.task.Task;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import static ru.practicum.tasktracker.benchmark.BenchmarkSupport.*;
+
+/**
+ * Стоимость одной операции updateTask в FileBackedTaskManager в зависимости от размера доски и режима
+ * записи: в режиме SNAPSHOT она растёт вместе с доской, в режиме WAL зависит только от размера записи.
+ * GROUP_COMMIT и ASYNC объединяют операции в общий сброс; время включает итоговый flush.
+ */
+public class PersistenceBenchmark {
+
+    private static final int UPDATES = 200;
+
+    public static void main(String[] args) throws IOException {
+        int maxSize = intArg(args, 0, 64_000);
+        for (int size = 1_000; size <= maxSize; size *= 4) {
+            for (PersistenceMode mode : PersistenceMode.values()) {
+                for (Durability durability : Durability.values()) {
+                    run(size, mode, durability);
+                }
+            }
+        }
+    }
+
+    private static void run(int size, PersistenceMode mode, Durability durability) throws IOException {
+        File file = File.createTempFile("kanban", ".csv");
+        FileBackedTaskManager taskManager = new FileBackedTaskManager(file.getPath(), mode, durability);
+        List<Task> board = timedTasks(size);
+        taskManager.createAll(board);
+
+        long begin = System.nanoTime();
+        for (int i = 0; i < UPDATES; i++) {
+            Task task = board.get(i);
+            taskManager.updateTask(new Task(task.getId(), task.getName(), "updated", Status.IN_PROGRESS,
+                    task.getStartTime(), task.getDuration()));
+        }
+        taskManager.flush();
+        long micros = (System.nanoTime() - begin) / UPDATES / 1_000;
+        System.out.printf("tasks=%-7d mode=%-8s durability=%-12s updateTask=%d us%n", size, mode,
+                durability, micros);
+
+        taskManager.close();
+        file.delete();
+        new File(file.getPath() + ".wal").delete();
+    }
+}
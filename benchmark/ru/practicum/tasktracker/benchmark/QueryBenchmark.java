@@ -0,0 +1,64 @@
+package ru.practicum.tasktracker.benchmark;
+
+import ru.practicum.tasktracker.enums.Status;
+import ru.practicum.tasktracker.enums.Type;
+import ru.practicum.tasktracker.manager.InMemoryTaskManager;
+import ru.practicum.tasktracker.manager.TaskManager;
+import ru.practicum.tasktracker.manager.TaskQuery;
+import ru.practicum.tasktracker.task.Epic;
+import ru.practicum.tasktracker.task.Subtask;
+import ru.practicum.tasktracker.task.Task;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static ru.practicum.tasktracker.benchmark.BenchmarkSupport.*;
+
+/**
+ * Замер выборки «подзадачи IN_PROGRESS, начинающиеся на этой неделе» на доске из миллиона подзадач:
+ * фильтрация полного списка на стороне клиента против {@link TaskManager#findTasks(TaskQuery)}.
+ * Отдельно замеряется запрос, где избирателен только статус, и запрос по подзадачам одного эпика.
+ */
+public class QueryBenchmark {
+
+    private static final int EPICS = 1_000;
+    private static final int ROUNDS = 20;
+
+    public static void main(String[] args) {
+        int size = intArg(args, 0, 1_000_000);
+        TaskManager taskManager = new InMemoryTaskManager();
+        List<Task> epics = new ArrayList<>();
+        for (int i = 0; i < EPICS; i++) {
+            epics.add(new Epic(i + 1, "Эпик", "description", Status.NEW));
+        }
+        taskManager.createAll(epics);
+        List<Task> batch = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            Status status = i % 1_000 == 0 ? Status.IN_PROGRESS : (i % 2 == 0 ? Status.NEW : Status.DONE);
+            batch.add(new Subtask("Подзадача", "description", status, slot(i), SLOT,
+                    i % EPICS + 1));
+        }
+        taskManager.createAll(batch);
+
+        LocalDateTime from = START.plusDays(30);
+        LocalDateTime to = from.plusWeeks(1);
+        TaskQuery week = TaskQuery.builder().type(Type.SUBTASK).status(Status.IN_PROGRESS).from(from).to(to).build();
+        TaskQuery inProgress = TaskQuery.builder().status(Status.IN_PROGRESS).build();
+        TaskQuery epic = TaskQuery.builder().epicId(7).status(Status.NEW).build();
+
+        report("week, client filter", () -> taskManager.getSubtasks().stream().filter(week::matches).count());
+        report("week, findTasks", () -> (long) taskManager.findTasks(week).size());
+        report("status, client filter", () -> taskManager.getSubtasks().stream().filter(inProgress::matches).count());
+        report("status, findTasks", () -> (long) taskManager.findTasks(inProgress).size());
+        report("epic, client filter", () -> taskManager.getSubtasks().stream().filter(epic::matches).count());
+        report("epic, findTasks", () -> (long) taskManager.findTasks(epic).size());
+    }
+
+    private static void report(String name, Supplier<Long> query) {
+        long[] found = new long[1];
+        long best = best(ROUNDS, () -> found[0] = query.get());
+        System.out.printf("%-22s found=%-5d %8d us%n", name, found[0], best / 1_000);
+    }
+}
@@ -0,0 +1,56 @@
+package ru.practicum.tasktracker.benchmark;
+
+import ru.practicum.tasktracker.http.HttpTaskServer;
+import ru.practicum.tasktracker.manager.InMemoryTaskManager;
+import ru.practicum.tasktracker.manager.TaskManager;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static ru.practicum.tasktracker.benchmark.BenchmarkSupport.*;
+
+/**
+ * Повторные чтения списка задач и одной задачи через HTTP без кэша ответов и с ним.
+ * С кэшем каждое чтение после первого отдаёт готовые байты без вызова Gson; печатаются лучшее
+ * среднее время запроса и доля попаданий.
+ */
+public class ResponseCacheBenchmark {
+
+    private static final int REQUESTS = 200;
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int size = intArg(args, 0, 10_000);
+        TaskManager taskManager = new InMemoryTaskManager();
+        taskManager.createAll(timedTasks(size));
+        for (long cacheBytes : new long[]{0, HttpTaskServer.RESPONSE_CACHE_BYTES}) {
+            HttpTaskServer server = server(taskManager).responseCacheBytes(cacheBytes).build();
+            server.start();
+            try {
+                HttpClient client = HttpClient.newHttpClient();
+                String mode = cacheBytes == 0 ? "no cache" : "cache";
+                report(mode + ", list", client, uri(server, "/tasks"));
+                report(mode + ", task", client, uri(server, "/tasks/" + size / 2));
+                System.out.printf("%s hit rate=%.3f%n", mode, server.getResponseCache().getHitRate());
+            } finally {
+                server.stop();
+            }
+        }
+    }
+
+    private static void report(String name, HttpClient client, URI uri) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(uri).GET().build();
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long begin = System.nanoTime();
+            for (int i = 0; i < REQUESTS; i++) {
+                client.send(request, HttpResponse.BodyHandlers.ofString());
+            }
+            best = Math.min(best, (System.nanoTime() - begin) / REQUESTS);
+        }
+        System.out.printf("%-16s %8d us per request%n", name, best / 1_000);
+    }
+}
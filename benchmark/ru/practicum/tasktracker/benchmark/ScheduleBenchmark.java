@@ -0,0 +1,30 @@
+package ru.practicum.tasktracker.benchmark;
+
+import ru.practicum.tasktracker.enums.Status;
+import ru.practicum.tasktracker.manager.InMemoryTaskManager;
+import ru.practicum.tasktracker.task.Task;
+
+import static ru.practicum.tasktracker.benchmark.BenchmarkSupport.*;
+
+/**
+ * Замер стоимости записи в зависимости от размера расписания: на каждом шаге в менеджер
+ * добавляется ещё столько же задач, и печатается среднее время одного createTask.
+ * При проверке пересечений через дерево интервалов время растёт логарифмически.
+ */
+public class ScheduleBenchmark {
+
+    public static void main(String[] args) {
+        int maxSize = intArg(args, 0, 256_000);
+        InMemoryTaskManager taskManager = new InMemoryTaskManager();
+        int created = 0;
+        for (int size = 1_000; size <= maxSize; size *= 2) {
+            long begin = System.nanoTime();
+            int batch = size - created;
+            for (int i = 0; i < batch; i++, created++) {
+                taskManager.createTask(new Task("Задача", "description", Status.NEW, slot(created), SLOT));
+            }
+            long nanosPerWrite = (System.nanoTime() - begin) / batch;
+            System.out.printf("tasks=%-8d createTask=%d ns%n", size, nanosPerWrite);
+        }
+    }
+}
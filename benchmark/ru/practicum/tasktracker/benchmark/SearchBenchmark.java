@@ -0,0 +1,88 @@
+package ru.practicum.tasktracker.benchmark;
+
+import ru.practicum.tasktracker.enums.Status;
+import ru.practicum.tasktracker.manager.SearchIndex;
+import ru.practicum.tasktracker.task.Task;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static ru.practicum.tasktracker.benchmark.BenchmarkSupport.*;
+
+/**
+ * Замер поиска по миллиону задач: название из трёх и описание из шести слов словаря в 20 000
+ * псевдослов с неравномерной частотой. Печатаются время построения индекса, прирост занятой кучи
+ * после его построения и лучшее время запросов разной избирательности по сравнению с перебором
+ * всех задач.
+ */
+public class SearchBenchmark {
+
+    private static final int VOCABULARY = 20_000;
+    private static final int LIMIT = 50;
+    private static final int ROUNDS = 20;
+
+    public static void main(String[] args) {
+        int size = intArg(args, 0, 1_000_000);
+        Random random = new Random(42);
+        String[] words = new String[VOCABULARY];
+        for (int i = 0; i < VOCABULARY; i++) {
+            StringBuilder word = new StringBuilder();
+            int length = 4 + random.nextInt(6);
+            for (int j = 0; j < length; j++) {
+                word.append((char) ('а' + random.nextInt(32)));
+            }
+            words[i] = word.toString();
+        }
+        List<Task> tasks = new ArrayList<>(size);
+        for (int id = 1; id <= size; id++) {
+            tasks.add(new Task(id, text(words, random, 3), text(words, random, 6), Status.NEW));
+        }
+
+        long heapBefore = usedHeap();
+        long begin = System.nanoTime();
+        SearchIndex index = new SearchIndex();
+        tasks.forEach(index::put);
+        long buildMillis = (System.nanoTime() - begin) / 1_000_000;
+        long indexBytes = usedHeap() - heapBefore;
+        System.out.printf("tasks=%d terms=%d build=%d ms index heap=%d MB (%d bytes per task)%n", size,
+                index.termCount(), buildMillis, indexBytes >> 20, indexBytes / size);
+
+        String common = words[0];
+        String rare = words[VOCABULARY - 1];
+        String prefix = words[1].substring(0, 2);
+        report("common word", common, index, tasks);
+        report("rare word", rare, index, tasks);
+        report("two words", common + " " + words[2], index, tasks);
+        report("prefix", prefix, index, tasks);
+    }
+
+    private static void report(String name, String query, SearchIndex index, List<Task> tasks) {
+        String[] parts = query.split(" ");
+        long indexed = best(ROUNDS, () -> index.search(query, LIMIT));
+        long scanned = best(ROUNDS, () -> {
+            int found = 0;
+            for (Task task : tasks) {
+                String text = (task.getName() + " " + task.getDescription()).toLowerCase(Locale.ROOT);
+                boolean matches = true;
+                for (String part : parts) {
+                    matches &= text.contains(part);
+                }
+                if (matches && ++found == LIMIT) {
+                    break;
+                }
+            }
+        });
+        System.out.printf("%-12s search=%d us scan=%d us%n", name, indexed / 1_000, scanned / 1_000);
+    }
+
+    private static String text(String[] words, Random random, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            double skew = random.nextDouble();
+            text.append(i == 0 ? "" : " ").append(words[(int) (words.length * skew * skew * skew)]);
+        }
+        return text.toString();
+    }
+}
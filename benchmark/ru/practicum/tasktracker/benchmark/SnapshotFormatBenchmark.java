@@ -0,0 +1,81 @@
+package ru.practicum.tasktracker.benchmark;
+
+import ru.practicum.tasktracker.enums.SnapshotFormat;
+import ru.practicum.tasktracker.enums.Status;
+import ru.practicum.tasktracker.manager.SnapshotCodec;
+import ru.practicum.tasktracker.manager.Snapshots;
+import ru.practicum.tasktracker.task.Epic;
+import ru.practicum.tasktracker.task.Subtask;
+import ru.practicum.tasktracker.task.Task;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static ru.practicum.tasktracker.benchmark.BenchmarkSupport.*;
+
+/**
+ * Сохранение и загрузка снимка из миллиона задач в CSV и в двоичном формате: время и размер файла.
+ */
+public class SnapshotFormatBenchmark {
+
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws IOException {
+        int size = intArg(args, 0, 1_000_000);
+        List<Task> tasks = board(size);
+        for (SnapshotFormat format : SnapshotFormat.values()) {
+            SnapshotCodec codec = Snapshots.codec(format);
+            File file = File.createTempFile("kanban", "." + format.name().toLowerCase());
+            long save = Long.MAX_VALUE;
+            long load = Long.MAX_VALUE;
+            int loaded = 0;
+            for (int round = 0; round < ROUNDS; round++) {
+                long begin = System.nanoTime();
+                try (OutputStream out = new FileOutputStream(file)) {
+                    codec.write(tasks, out);
+                }
+                save = Math.min(save, System.nanoTime() - begin);
+
+                List<Task> result = new ArrayList<>(size);
+                begin = System.nanoTime();
+                try (InputStream in = new FileInputStream(file)) {
+                    Snapshots.read(in, result::add);
+                }
+                load = Math.min(load, System.nanoTime() - begin);
+                loaded = result.size();
+            }
+            System.out.printf("%-6s tasks=%d size=%d bytes save=%d ms load=%d ms%n", format, loaded, file.length(),
+                    save / 1_000_000, load / 1_000_000);
+            file.delete();
+        }
+    }
+
+    private static List<Task> board(int size) {
+        List<Task> tasks = new ArrayList<>(size);
+        String[] names = {"Задача", "Ревью", "Релиз", "Исправление ошибки", "Созвон"};
+        int id = 1;
+        while (tasks.size() < size) {
+            int epicId = id;
+            tasks.add(new Epic(id++, "Эпик " + epicId % 1000, "Описание эпика", Status.IN_PROGRESS,
+                    slot(epicId), Duration.ofMinutes(40), slot(epicId).plusMinutes(40)));
+            for (int i = 0; i < 4 && tasks.size() < size; i++) {
+                tasks.add(new Subtask(id, names[id % names.length], "Описание подзадачи " + id % 100,
+                        Status.values()[id % 3], slot(id), SLOT, epicId));
+                id++;
+            }
+            if (tasks.size() < size) {
+                tasks.add(new Task(id, names[id % names.length], "Описание задачи", Status.NEW,
+                        id % 2 == 0 ? slot(id) : null, id % 2 == 0 ? SLOT : null));
+                id++;
+            }
+        }
+        return tasks;
+    }
+}
@@ -0,0 +1,58 @@
+package ru.practicum.tasktracker.benchmark;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
+import ru.practicum.tasktracker.manager.Managers;
+import ru.practicum.tasktracker.task.Task;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static ru.practicum.tasktracker.benchmark.BenchmarkSupport.*;
+
+/**
+ * Ответ со списком задач: строка toJson, затем byte[] (как в sendText) против потоковой записи элементов
+ * через JsonWriter (как в sendJsonList). Для первого способа в памяти одновременно живут строка и массив
+ * байт размером со весь ответ, для второго — только буфер потока; печатаются размер ответа и выделенные байты.
+ */
+public class StreamingResponseBenchmark {
+
+    private static final int STREAM_BUFFER_SIZE = 16 * 1024;
+
+    public static void main(String[] args) throws IOException {
+        Gson gson = Managers.getGson();
+        for (int size : new int[]{1_000, 10_000, 100_000, 1_000_000}) {
+            List<Task> tasks = timedTasks(size);
+            for (int round = 0; round < 3; round++) {
+                long before = allocatedBytes();
+                String text = gson.toJson(tasks);
+                byte[] body = text.getBytes(StandardCharsets.UTF_8);
+                OutputStream.nullOutputStream().write(body);
+                long buffered = allocatedBytes() - before;
+
+                before = allocatedBytes();
+                try (JsonWriter writer = gson.newJsonWriter(new BufferedWriter(new OutputStreamWriter(
+                        new BufferedOutputStream(OutputStream.nullOutputStream(), STREAM_BUFFER_SIZE),
+                        StandardCharsets.UTF_8), STREAM_BUFFER_SIZE))) {
+                    writer.beginArray();
+                    for (Task task : tasks) {
+                        gson.toJson(task, task.getClass(), writer);
+                    }
+                    writer.endArray();
+                }
+                long streamed = allocatedBytes() - before;
+                if (round == 2) {
+                    System.out.printf("tasks=%d body=%d bytes; whole response: allocated=%d MB, "
+                                    + "held at once >= %d MB; streamed: allocated=%d MB, held at once ~%d KB%n",
+                            size, body.length, buffered >> 20, ((long) text.length() * 2 + body.length) >> 20,
+                            streamed >> 20, STREAM_BUFFER_SIZE / 1024);
+                }
+            }
+        }
+    }
+}
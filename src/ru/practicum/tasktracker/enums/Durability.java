@@ -0,0 +1,7 @@
+package ru.practicum.tasktracker.enums;
+
+public enum Durability {
+    SYNC,
+    GROUP_COMMIT,
+    ASYNC
+}
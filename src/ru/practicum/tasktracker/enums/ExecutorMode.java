@@ -0,0 +1,7 @@
+package ru.practicum.tasktracker.enums;
+
+public enum ExecutorMode {
+    SINGLE_THREAD,
+    PLATFORM_POOL,
+    VIRTUAL_THREADS
+}
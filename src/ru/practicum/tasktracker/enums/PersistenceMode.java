@@ -0,0 +1,6 @@
+package ru.practicum.tasktracker.enums;
+
+public enum PersistenceMode {
+    SNAPSHOT,
+    WAL
+}
@@ -1,42 +1,231 @@
 package ru.practicum.tasktracker.http;
 
+import com.sun.net.httpserver.HttpHandler;
 import com.sun.net.httpserver.HttpServer;
+import ru.practicum.tasktracker.enums.ExecutorMode;
 import ru.practicum.tasktracker.http.handlers.EpicsHttpHandler;
+import ru.practicum.tasktracker.http.handlers.MetricsHttpHandler;
 import ru.practicum.tasktracker.http.handlers.SubtasksHttpHandler;
 import ru.practicum.tasktracker.http.handlers.TasksHttpHandler;
 import ru.practicum.tasktracker.http.handlers.UserHttpHandler;
+import ru.practicum.tasktracker.manager.CompactionMetrics;
+import ru.practicum.tasktracker.manager.FileBackedTaskManager;
 import ru.practicum.tasktracker.manager.Managers;
+import ru.practicum.tasktracker.manager.MeteredTaskManager;
 import ru.practicum.tasktracker.manager.TaskManager;
+import ru.practicum.tasktracker.metrics.MetricsRegistry;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 public class HttpTaskServer {
 
+    public static final String HOST = "localhost";
+
     public static final int PORT = 8080;
 
+    public static final int BACKLOG = 0;
+
+    public static final long RESPONSE_CACHE_BYTES = 32L * 1024 * 1024;
+
+    private static final long STOP_TIMEOUT_SECONDS = 5;
+
+    private static final String NODELAY_PROPERTY = "sun.net.httpserver.nodelay";
+
     private final HttpServer httpServer;
 
+    private final TaskManager taskManager;
+
+    private final ExecutorService executor;
+
+    private final ResponseCache responseCache;
+
+    private final MetricsRegistry metrics = new MetricsRegistry();
+
+    private final MetricsFilter metricsFilter = new MetricsFilter(metrics);
+
     public HttpTaskServer(TaskManager taskManager) throws IOException {
-        this.httpServer = HttpServer.create(new InetSocketAddress("localhost", PORT), 0);
-        this.httpServer.createContext("/tasks", new TasksHttpHandler(taskManager));
-        this.httpServer.createContext("/epics", new EpicsHttpHandler(taskManager));
-        this.httpServer.createContext("/subtasks", new SubtasksHttpHandler(taskManager));
-        this.httpServer.createContext("/history", new UserHttpHandler(taskManager));
-        this.httpServer.createContext("/prioritized", new UserHttpHandler(taskManager));
+        this(builder(taskManager));
+    }
+
+    private HttpTaskServer(Builder builder) throws IOException {
+        this.taskManager = builder.taskManager;
+        this.responseCache = new ResponseCache(builder.responseCacheBytes);
+        this.httpServer = HttpServer.create(new InetSocketAddress(builder.host, builder.port), builder.backlog);
+        TaskManager metered = new MeteredTaskManager(builder.taskManager, metrics);
+        createContext("/tasks", new TasksHttpHandler(metered, responseCache));
+        createContext("/epics", new EpicsHttpHandler(metered, responseCache));
+        createContext("/subtasks", new SubtasksHttpHandler(metered, responseCache));
+        createContext("/history", new UserHttpHandler(metered, responseCache));
+        createContext("/prioritized", new UserHttpHandler(metered, responseCache));
+        createContext("/search", new UserHttpHandler(metered, responseCache));
+        createContext("/metrics", new MetricsHttpHandler(metrics));
+        registerMetrics();
+        this.executor = switch (builder.executorMode) {
+            case SINGLE_THREAD -> null;
+            case PLATFORM_POOL -> Executors.newFixedThreadPool(builder.poolSize);
+            case VIRTUAL_THREADS -> Executors.newVirtualThreadPerTaskExecutor();
+        };
+        this.httpServer.setExecutor(executor);
+    }
+
+    private void createContext(String path, HttpHandler handler) {
+        httpServer.createContext(path, handler).getFilters().add(metricsFilter);
+    }
+
+    /*
+     * Счётчики кэша ответов и хранилища уже ведут их владельцы, поэтому здесь они только регистрируются
+     * функциями и читаются при каждом запросе /metrics.
+     */
+    private void registerMetrics() {
+        metrics.counter("response_cache_hits_total", "Попадания в кэш ответов.", responseCache::getHits);
+        metrics.counter("response_cache_misses_total", "Промахи кэша ответов.", responseCache::getMisses);
+        metrics.counter("response_cache_evictions_total", "Ответы, вытесненные из кэша по объёму.",
+                responseCache::getEvictions);
+        metrics.counter("response_cache_invalidations_total", "Ответы, сброшенные из кэша после изменений.",
+                responseCache::getInvalidations);
+        metrics.gauge("response_cache_entries", "Число ответов в кэше.", responseCache::getSize);
+        metrics.gauge("response_cache_bytes", "Объём ответов в кэше.", responseCache::getBytes);
+        if (taskManager instanceof FileBackedTaskManager fileBacked) {
+            CompactionMetrics compaction = fileBacked.getCompactionMetrics();
+            metrics.summary("persistence_flush_duration_seconds", "Время сброса изменений на диск.",
+                    fileBacked.getFlushLatency());
+            metrics.gauge("persistence_log_bytes", "Текущий размер журнала.", fileBacked::getLogSize);
+            metrics.counter("persistence_compactions_total", "Уплотнения журнала.", compaction::getCount);
+            metrics.counter("persistence_compaction_failures_total", "Неудачные уплотнения журнала.",
+                    compaction::getFailures);
+            metrics.counter("persistence_compaction_seconds_total", "Суммарное время уплотнений журнала.",
+                    () -> compaction.getTotalDurationMillis() / 1e3);
+            metrics.counter("persistence_compaction_reclaimed_bytes_total", "Байты, освобождённые уплотнением.",
+                    compaction::getTotalBytesReclaimed);
+        }
+    }
+
+    public static Builder builder(TaskManager taskManager) {
+        return new Builder(taskManager);
     }
 
     public void start() {
+        taskManager.addChangeListener(responseCache);
         httpServer.start();
     }
 
+    /**
+     * Останавливает сервер, дожидается обработки уже принятых запросов и сохранения всех изменений менеджера.
+     */
     public void stop() {
         httpServer.stop(0);
+        if (executor != null) {
+            executor.shutdown();
+            try {
+                executor.awaitTermination(STOP_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        taskManager.removeChangeListener(responseCache);
+        taskManager.flush();
+    }
+
+    public InetSocketAddress getAddress() {
+        return httpServer.getAddress();
+    }
+
+    public ResponseCache getResponseCache() {
+        return responseCache;
+    }
+
+    public MetricsRegistry getMetrics() {
+        return metrics;
     }
 
     public static void main(String[] args) throws IOException {
-        TaskManager taskManager = Managers.getInMemoryTaskManager();
-        HttpTaskServer httpTaskServer = new HttpTaskServer(taskManager);
+        enableTcpNoDelay();
+        TaskManager taskManager = Managers.getConcurrentTaskManager();
+        HttpTaskServer httpTaskServer = HttpTaskServer.builder(taskManager)
+                .port(args.length > 0 ? Integer.parseInt(args[0]) : PORT)
+                .executorMode(ExecutorMode.VIRTUAL_THREADS)
+                .build();
         httpTaskServer.start();
     }
-}
\ No newline at end of file
+
+    /**
+     * Включает TCP_NODELAY для всех HttpServer процесса, если свойство sun.net.httpserver.nodelay
+     * не задано при запуске (-D). Без него последний неполный пакет ответа ждёт подтверждения предыдущего
+     * (алгоритм Нейгла против отложенного ACK клиента), и каждый ответ задерживается примерно на 40 мс;
+     * сжатые ответы короче и упираются в эту задержку ещё чаще.
+     * Настройка глобальна для JVM и читается при первом создании HttpServer в процессе, поэтому
+     * вызывать её нужно до него; сам сервер её не меняет, это делает main.
+     */
+    public static void enableTcpNoDelay() {
+        if (System.getProperty(NODELAY_PROPERTY) == null) {
+            System.setProperty(NODELAY_PROPERTY, "true");
+        }
+    }
+
+    /**
+     * Параметры сервера. По умолчанию запросы обрабатываются одним потоком диспетчера
+     * (ExecutorMode.SINGLE_THREAD), что безопасно для InMemoryTaskManager.
+     * Многопоточные режимы имеет смысл включать только вместе с потокобезопасным менеджером,
+     * например ConcurrentTaskManager.
+     */
+    public static class Builder {
+        private final TaskManager taskManager;
+        private String host = HOST;
+        private int port = PORT;
+        private int backlog = BACKLOG;
+        private ExecutorMode executorMode = ExecutorMode.SINGLE_THREAD;
+        private int poolSize = Runtime.getRuntime().availableProcessors();
+        private long responseCacheBytes = RESPONSE_CACHE_BYTES;
+
+        private Builder(TaskManager taskManager) {
+            this.taskManager = taskManager;
+        }
+
+        public Builder host(String host) {
+            this.host = host;
+            return this;
+        }
+
+        public Builder port(int port) {
+            this.port = port;
+            return this;
+        }
+
+        public Builder backlog(int backlog) {
+            this.backlog = backlog;
+            return this;
+        }
+
+        public Builder executorMode(ExecutorMode executorMode) {
+            this.executorMode = executorMode;
+            return this;
+        }
+
+        public Builder poolSize(int poolSize) {
+            if (poolSize < 1) {
+                throw new IllegalArgumentException("Размер пула должен быть положительным");
+            }
+            this.poolSize = poolSize;
+            return this;
+        }
+
+        /**
+         * Объём кэша готовых ответов в байтах; 0 отключает кэш.
+         */
+        public Builder responseCacheBytes(long responseCacheBytes) {
+            if (responseCacheBytes < 0) {
+                throw new IllegalArgumentException("Объём кэша не может быть отрицательным");
+            }
+            this.responseCacheBytes = responseCacheBytes;
+            return this;
+        }
+
+        public HttpTaskServer build() throws IOException {
+            return new HttpTaskServer(this);
+        }
+    }
+}
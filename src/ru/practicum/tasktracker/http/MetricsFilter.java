@@ -0,0 +1,90 @@
+package ru.practicum.tasktracker.http;
+
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpExchange;
+import ru.practicum.tasktracker.metrics.MetricsRegistry;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Замеряет каждый запрос к контексту сервера: время обработки идёт в гистограмму
+ * http_request_duration_seconds по маршруту и методу, код ответа — в счётчик http_requests_total.
+ * Маршрут — путь запроса, в котором числовые сегменты заменены на {id}, например /epics/{id}/subtasks.
+ * Чтобы произвольные пути не размножали серии, различных маршрутов не больше MAX_ROUTES,
+ * остальные учитываются как other. Запрос, обработчик которого упал до отправки ответа, считается
+ * ответом 500.
+ */
+public class MetricsFilter extends Filter {
+
+    public static final String REQUEST_DURATION = "http_request_duration_seconds";
+
+    public static final String REQUESTS = "http_requests_total";
+
+    private static final int MAX_ROUTES = 64;
+
+    private static final String OTHER_ROUTE = "other";
+
+    private final MetricsRegistry metrics;
+    private final Set<String> routes = ConcurrentHashMap.newKeySet();
+
+    public MetricsFilter(MetricsRegistry metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void doFilter(HttpExchange exchange, Chain chain) throws IOException {
+        long begin = System.nanoTime();
+        boolean completed = false;
+        try {
+            chain.doFilter(exchange);
+            completed = true;
+        } finally {
+            long elapsed = System.nanoTime() - begin;
+            String route = getRoute(exchange);
+            String method = exchange.getRequestMethod();
+            int status = exchange.getResponseCode();
+            if (status < 0 && !completed) {
+                status = 500;
+            }
+            metrics.summary(REQUEST_DURATION, "Время обработки HTTP-запроса.",
+                    "route", route, "method", method).record(elapsed);
+            metrics.counter(REQUESTS, "Число HTTP-запросов по коду ответа.",
+                    "route", route, "method", method, "status", String.valueOf(status)).increment();
+        }
+    }
+
+    @Override
+    public String description() {
+        return "Метрики запросов";
+    }
+
+    private String getRoute(HttpExchange exchange) {
+        StringBuilder route = new StringBuilder();
+        for (String segment : exchange.getRequestURI().getPath().split("/")) {
+            if (segment.isEmpty()) {
+                continue;
+            }
+            route.append('/').append(isNumber(segment) ? "{id}" : segment);
+        }
+        String normalized = route.isEmpty() ? "/" : route.toString();
+        if (routes.contains(normalized)) {
+            return normalized;
+        }
+        if (routes.size() >= MAX_ROUTES) {
+            return OTHER_ROUTE;
+        }
+        routes.add(normalized);
+        return normalized;
+    }
+
+    private static boolean isNumber(String segment) {
+        for (int i = 0; i < segment.length(); i++) {
+            if (!Character.isDigit(segment.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
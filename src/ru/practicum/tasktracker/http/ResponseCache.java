@@ -0,0 +1,263 @@
+package ru.practicum.tasktracker.http;
+
+import ru.practicum.tasktracker.enums.Type;
+import ru.practicum.tasktracker.manager.TaskChangeListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Кэш готовых JSON-ответов в UTF-8 по ключу «путь?запрос». Каждая запись помечена тегами данных,
+ * из которых собран ответ: коллекцией типа ({@link #collection(Type)}) или отдельной сущностью
+ * ({@link #entity(Type, int)}). Кэш слушает события менеджера и удаляет ровно те записи, чьи теги
+ * задело изменение; событие без id удаляет и коллекцию, и все сущности типа.
+ * Объём ограничен суммой размеров тел: при переполнении вытесняются давно не читанные записи,
+ * а ответы больше четверти объёма не кэшируются вовсе. К записи можно приложить сжатые варианты тела
+ * ({@link #putEncoded}): они учитываются в объёме и удаляются вместе с ней.
+ * Чтобы не закэшировать ответ, собранный до изменения, читатель берёт {@link #stamp()} до чтения
+ * данных, и запись принимается, только если с тех пор не было ни одного события.
+ */
+public class ResponseCache implements TaskChangeListener {
+
+    private final long maxBytes;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, Set<String>> keysByTag = new HashMap<>();
+    private long bytes;
+    private long stamp;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public ResponseCache(long maxBytes) {
+        if (maxBytes < 0) {
+            throw new IllegalArgumentException("Объём кэша не может быть отрицательным");
+        }
+        this.maxBytes = maxBytes;
+    }
+
+    public static String collection(Type type) {
+        return type.name();
+    }
+
+    public static String entity(Type type, int id) {
+        return type.name() + "#" + id;
+    }
+
+    public long stamp() {
+        lock.lock();
+        try {
+            return stamp;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public byte[] get(String key) {
+        lock.lock();
+        try {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                misses.incrementAndGet();
+                return null;
+            }
+            hits.incrementAndGet();
+            return entry.body;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Возвращает наибольший размер тела, которое кэш готов сохранить.
+     */
+    public long getMaxEntryBytes() {
+        return maxBytes / 4;
+    }
+
+    public void put(String key, byte[] body, long stamp, String... tags) {
+        if (body.length > getMaxEntryBytes()) {
+            return;
+        }
+        lock.lock();
+        try {
+            if (stamp != this.stamp) {
+                return;
+            }
+            remove(key);
+            entries.put(key, new Entry(body, tags));
+            for (String tag : tags) {
+                keysByTag.computeIfAbsent(tag, ignored -> new HashSet<>()).add(key);
+            }
+            bytes += body.length;
+            evict();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Возвращает тело записи, сжатое способом encoding, не считая это обращение попаданием или промахом:
+     * запись к этому моменту уже прочитана через {@link #get(String)}.
+     */
+    public byte[] getEncoded(String key, String encoding) {
+        lock.lock();
+        try {
+            Entry entry = entries.get(key);
+            return entry == null || entry.encoded == null ? null : entry.encoded.get(encoding);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Прикладывает к записи сжатый вариант тела; если записи уже нет, ничего не делает.
+     */
+    public void putEncoded(String key, String encoding, byte[] body) {
+        lock.lock();
+        try {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                return;
+            }
+            if (entry.encoded == null) {
+                entry.encoded = new HashMap<>();
+            }
+            byte[] previous = entry.encoded.put(encoding, body);
+            entry.size += body.length - (previous == null ? 0 : previous.length);
+            bytes += body.length - (previous == null ? 0 : previous.length);
+            evict();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void onChange(Type type, Integer id) {
+        lock.lock();
+        try {
+            stamp++;
+            invalidate(collection(type));
+            if (id != null) {
+                invalidate(entity(type, id));
+            } else {
+                String prefix = type.name() + "#";
+                List<String> tags = new ArrayList<>();
+                for (String tag : keysByTag.keySet()) {
+                    if (tag.startsWith(prefix)) {
+                        tags.add(tag);
+                    }
+                }
+                tags.forEach(this::invalidate);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public double getHitRate() {
+        long total = getHits() + getMisses();
+        return total == 0 ? 0 : (double) getHits() / total;
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public long getInvalidations() {
+        return invalidations.get();
+    }
+
+    public int getSize() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getBytes() {
+        lock.lock();
+        try {
+            return bytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void evict() {
+        while (bytes > maxBytes) {
+            remove(entries.keySet().iterator().next());
+            evictions.incrementAndGet();
+        }
+    }
+
+    private void invalidate(String tag) {
+        Set<String> keys = keysByTag.get(tag);
+        if (keys == null) {
+            return;
+        }
+        for (String key : new ArrayList<>(keys)) {
+            remove(key);
+            invalidations.incrementAndGet();
+        }
+    }
+
+    private void remove(String key) {
+        Entry entry = entries.remove(key);
+        if (entry == null) {
+            return;
+        }
+        bytes -= entry.size;
+        for (String tag : entry.tags) {
+            Set<String> keys = keysByTag.get(tag);
+            keys.remove(key);
+            if (keys.isEmpty()) {
+                keysByTag.remove(tag);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ResponseCache{" +
+                "size=" + getSize() +
+                ", bytes=" + getBytes() +
+                ", hits=" + getHits() +
+                ", misses=" + getMisses() +
+                ", evictions=" + getEvictions() +
+                ", invalidations=" + getInvalidations() +
+                '}';
+    }
+
+    private static class Entry {
+        private final byte[] body;
+        private final String[] tags;
+        private Map<String, byte[]> encoded;
+        private long size;
+
+        private Entry(byte[] body, String[] tags) {
+            this.body = body;
+            this.tags = tags;
+            this.size = body.length;
+        }
+    }
+}
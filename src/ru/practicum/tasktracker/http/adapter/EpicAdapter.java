@@ -0,0 +1,90 @@
+package ru.practicum.tasktracker.http.adapter;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import ru.practicum.tasktracker.task.Epic;
+import ru.practicum.tasktracker.task.Subtask;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Поля subtaskList и endTime пишутся перед полями Task, как раньше писал рефлексивный Gson. Подзадачи пишутся
+ * и читаются тем же {@link SubtaskAdapter} прямо в поток, без промежуточного дерева JSON.
+ */
+public class EpicAdapter extends TypeAdapter<Epic> {
+
+    private final SubtaskAdapter subtaskAdapter;
+
+    public EpicAdapter(SubtaskAdapter subtaskAdapter) {
+        this.subtaskAdapter = subtaskAdapter;
+    }
+
+    @Override
+    public void write(JsonWriter out, Epic epic) throws IOException {
+        if (epic == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("subtaskList").beginArray();
+        for (Subtask subtask : epic.getSubtasks()) {
+            subtaskAdapter.write(out, subtask);
+        }
+        out.endArray();
+        out.name("endTime");
+        TaskFields.writeDateTime(out, epic.getEndTime());
+        TaskFields.write(out, epic);
+        out.endObject();
+    }
+
+    @Override
+    public Epic read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        TaskFields fields = new TaskFields();
+        List<Subtask> subtaskList = new ArrayList<>();
+        LocalDateTime endTime = null;
+        in.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+            switch (name) {
+                case "subtaskList" -> subtaskList = readSubtasks(in);
+                case "endTime" -> endTime = TaskFields.readDateTime(in);
+                default -> {
+                    if (!fields.read(name, in)) {
+                        in.skipValue();
+                    }
+                }
+            }
+        }
+        in.endObject();
+        Epic epic = new Epic(fields.name, fields.description, fields.status);
+        epic.setId(fields.id);
+        epic.setStartTime(fields.startTime);
+        epic.setDuration(fields.duration);
+        epic.setEndTime(endTime);
+        epic.setSubtaskList(subtaskList);
+        return epic;
+    }
+
+    private List<Subtask> readSubtasks(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        List<Subtask> subtasks = new ArrayList<>();
+        in.beginArray();
+        while (in.hasNext()) {
+            subtasks.add(subtaskAdapter.read(in));
+        }
+        in.endArray();
+        return subtasks;
+    }
+}
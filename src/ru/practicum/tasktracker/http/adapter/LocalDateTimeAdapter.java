@@ -10,14 +10,14 @@ import java.time.format.DateTimeFormatter;
 
 public class LocalDateTimeAdapter extends TypeAdapter<LocalDateTime> {
     private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+    private static final int SHORT_LENGTH = "yyyy-MM-ddTHH:mm:ss".length();
 
     @Override
     public void write(JsonWriter jsonWriter, LocalDateTime value) throws IOException {
         if (value == null) {
             jsonWriter.value("");
         } else {
-            String str = value.format(FORMATTER);
-            jsonWriter.value(str);
+            jsonWriter.value(format(value));
         }
     }
 
@@ -27,7 +27,69 @@ public class LocalDateTimeAdapter extends TypeAdapter<LocalDateTime> {
         if (str.isEmpty()) {
             return null;
         } else {
+            return parse(str);
+        }
+    }
+
+    /*
+     * Время без долей секунды в годах 0-9999 пишется и читается по цифрам: это тот же текст,
+     * что даёт ISO_LOCAL_DATE_TIME, но без промежуточных объектов форматтера.
+     */
+    private static String format(LocalDateTime value) {
+        if (value.getNano() != 0 || value.getYear() < 0 || value.getYear() > 9999) {
+            return value.format(FORMATTER);
+        }
+        char[] chars = new char[SHORT_LENGTH];
+        putDigits(chars, 0, value.getYear(), 4);
+        chars[4] = '-';
+        putDigits(chars, 5, value.getMonthValue(), 2);
+        chars[7] = '-';
+        putDigits(chars, 8, value.getDayOfMonth(), 2);
+        chars[10] = 'T';
+        putDigits(chars, 11, value.getHour(), 2);
+        chars[13] = ':';
+        putDigits(chars, 14, value.getMinute(), 2);
+        chars[16] = ':';
+        putDigits(chars, 17, value.getSecond(), 2);
+        return new String(chars);
+    }
+
+    private static LocalDateTime parse(String str) {
+        if (str.length() != SHORT_LENGTH || str.charAt(4) != '-' || str.charAt(7) != '-' || str.charAt(10) != 'T'
+                || str.charAt(13) != ':' || str.charAt(16) != ':') {
+            return LocalDateTime.parse(str, FORMATTER);
+        }
+        int year = digits(str, 0, 4);
+        int month = digits(str, 5, 2);
+        int day = digits(str, 8, 2);
+        int hour = digits(str, 11, 2);
+        int minute = digits(str, 14, 2);
+        int second = digits(str, 17, 2);
+        if ((year | month | day | hour | minute | second) < 0) {
             return LocalDateTime.parse(str, FORMATTER);
         }
+        return LocalDateTime.of(year, month, day, hour, minute, second);
+    }
+
+    private static void putDigits(char[] chars, int at, int value, int count) {
+        for (int i = at + count - 1; i >= at; i--) {
+            chars[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+
+    /*
+     * Возвращает -1, если среди символов есть не цифра: такой текст разбирает форматтер со своей ошибкой.
+     */
+    private static int digits(String str, int at, int count) {
+        int value = 0;
+        for (int i = at; i < at + count; i++) {
+            char c = str.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
     }
-}
\ No newline at end of file
+}
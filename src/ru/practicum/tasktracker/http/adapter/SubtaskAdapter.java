@@ -0,0 +1,50 @@
+package ru.practicum.tasktracker.http.adapter;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import ru.practicum.tasktracker.task.Subtask;
+
+import java.io.IOException;
+
+/**
+ * Поле epicId пишется перед полями Task, как у рефлексивного Gson; без epicId в JSON оно равно 0.
+ */
+public class SubtaskAdapter extends TypeAdapter<Subtask> {
+
+    @Override
+    public void write(JsonWriter out, Subtask subtask) throws IOException {
+        if (subtask == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("epicId").value(subtask.getEpicId());
+        TaskFields.write(out, subtask);
+        out.endObject();
+    }
+
+    @Override
+    public Subtask read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        TaskFields fields = new TaskFields();
+        int epicId = 0;
+        in.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+            if (name.equals("epicId")) {
+                Integer value = TaskFields.readInteger(in);
+                epicId = value == null ? 0 : value;
+            } else if (!fields.read(name, in)) {
+                in.skipValue();
+            }
+        }
+        in.endObject();
+        return new Subtask(fields.id, fields.name, fields.description, fields.status, fields.startTime,
+                fields.duration, epicId);
+    }
+}
@@ -0,0 +1,122 @@
+package ru.practicum.tasktracker.http.adapter;
+
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import ru.practicum.tasktracker.enums.Status;
+import ru.practicum.tasktracker.task.Task;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Общие поля Task для адаптеров {@link TaskAdapter}, {@link SubtaskAdapter} и {@link EpicAdapter}.
+ * Поля пишутся в том же порядке и виде, что и у рефлексивного Gson: null-значения id, названия,
+ * описания и статуса опускаются, а пустые время и длительность пишутся как "", как это делают
+ * LocalDateTimeAdapter и DurationAdapter. При чтении накапливает значения общих полей.
+ */
+class TaskFields {
+
+    private static final LocalDateTimeAdapter DATE_TIME_ADAPTER = new LocalDateTimeAdapter();
+    private static final DurationAdapter DURATION_ADAPTER = new DurationAdapter();
+    private static final Status[] STATUSES = Status.values();
+
+    Integer id;
+    String name;
+    String description;
+    Status status;
+    LocalDateTime startTime;
+    Duration duration;
+
+    static void write(JsonWriter out, Task task) throws IOException {
+        if (task.getId() != null) {
+            out.name("id").value(task.getId());
+        }
+        if (task.getName() != null) {
+            out.name("name").value(task.getName());
+        }
+        if (task.getDescription() != null) {
+            out.name("description").value(task.getDescription());
+        }
+        if (task.getStatus() != null) {
+            out.name("status").value(task.getStatus().name());
+        }
+        out.name("startTime");
+        DATE_TIME_ADAPTER.write(out, task.getStartTime());
+        out.name("duration");
+        DURATION_ADAPTER.write(out, task.getDuration());
+    }
+
+    /**
+     * Читает значение поля name, если это общее поле Task, и возвращает false для остальных полей.
+     */
+    boolean read(String field, JsonReader in) throws IOException {
+        switch (field) {
+            case "id" -> id = readInteger(in);
+            case "name" -> name = readString(in);
+            case "description" -> description = readString(in);
+            case "status" -> status = readStatus(in);
+            case "startTime" -> startTime = readDateTime(in);
+            case "duration" -> duration = readDuration(in);
+            default -> {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static void writeDateTime(JsonWriter out, LocalDateTime value) throws IOException {
+        DATE_TIME_ADAPTER.write(out, value);
+    }
+
+    static LocalDateTime readDateTime(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return DATE_TIME_ADAPTER.read(in);
+    }
+
+    static Integer readInteger(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        try {
+            return in.nextInt();
+        } catch (NumberFormatException e) {
+            throw new JsonSyntaxException(e);
+        }
+    }
+
+    private static String readString(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return in.nextString();
+    }
+
+    /*
+     * Неизвестное имя статуса даёт null, как у встроенного адаптера перечислений Gson.
+     */
+    private static Status readStatus(JsonReader in) throws IOException {
+        String value = readString(in);
+        for (Status status : STATUSES) {
+            if (status.name().equals(value)) {
+                return status;
+            }
+        }
+        return null;
+    }
+
+    private static Duration readDuration(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return DURATION_ADAPTER.read(in);
+    }
+}
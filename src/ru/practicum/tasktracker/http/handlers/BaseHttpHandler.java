@@ -1,10 +1,36 @@
 package ru.practicum.tasktracker.http.handlers;
 
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonWriter;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
+import ru.practicum.tasktracker.exceptions.PriorityTaskException;
+import ru.practicum.tasktracker.exceptions.TaskNotFoundException;
+import ru.practicum.tasktracker.exceptions.ValidationException;
+import ru.practicum.tasktracker.http.ResponseCache;
+import ru.practicum.tasktracker.manager.Managers;
+import ru.practicum.tasktracker.manager.TaskManager;
+import ru.practicum.tasktracker.task.Task;
 
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
 
 public abstract class BaseHttpHandler implements HttpHandler {
 
@@ -12,6 +38,10 @@ public abstract class BaseHttpHandler implements HttpHandler {
 
     protected static final int SUCCESS_NO_DATA = 201;
 
+    protected static final int NOT_MODIFIED = 304;
+
+    protected static final int BAD_REQUEST = 400;
+
     protected static final int NOT_FOUND = 404;
 
     protected static final int NOT_ACCEPTABLE = 406;
@@ -20,6 +50,49 @@ public abstract class BaseHttpHandler implements HttpHandler {
 
     protected static final int METHOD_NOT_ALLOWED = 405;
 
+    protected static final String BATCH = "batch";
+
+    protected static final String LIMIT = "limit";
+
+    protected static final String CURSOR = "cursor";
+
+    protected static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    protected static final int DEFAULT_PAGE_SIZE = 100;
+
+    protected static final String ETAG_HEADER = "ETag";
+
+    protected static final String ACCEPT_ENCODING_HEADER = "Accept-Encoding";
+
+    protected static final String CONTENT_ENCODING_HEADER = "Content-Encoding";
+
+    protected static final String VARY_HEADER = "Vary";
+
+    protected static final String GZIP = "gzip";
+
+    protected static final String DEFLATE = "deflate";
+
+    /*
+     * Меньшие ответы сжимать невыгодно: заголовок и словарь gzip съедают выигрыш.
+     */
+    protected static final int MIN_COMPRESSED_SIZE = 1024;
+
+    protected static final String IF_NONE_MATCH_HEADER = "If-None-Match";
+
+    /*
+     * Номера изменений начинаются заново при каждом запуске, поэтому в ETag входит и время запуска:
+     * ETag, полученный до перезапуска сервера, не совпадёт с номером заново загруженного менеджера.
+     */
+    private static final String ETAG_EPOCH = Long.toString(System.currentTimeMillis(), 36);
+
+    private static final int STREAM_BUFFER_SIZE = 16 * 1024;
+
+    protected final ResponseCache responseCache;
+
+    protected BaseHttpHandler(ResponseCache responseCache) {
+        this.responseCache = responseCache;
+    }
+
     @Override
     public void handle(HttpExchange exchange) throws IOException {
         Integer id = getIdFromPath(exchange.getRequestURI().getPath());
@@ -41,19 +114,326 @@ public abstract class BaseHttpHandler implements HttpHandler {
     protected void sendText(HttpExchange httpExchange, String text, int statusCode) throws IOException {
         byte[] resp = text.getBytes(StandardCharsets.UTF_8);
         httpExchange.getResponseHeaders().add("Content-Type", "application/json;charset=utf-8");
-        httpExchange.sendResponseHeaders(statusCode, resp.length);
-        httpExchange.getResponseBody().write(resp);
-        httpExchange.close();
+        try (OutputStream body = openResponseBody(httpExchange, statusCode)) {
+            body.write(resp);
+        } finally {
+            httpExchange.close();
+        }
+    }
+
+    /**
+     * Отправляет список JSON-массивом без Content-Length (chunked): элементы по одному пишутся через
+     * JsonWriter в буферизованный поток ответа, поэтому ни строка, ни массив байт всего ответа
+     * в памяти не собираются. BufferedWriter нужен и сам по себе: OutputStreamWriter копирует каждую
+     * записанную строку, а JsonWriter пишет по одной короткой строке на каждый токен.
+     * JSON совпадает с Managers.getGson().toJson(items).
+     */
+    protected void sendJsonList(HttpExchange httpExchange, List<?> items, int statusCode) throws IOException {
+        httpExchange.getResponseHeaders().add("Content-Type", "application/json;charset=utf-8");
+        try {
+            writeJson(openResponseBody(httpExchange, statusCode), items);
+        } finally {
+            httpExchange.close();
+        }
+    }
+
+    /**
+     * Отправляет ответ 200 с JSON из кэша по ключу «путь?запрос», а при промахе — JSON значения
+     * body.get() (списка или одной сущности) и сохраняет его в кэш с тегами tags. Ответ из кэша уходит
+     * с Content-Length без вызова Gson, а сжатый вариант тела сжимается один раз и хранится рядом
+     * с записью. При промахе ответ, как и в sendJsonList, пишется потоком, а копия несжатых байт
+     * для кэша собирается, только пока не превышает допустимый размер записи.
+     * stamp нужно взять из кэша до чтения данных, которые попадут в ответ.
+     */
+    protected void sendCachedJson(HttpExchange httpExchange, long stamp, Supplier<?> body,
+                                  String... tags) throws IOException {
+        String key = getCacheKey(httpExchange);
+        byte[] cached = responseCache.get(key);
+        httpExchange.getResponseHeaders().add("Content-Type", "application/json;charset=utf-8");
+        if (cached != null) {
+            String encoding = cached.length < MIN_COMPRESSED_SIZE ? null : getAcceptedEncoding(httpExchange);
+            byte[] resp = cached;
+            if (encoding != null) {
+                resp = responseCache.getEncoded(key, encoding);
+                if (resp == null) {
+                    resp = compress(cached, encoding);
+                    responseCache.putEncoded(key, encoding, resp);
+                }
+                httpExchange.getResponseHeaders().set(CONTENT_ENCODING_HEADER, encoding);
+            }
+            httpExchange.getResponseHeaders().set(VARY_HEADER, ACCEPT_ENCODING_HEADER);
+            httpExchange.sendResponseHeaders(SUCCESS, resp.length);
+            try {
+                httpExchange.getResponseBody().write(resp);
+            } finally {
+                httpExchange.close();
+            }
+            return;
+        }
+        Object value = body.get();
+        CaptureOutputStream capture = new CaptureOutputStream(openResponseBody(httpExchange, SUCCESS),
+                responseCache.getMaxEntryBytes());
+        try {
+            writeJson(capture, value);
+        } finally {
+            httpExchange.close();
+        }
+        if (capture.getCaptured() != null) {
+            responseCache.put(key, capture.getCaptured(), stamp, tags);
+        }
+    }
+
+    /**
+     * Открывает тело ответа. Первые MIN_COMPRESSED_SIZE байт копятся в буфере: если ответ в них
+     * уложился, он уходит несжатым с Content-Length, иначе заголовки отправляются без длины (chunked),
+     * и тело сжимается на лету способом, который клиент указал в Accept-Encoding. Поэтому весь ответ
+     * ни в сжатом, ни в несжатом виде в памяти не собирается. Закрытие потока завершает ответ.
+     */
+    protected OutputStream openResponseBody(HttpExchange exchange, int statusCode) {
+        exchange.getResponseHeaders().set(VARY_HEADER, ACCEPT_ENCODING_HEADER);
+        return new ResponseBodyStream(exchange, statusCode, getAcceptedEncoding(exchange));
+    }
+
+    /**
+     * Выбирает сжатие по Accept-Encoding: gzip или deflate с наибольшим весом q (при равных весах
+     * gzip), либо null, если клиент не принимает ни одно из них.
+     */
+    protected String getAcceptedEncoding(HttpExchange exchange) {
+        List<String> headers = exchange.getRequestHeaders().get(ACCEPT_ENCODING_HEADER);
+        if (headers == null) {
+            return null;
+        }
+        Double gzip = null;
+        Double deflate = null;
+        Double any = null;
+        for (String header : headers) {
+            for (String part : header.split(",")) {
+                String[] params = part.split(";");
+                String coding = params[0].trim().toLowerCase(Locale.ROOT);
+                double weight = 1;
+                for (int i = 1; i < params.length; i++) {
+                    String param = params[i].trim();
+                    if (param.startsWith("q=")) {
+                        try {
+                            weight = Double.parseDouble(param.substring(2));
+                        } catch (NumberFormatException e) {
+                            weight = 0;
+                        }
+                    }
+                }
+                switch (coding) {
+                    case GZIP -> gzip = weight;
+                    case DEFLATE -> deflate = weight;
+                    case "*" -> any = weight;
+                    default -> {
+                    }
+                }
+            }
+        }
+        double gzipWeight = gzip != null ? gzip : any != null ? any : 0;
+        double deflateWeight = deflate != null ? deflate : any != null ? any : 0;
+        if (gzipWeight <= 0 && deflateWeight <= 0) {
+            return null;
+        }
+        return gzipWeight >= deflateWeight ? GZIP : DEFLATE;
+    }
+
+    private static byte[] compress(byte[] body, String encoding) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(body.length / 4);
+        try (OutputStream out = compressing(compressed, encoding)) {
+            out.write(body);
+        }
+        return compressed.toByteArray();
+    }
+
+    /*
+     * DeflaterOutputStream с собственным Deflater не освобождает его память при закрытии,
+     * поэтому Deflater завершается явно.
+     */
+    private static OutputStream compressing(OutputStream out, String encoding) throws IOException {
+        if (encoding.equals(GZIP)) {
+            return new GZIPOutputStream(out, STREAM_BUFFER_SIZE);
+        }
+        return new DeflaterOutputStream(out, new Deflater(), STREAM_BUFFER_SIZE) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    def.end();
+                }
+            }
+        };
+    }
+
+    protected String getCacheKey(HttpExchange exchange) {
+        String query = exchange.getRequestURI().getRawQuery();
+        String path = exchange.getRequestURI().getRawPath();
+        return query == null ? path : path + "?" + query;
+    }
+
+    /*
+     * Список пишется поэлементно через JsonWriter, одна сущность — целиком; JSON совпадает
+     * с Managers.getGson().toJson(value).
+     */
+    private void writeJson(OutputStream out, Object value) throws IOException {
+        Gson gson = Managers.getGson();
+        OutputStream body = new BufferedOutputStream(out, STREAM_BUFFER_SIZE);
+        try (JsonWriter writer = gson.newJsonWriter(new BufferedWriter(
+                new OutputStreamWriter(body, StandardCharsets.UTF_8), STREAM_BUFFER_SIZE))) {
+            if (value instanceof List<?> items) {
+                writer.beginArray();
+                for (Object item : items) {
+                    if (item == null) {
+                        writer.nullValue();
+                    } else {
+                        gson.toJson(item, item.getClass(), writer);
+                    }
+                }
+                writer.endArray();
+            } else if (value == null) {
+                writer.nullValue();
+            } else {
+                gson.toJson(value, value.getClass(), writer);
+            }
+        }
+    }
+
+    /**
+     * Условный GET по номеру изменения коллекции: если ETag из If-None-Match совпадает с version,
+     * отвечает 304 Not Modified без тела и возвращает true, иначе добавляет ETag к будущему ответу
+     * и возвращает false. Номер нужно взять до чтения данных: тогда отправленный список может быть
+     * только новее своего ETag, и следующий опрос его перечитает.
+     * ETag слабый: сжатый и несжатый ответы с одним номером равнозначны, но не совпадают побайтно.
+     */
+    protected boolean sendNotModified(HttpExchange httpExchange, long version) throws IOException {
+        String etag = "W/\"" + ETAG_EPOCH + "-" + version + "\"";
+        httpExchange.getResponseHeaders().set(ETAG_HEADER, etag);
+        List<String> conditions = httpExchange.getRequestHeaders().get(IF_NONE_MATCH_HEADER);
+        if (conditions == null) {
+            return false;
+        }
+        for (String condition : conditions) {
+            for (String candidate : condition.split(",")) {
+                String value = candidate.trim();
+                if (!value.startsWith("W/") && !value.equals("*")) {
+                    value = "W/" + value;
+                }
+                if (value.equals(etag) || value.equals("*")) {
+                    httpExchange.sendResponseHeaders(NOT_MODIFIED, -1);
+                    httpExchange.close();
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Отправляет страницу списка. Если страница заполнена целиком, в заголовке X-Next-Cursor
+     * передаётся курсор её последнего элемента: с него клиент запрашивает следующую страницу.
+     */
+    protected <T> void sendJsonPage(HttpExchange httpExchange, List<T> page, int limit,
+                                    Function<? super T, String> cursor) throws IOException {
+        if (!page.isEmpty() && page.size() == limit) {
+            httpExchange.getResponseHeaders().add(NEXT_CURSOR_HEADER, cursor.apply(page.get(page.size() - 1)));
+        }
+        sendJsonList(httpExchange, page, SUCCESS);
+    }
+
+    /**
+     * Возвращает размер страницы из ?limit=, если запрошена страница (указан limit или cursor), иначе null.
+     */
+    protected Integer getPageLimit(HttpExchange exchange) {
+        String limit = getQueryParam(exchange, LIMIT);
+        if (limit == null) {
+            return getQueryParam(exchange, CURSOR) == null ? null : DEFAULT_PAGE_SIZE;
+        }
+        try {
+            return Integer.parseInt(limit);
+        } catch (NumberFormatException e) {
+            throw new ValidationException("Неверный размер страницы: " + limit);
+        }
+    }
+
+    /**
+     * Возвращает id из ?cursor= для списков, упорядоченных по id, либо null для первой страницы.
+     */
+    protected Integer getIdCursor(HttpExchange exchange) {
+        String cursor = getQueryParam(exchange, CURSOR);
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            return Integer.parseInt(cursor);
+        } catch (NumberFormatException e) {
+            throw new ValidationException("Неверный курсор: " + cursor);
+        }
+    }
+
+    protected String getQueryParam(HttpExchange exchange, String name) {
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null) {
+            return null;
+        }
+        for (String pair : query.split("&")) {
+            int separator = pair.indexOf('=');
+            String key = separator < 0 ? pair : pair.substring(0, separator);
+            if (URLDecoder.decode(key, StandardCharsets.UTF_8).equals(name)) {
+                return separator < 0 ? "" : URLDecoder.decode(pair.substring(separator + 1), StandardCharsets.UTF_8);
+            }
+        }
+        return null;
     }
 
     protected Integer getIdFromPath(String path) {
         String[] parts = path.split("/");
-        if (parts.length >= 3) {
+        if (parts.length >= 3 && !parts[2].equals(BATCH)) {
             return Integer.parseInt(parts[2]);
         }
         return null;
     }
 
+    protected boolean isBatchPath(String path) {
+        String[] parts = path.split("/");
+        return parts.length == 3 && parts[2].equals(BATCH);
+    }
+
+    /**
+     * Обрабатывает POST /{ресурс}/batch с JSON-массивом: если ни у одного элемента нет id, пакет
+     * создаётся, если id есть у всех — обновляется. В ответ возвращаются элементы с присвоенными id.
+     */
+    protected <T extends Task> void processBatchRequest(HttpExchange exchange, TaskManager taskManager,
+                                                        Class<T[]> type) throws IOException {
+        InputStream inputStream = exchange.getRequestBody();
+        String body = new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+        try {
+            T[] parsed = Managers.getGson().fromJson(body, type);
+            if (parsed == null) {
+                throw new ValidationException("Пустой пакет");
+            }
+            List<T> items = Arrays.asList(parsed);
+            long withId = items.stream().filter(item -> item.getId() != null).count();
+            List<Task> result;
+            if (withId == 0) {
+                result = taskManager.createAll(items);
+            } else if (withId == items.size()) {
+                result = taskManager.updateAll(items);
+            } else {
+                throw new ValidationException("В одном пакете нельзя смешивать новые и существующие задачи");
+            }
+            sendJsonList(exchange, result, SUCCESS_NO_DATA);
+        } catch (ValidationException | JsonParseException e) {
+            sendText(exchange, e.getMessage(), BAD_REQUEST);
+        } catch (PriorityTaskException e) {
+            sendText(exchange, "", NOT_ACCEPTABLE);
+        } catch (TaskNotFoundException e) {
+            sendText(exchange, e.getMessage(), NOT_FOUND);
+        } catch (Exception e) {
+            sendText(exchange, e.getMessage(), INTERNAL_SERVER_ERROR);
+        }
+    }
+
     protected void processPOSTRequest(HttpExchange exchange) throws IOException {
         sendText(exchange, "", METHOD_NOT_ALLOWED);
     }
@@ -65,4 +445,113 @@ public abstract class BaseHttpHandler implements HttpHandler {
     protected void processDELETERequest(HttpExchange exchange, Integer id) throws IOException {
         sendText(exchange, "", METHOD_NOT_ALLOWED);
     }
-}
\ No newline at end of file
+
+    /*
+     * Пропускает байты в поток ответа и копирует их, пока копия не длиннее limit; после этого
+     * копия выбрасывается, а запись в ответ продолжается как обычно.
+     */
+    private static class CaptureOutputStream extends FilterOutputStream {
+        private final long limit;
+        private ByteArrayOutputStream copy = new ByteArrayOutputStream();
+
+        private CaptureOutputStream(OutputStream out, long limit) {
+            super(out);
+            this.limit = limit;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            capture(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            capture(b, off, len);
+        }
+
+        private void capture(byte[] b, int off, int len) {
+            if (copy == null) {
+                return;
+            }
+            if (copy.size() + len > limit) {
+                copy = null;
+                return;
+            }
+            copy.write(b, off, len);
+        }
+
+        private byte[] getCaptured() {
+            return copy == null ? null : copy.toByteArray();
+        }
+    }
+
+    /*
+     * Тело ответа с отложенной отправкой заголовков; см. openResponseBody.
+     */
+    private static class ResponseBodyStream extends OutputStream {
+        private final HttpExchange exchange;
+        private final int statusCode;
+        private final String encoding;
+        private final byte[] head = new byte[MIN_COMPRESSED_SIZE];
+        private int headSize;
+        private OutputStream out;
+
+        private ResponseBodyStream(HttpExchange exchange, int statusCode, String encoding) {
+            this.exchange = exchange;
+            this.statusCode = statusCode;
+            this.encoding = encoding;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (out == null && headSize + len <= head.length) {
+                System.arraycopy(b, off, head, headSize, len);
+                headSize += len;
+                return;
+            }
+            if (out == null) {
+                start();
+            }
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (out != null) {
+                out.flush();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (out != null) {
+                out.close();
+                return;
+            }
+            exchange.sendResponseHeaders(statusCode, headSize == 0 ? -1 : headSize);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(head, 0, headSize);
+            }
+        }
+
+        private void start() throws IOException {
+            OutputStream body = exchange.getResponseBody();
+            if (encoding == null) {
+                exchange.sendResponseHeaders(statusCode, 0);
+                out = body;
+            } else {
+                exchange.getResponseHeaders().set(CONTENT_ENCODING_HEADER, encoding);
+                exchange.sendResponseHeaders(statusCode, 0);
+                out = compressing(body, encoding);
+            }
+            out.write(head, 0, headSize);
+        }
+    }
+}
@@ -1,8 +1,11 @@
 package ru.practicum.tasktracker.http.handlers;
 
 import com.sun.net.httpserver.HttpExchange;
+import ru.practicum.tasktracker.enums.Type;
 import ru.practicum.tasktracker.exceptions.PriorityTaskException;
 import ru.practicum.tasktracker.exceptions.TaskNotFoundException;
+import ru.practicum.tasktracker.exceptions.ValidationException;
+import ru.practicum.tasktracker.http.ResponseCache;
 import ru.practicum.tasktracker.manager.Managers;
 import ru.practicum.tasktracker.manager.TaskManager;
 import ru.practicum.tasktracker.task.Epic;
@@ -17,25 +20,37 @@ public class EpicsHttpHandler extends BaseHttpHandler {
     private final TaskManager taskManager;
 
     public EpicsHttpHandler(TaskManager taskManager) {
+        this(taskManager, new ResponseCache(0));
+    }
+
+    public EpicsHttpHandler(TaskManager taskManager, ResponseCache responseCache) {
+        super(responseCache);
         this.taskManager = taskManager;
     }
 
     @Override
     protected void processGETRequest(HttpExchange exchange, Integer id) throws IOException {
-        String response;
         try {
-            if (id == null) {
-                List<Epic> epics = taskManager.getEpics();
-                response = Managers.getGson().toJson(epics);
+            Integer limit = getPageLimit(exchange);
+            if (id == null && sendNotModified(exchange, taskManager.getVersion(Type.EPIC))) {
+                return;
+            }
+            long stamp = responseCache.stamp();
+            if (id == null && limit != null) {
+                List<Epic> page = taskManager.getEpics(getIdCursor(exchange), limit);
+                sendJsonPage(exchange, page, limit, task -> String.valueOf(task.getId()));
+            } else if (id == null) {
+                sendCachedJson(exchange, stamp, taskManager::getEpics, ResponseCache.collection(Type.EPIC));
             } else {
                 Epic epic = taskManager.getEpic(id);
                 if (subtasksInPath(exchange.getRequestURI().getPath())) {
-                    response = Managers.getGson().toJson(epic.getSubtaskList());
+                    sendCachedJson(exchange, stamp, epic::getSubtaskList, ResponseCache.entity(Type.EPIC, id));
                 } else {
-                    response = Managers.getGson().toJson(epic);
+                    sendCachedJson(exchange, stamp, () -> epic, ResponseCache.entity(Type.EPIC, id));
                 }
             }
-            sendText(exchange, response, SUCCESS);
+        } catch (ValidationException e) {
+            sendText(exchange, e.getMessage(), BAD_REQUEST);
         } catch (TaskNotFoundException e) {
             sendText(exchange, e.getMessage(), NOT_FOUND);
         } catch (Exception e) {
@@ -45,6 +60,10 @@ public class EpicsHttpHandler extends BaseHttpHandler {
 
     @Override
     protected void processPOSTRequest(HttpExchange exchange) throws IOException {
+        if (isBatchPath(exchange.getRequestURI().getPath())) {
+            processBatchRequest(exchange, taskManager, Epic[].class);
+            return;
+        }
         InputStream inputStream = exchange.getRequestBody();
         String epicString = new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
         Epic epic = Managers.getGson().fromJson(epicString, Epic.class);
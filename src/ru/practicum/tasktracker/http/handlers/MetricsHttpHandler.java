@@ -0,0 +1,35 @@
+package ru.practicum.tasktracker.http.handlers;
+
+import com.sun.net.httpserver.HttpExchange;
+import ru.practicum.tasktracker.http.ResponseCache;
+import ru.practicum.tasktracker.metrics.MetricsRegistry;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Отдаёт метрики сервера по GET /metrics в текстовом формате Prometheus.
+ */
+public class MetricsHttpHandler extends BaseHttpHandler {
+
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final MetricsRegistry metrics;
+
+    public MetricsHttpHandler(MetricsRegistry metrics) {
+        super(new ResponseCache(0));
+        this.metrics = metrics;
+    }
+
+    @Override
+    protected void processGETRequest(HttpExchange exchange, Integer id) throws IOException {
+        byte[] body = metrics.scrape().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", CONTENT_TYPE);
+        try (OutputStream out = openResponseBody(exchange, SUCCESS)) {
+            out.write(body);
+        } finally {
+            exchange.close();
+        }
+    }
+}
@@ -1,8 +1,11 @@
 package ru.practicum.tasktracker.http.handlers;
 
 import com.sun.net.httpserver.HttpExchange;
+import ru.practicum.tasktracker.enums.Type;
 import ru.practicum.tasktracker.exceptions.PriorityTaskException;
 import ru.practicum.tasktracker.exceptions.TaskNotFoundException;
+import ru.practicum.tasktracker.exceptions.ValidationException;
+import ru.practicum.tasktracker.http.ResponseCache;
 import ru.practicum.tasktracker.manager.Managers;
 import ru.practicum.tasktracker.manager.TaskManager;
 import ru.practicum.tasktracker.task.Subtask;
@@ -17,21 +20,33 @@ public class SubtasksHttpHandler extends BaseHttpHandler {
     private final TaskManager taskManager;
 
     public SubtasksHttpHandler(TaskManager taskManager) {
+        this(taskManager, new ResponseCache(0));
+    }
+
+    public SubtasksHttpHandler(TaskManager taskManager, ResponseCache responseCache) {
+        super(responseCache);
         this.taskManager = taskManager;
     }
 
     @Override
     protected void processGETRequest(HttpExchange exchange, Integer id) throws IOException {
-        String response;
         try {
-            if (id == null) {
-                List<Subtask> subtasks = taskManager.getSubtasks();
-                response = Managers.getGson().toJson(subtasks);
+            Integer limit = getPageLimit(exchange);
+            if (id == null && sendNotModified(exchange, taskManager.getVersion(Type.SUBTASK))) {
+                return;
+            }
+            long stamp = responseCache.stamp();
+            if (id == null && limit != null) {
+                List<Subtask> page = taskManager.getSubtasks(getIdCursor(exchange), limit);
+                sendJsonPage(exchange, page, limit, task -> String.valueOf(task.getId()));
+            } else if (id == null) {
+                sendCachedJson(exchange, stamp, taskManager::getSubtasks, ResponseCache.collection(Type.SUBTASK));
             } else {
                 Subtask subtask = taskManager.getSubtask(id);
-                response = Managers.getGson().toJson(subtask);
+                sendCachedJson(exchange, stamp, () -> subtask, ResponseCache.entity(Type.SUBTASK, id));
             }
-            sendText(exchange, response, SUCCESS);
+        } catch (ValidationException e) {
+            sendText(exchange, e.getMessage(), BAD_REQUEST);
         } catch (TaskNotFoundException e) {
             sendText(exchange, e.getMessage(), NOT_FOUND);
         } catch (Exception e) {
@@ -41,6 +56,10 @@ public class SubtasksHttpHandler extends BaseHttpHandler {
 
     @Override
     protected void processPOSTRequest(HttpExchange exchange) throws IOException {
+        if (isBatchPath(exchange.getRequestURI().getPath())) {
+            processBatchRequest(exchange, taskManager, Subtask[].class);
+            return;
+        }
         InputStream inputStream = exchange.getRequestBody();
         String taskString = new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
         Subtask subtask = Managers.getGson().fromJson(taskString, Subtask.class);
@@ -1,15 +1,22 @@
 package ru.practicum.tasktracker.http.handlers;
 
 import com.sun.net.httpserver.HttpExchange;
+import ru.practicum.tasktracker.enums.Status;
+import ru.practicum.tasktracker.enums.Type;
 import ru.practicum.tasktracker.exceptions.PriorityTaskException;
 import ru.practicum.tasktracker.exceptions.TaskNotFoundException;
+import ru.practicum.tasktracker.exceptions.ValidationException;
+import ru.practicum.tasktracker.http.ResponseCache;
 import ru.practicum.tasktracker.manager.Managers;
 import ru.practicum.tasktracker.manager.TaskManager;
+import ru.practicum.tasktracker.manager.TaskQuery;
 import ru.practicum.tasktracker.task.Task;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 
 public class TasksHttpHandler extends BaseHttpHandler {
@@ -17,21 +24,39 @@ public class TasksHttpHandler extends BaseHttpHandler {
     private final TaskManager taskManager;
 
     public TasksHttpHandler(TaskManager taskManager) {
+        this(taskManager, new ResponseCache(0));
+    }
+
+    public TasksHttpHandler(TaskManager taskManager, ResponseCache responseCache) {
+        super(responseCache);
         this.taskManager = taskManager;
     }
 
     @Override
     protected void processGETRequest(HttpExchange exchange, Integer id) throws IOException {
-        String response;
         try {
-            if (id == null) {
-                List<Task> tasks = taskManager.getTasks();
-                response = Managers.getGson().toJson(tasks);
+            TaskQuery query = id == null ? getTaskQuery(exchange) : null;
+            Integer limit = getPageLimit(exchange);
+            if (id == null && sendNotModified(exchange,
+                    query == null ? taskManager.getVersion(Type.TASK) : taskManager.getVersion())) {
+                return;
+            }
+            long stamp = responseCache.stamp();
+            if (query != null) {
+                sendCachedJson(exchange, stamp, () -> taskManager.findTasks(query),
+                        ResponseCache.collection(Type.TASK), ResponseCache.collection(Type.EPIC),
+                        ResponseCache.collection(Type.SUBTASK));
+            } else if (id == null && limit != null) {
+                List<Task> page = taskManager.getTasks(getIdCursor(exchange), limit);
+                sendJsonPage(exchange, page, limit, task -> String.valueOf(task.getId()));
+            } else if (id == null) {
+                sendCachedJson(exchange, stamp, taskManager::getTasks, ResponseCache.collection(Type.TASK));
             } else {
                 Task task = taskManager.getTask(id);
-                response = Managers.getGson().toJson(task);
+                sendCachedJson(exchange, stamp, () -> task, ResponseCache.entity(Type.TASK, id));
             }
-            sendText(exchange, response, SUCCESS);
+        } catch (ValidationException | IllegalArgumentException | DateTimeParseException e) {
+            sendText(exchange, e.getMessage(), BAD_REQUEST);
         } catch (TaskNotFoundException e) {
             sendText(exchange, e.getMessage(), NOT_FOUND);
         } catch (Exception e) {
@@ -39,8 +64,34 @@ public class TasksHttpHandler extends BaseHttpHandler {
         }
     }
 
+    /*
+     * GET /tasks?status=&type=&from=&to=&epicId= ищет по всем задачам, эпикам и подзадачам.
+     * Без этих параметров запрос остаётся списком обычных задач.
+     */
+    private TaskQuery getTaskQuery(HttpExchange exchange) {
+        String status = getQueryParam(exchange, "status");
+        String type = getQueryParam(exchange, "type");
+        String from = getQueryParam(exchange, "from");
+        String to = getQueryParam(exchange, "to");
+        String epicId = getQueryParam(exchange, "epicId");
+        if (status == null && type == null && from == null && to == null && epicId == null) {
+            return null;
+        }
+        return TaskQuery.builder()
+                .status(status == null ? null : Status.valueOf(status))
+                .type(type == null ? null : Type.valueOf(type))
+                .from(from == null ? null : LocalDateTime.parse(from))
+                .to(to == null ? null : LocalDateTime.parse(to))
+                .epicId(epicId == null ? null : Integer.valueOf(epicId))
+                .build();
+    }
+
     @Override
     protected void processPOSTRequest(HttpExchange exchange) throws IOException {
+        if (isBatchPath(exchange.getRequestURI().getPath())) {
+            processBatchRequest(exchange, taskManager, Task[].class);
+            return;
+        }
         InputStream inputStream = exchange.getRequestBody();
         String taskString = new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
         Task task = Managers.getGson().fromJson(taskString, Task.class);
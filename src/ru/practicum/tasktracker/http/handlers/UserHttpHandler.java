@@ -1,35 +1,61 @@
 package ru.practicum.tasktracker.http.handlers;
 
 import com.sun.net.httpserver.HttpExchange;
+import ru.practicum.tasktracker.enums.Type;
+import ru.practicum.tasktracker.exceptions.TaskNotFoundException;
+import ru.practicum.tasktracker.exceptions.ValidationException;
+import ru.practicum.tasktracker.http.ResponseCache;
 import ru.practicum.tasktracker.manager.Managers;
 import ru.practicum.tasktracker.manager.TaskManager;
 import ru.practicum.tasktracker.task.Task;
+import ru.practicum.tasktracker.task.TimeSlot;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 
 public class UserHttpHandler extends BaseHttpHandler {
     private final TaskManager taskManager;
 
     public UserHttpHandler(TaskManager taskManager) {
+        this(taskManager, new ResponseCache(0));
+    }
+
+    public UserHttpHandler(TaskManager taskManager, ResponseCache responseCache) {
+        super(responseCache);
         this.taskManager = taskManager;
     }
 
     @Override
     public void handle(HttpExchange exchange) throws IOException {
         String response = "";
-        List<Task> tasks;
         String command = getCommand(exchange.getRequestURI().getPath());
 
         switch (command) {
             case "history":
-                tasks = taskManager.getHistory();
-                response = Managers.getGson().toJson(tasks);
-                break;
+                processHistoryRequest(exchange);
+                return;
             case "prioritized":
-                tasks = taskManager.getPrioritizedTasks();
-                response = Managers.getGson().toJson(tasks);
-                break;
+                if ("free".equals(getSubcommand(exchange.getRequestURI().getPath()))) {
+                    processFreeSlotRequest(exchange);
+                    return;
+                }
+                if (getQueryParam(exchange, LIMIT) != null || getQueryParam(exchange, CURSOR) != null) {
+                    processPrioritizedPageRequest(exchange);
+                    return;
+                }
+                if (sendNotModified(exchange, getScheduleVersion())) {
+                    return;
+                }
+                sendCachedJson(exchange, responseCache.stamp(), taskManager::getPrioritizedTasks,
+                        ResponseCache.collection(Type.TASK), ResponseCache.collection(Type.SUBTASK));
+                return;
+            case "search":
+                processSearchRequest(exchange);
+                return;
             default:
                 System.out.println("Some error appeared...");
         }
@@ -37,6 +63,102 @@ public class UserHttpHandler extends BaseHttpHandler {
         sendText(exchange, response, 200);
     }
 
+    /*
+     * В расписание входят только задачи и подзадачи. Оба номера только растут, поэтому их сумма меняется
+     * при любом изменении расписания, а изменения одних эпиков её не трогают.
+     */
+    private long getScheduleVersion() {
+        return taskManager.getVersion(Type.TASK) + taskManager.getVersion(Type.SUBTASK);
+    }
+
+    /*
+     * Курсор расписания — время начала и id последней задачи страницы через запятую,
+     * например 2024-08-14T10:00,12: по одному id позицию задачи в расписании не восстановить,
+     * если её успели перенести или удалить.
+     */
+    private void processPrioritizedPageRequest(HttpExchange exchange) throws IOException {
+        try {
+            int limit = getPageLimit(exchange);
+            String cursor = getQueryParam(exchange, CURSOR);
+            LocalDateTime afterStart = null;
+            Integer afterId = null;
+            if (cursor != null && !cursor.isEmpty()) {
+                int separator = cursor.lastIndexOf(',');
+                if (separator < 0) {
+                    throw new ValidationException("Неверный курсор: " + cursor);
+                }
+                afterStart = LocalDateTime.parse(cursor.substring(0, separator));
+                afterId = Integer.parseInt(cursor.substring(separator + 1));
+            }
+            if (sendNotModified(exchange, getScheduleVersion())) {
+                return;
+            }
+            List<Task> page = taskManager.getPrioritizedTasks(afterStart, afterId, limit);
+            sendJsonPage(exchange, page, limit, task -> task.getStartTime() + "," + task.getId());
+        } catch (ValidationException | NumberFormatException | DateTimeParseException e) {
+            sendText(exchange, e.getMessage(), BAD_REQUEST);
+        } catch (Exception e) {
+            sendText(exchange, e.getMessage(), INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    /*
+     * GET /history?limit=... — последние limit просмотров, без limit — вся история.
+     */
+    private void processHistoryRequest(HttpExchange exchange) throws IOException {
+        try {
+            Integer limit = getPageLimit(exchange);
+            if (limit != null && limit <= 0) {
+                throw new ValidationException("Размер страницы должен быть положительным");
+            }
+            sendJsonList(exchange, limit == null ? taskManager.getHistory() : taskManager.getHistory(limit), SUCCESS);
+        } catch (ValidationException | NumberFormatException e) {
+            sendText(exchange, e.getMessage(), BAD_REQUEST);
+        } catch (Exception e) {
+            sendText(exchange, e.getMessage(), INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    /*
+     * GET /search?q=...&limit=... — поиск по словам названия и описания, по умолчанию первые
+     * DEFAULT_PAGE_SIZE совпадений.
+     */
+    private void processSearchRequest(HttpExchange exchange) throws IOException {
+        try {
+            String query = getQueryParam(exchange, "q");
+            if (query == null) {
+                throw new ValidationException("Не указан поисковый запрос");
+            }
+            Integer limit = getPageLimit(exchange);
+            sendJsonList(exchange, taskManager.search(query, limit == null ? DEFAULT_PAGE_SIZE : limit), SUCCESS);
+        } catch (ValidationException e) {
+            sendText(exchange, e.getMessage(), BAD_REQUEST);
+        } catch (Exception e) {
+            sendText(exchange, e.getMessage(), INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    private void processFreeSlotRequest(HttpExchange exchange) throws IOException {
+        try {
+            String duration = getQueryParam(exchange, "duration");
+            String from = getQueryParam(exchange, "from");
+            String to = getQueryParam(exchange, "to");
+            if (duration == null) {
+                throw new ValidationException("Не указана продолжительность окна");
+            }
+            TimeSlot slot = taskManager.findFreeSlot(Duration.ofMinutes(Long.parseLong(duration)),
+                    from == null ? LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES) : LocalDateTime.parse(from),
+                    to == null ? null : LocalDateTime.parse(to));
+            sendText(exchange, Managers.getGson().toJson(slot), SUCCESS);
+        } catch (ValidationException | NumberFormatException | DateTimeParseException e) {
+            sendText(exchange, e.getMessage(), BAD_REQUEST);
+        } catch (TaskNotFoundException e) {
+            sendText(exchange, e.getMessage(), NOT_FOUND);
+        } catch (Exception e) {
+            sendText(exchange, e.getMessage(), INTERNAL_SERVER_ERROR);
+        }
+    }
+
     protected String getCommand(String path) {
         String[] parts = path.split("/");
         if (parts.length >= 2) {
@@ -44,4 +166,12 @@ public class UserHttpHandler extends BaseHttpHandler {
         }
         return null;
     }
+
+    protected String getSubcommand(String path) {
+        String[] parts = path.split("/");
+        if (parts.length >= 3) {
+            return parts[2];
+        }
+        return null;
+    }
 }
\ No newline at end of file
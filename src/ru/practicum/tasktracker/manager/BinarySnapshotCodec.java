@@ -0,0 +1,220 @@
+package ru.practicum.tasktracker.manager;
+
+import ru.practicum.tasktracker.enums.Status;
+import ru.practicum.tasktracker.enums.Type;
+import ru.practicum.tasktracker.task.Epic;
+import ru.practicum.tasktracker.task.Subtask;
+import ru.practicum.tasktracker.task.Task;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Двоичный снимок. Файл начинается с сигнатуры "KNBN" и номера версии формата, затем идёт словарь строк
+ * файла: названия и описания повторяются, поэтому каждая различная строка хранится один раз
+ * (длина varint и байты UTF-8), а записи ссылаются на её номер. Далее число записей и сами записи:
+ * тип и статус по байту, id — 4 байта, ссылки на название и описание — varint, время начала — 4 байта
+ * в минутах от эпохи (UTC), длительность в минутах — varint; у эпика дополнительно время окончания,
+ * у подзадачи — 4 байта id эпика. Отсутствующее время записывается как {@link #NO_TIME}, отсутствующие
+ * строка и длительность — как 0, поэтому ссылки и длительности хранятся со сдвигом на единицу.
+ */
+public class BinarySnapshotCodec implements SnapshotCodec {
+
+    static final byte[] MAGIC = {'K', 'N', 'B', 'N'};
+    static final int VERSION = 1;
+
+    private static final int NO_TIME = Integer.MIN_VALUE;
+    private static final int NO_STATUS = 0xFF;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final Type[] TYPES = Type.values();
+    private static final Status[] STATUSES = Status.values();
+
+    @Override
+    public void write(List<Task> tasks, OutputStream out) throws IOException {
+        Map<String, Integer> dictionary = new HashMap<>();
+        List<String> strings = new ArrayList<>();
+        for (Task task : tasks) {
+            intern(task.getName(), dictionary, strings);
+            intern(task.getDescription(), dictionary, strings);
+        }
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out, BUFFER_SIZE));
+        data.write(MAGIC);
+        data.writeByte(VERSION);
+        writeVarint(data, strings.size());
+        for (String string : strings) {
+            byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            writeVarint(data, bytes.length);
+            data.write(bytes);
+        }
+        writeVarint(data, tasks.size());
+        for (Task task : tasks) {
+            data.writeByte(task.getType().ordinal());
+            data.writeByte(task.getStatus() == null ? NO_STATUS : task.getStatus().ordinal());
+            data.writeInt(task.getId());
+            writeVarint(data, reference(task.getName(), dictionary));
+            writeVarint(data, reference(task.getDescription(), dictionary));
+            data.writeInt(toMinutes(task.getStartTime()));
+            writeVarint(data, task.getDuration() == null ? 0 : task.getDuration().toMinutes() + 1);
+            if (task.getType() == Type.EPIC) {
+                data.writeInt(toMinutes(task.getEndTime()));
+            } else if (task.getType() == Type.SUBTASK) {
+                data.writeInt(task.getEpicId());
+            }
+        }
+        data.flush();
+    }
+
+    @Override
+    public void read(InputStream in, Consumer<Task> sink) throws IOException {
+        Input input = new Input(in);
+        for (byte b : MAGIC) {
+            if (input.readByte() != b) {
+                throw new IOException("Файл не является двоичным снимком задач");
+            }
+        }
+        int version = input.readByte();
+        if (version != VERSION) {
+            throw new IOException("Неподдерживаемая версия двоичного снимка: " + version);
+        }
+        String[] strings = new String[checkIndex(input.readVarint(), Integer.MAX_VALUE) + 1];
+        for (int i = 1; i < strings.length; i++) {
+            strings[i] = input.readString(checkIndex(input.readVarint(), Integer.MAX_VALUE));
+        }
+        long count = input.readVarint();
+        for (long i = 0; i < count; i++) {
+            Type type = TYPES[checkIndex(input.readByte(), TYPES.length)];
+            int statusOrdinal = input.readByte();
+            Status status = statusOrdinal == NO_STATUS ? null : STATUSES[checkIndex(statusOrdinal, STATUSES.length)];
+            int id = input.readInt();
+            String name = strings[checkIndex(input.readVarint(), strings.length)];
+            String description = strings[checkIndex(input.readVarint(), strings.length)];
+            LocalDateTime startTime = fromMinutes(input.readInt());
+            long duration = input.readVarint();
+            Duration taskDuration = duration == 0 ? null : Duration.ofMinutes(duration - 1);
+            sink.accept(switch (type) {
+                case TASK -> new Task(id, name, description, status, startTime, taskDuration);
+                case EPIC -> new Epic(id, name, description, status, startTime, taskDuration,
+                        fromMinutes(input.readInt()));
+                case SUBTASK -> new Subtask(id, name, description, status, startTime, taskDuration,
+                        input.readInt());
+            });
+        }
+    }
+
+    private static void intern(String string, Map<String, Integer> dictionary, List<String> strings) {
+        if (string != null && !dictionary.containsKey(string)) {
+            strings.add(string);
+            dictionary.put(string, strings.size());
+        }
+    }
+
+    private static int reference(String string, Map<String, Integer> dictionary) {
+        return string == null ? 0 : dictionary.get(string);
+    }
+
+    /*
+     * Номер типа, статуса или строки словаря из повреждённого файла должен приводить к IOException,
+     * которую менеджер сообщает как ошибку загрузки, а не к выходу за границы массива.
+     */
+    private static int checkIndex(long index, int length) throws IOException {
+        if (index < 0 || index >= length) {
+            throw new IOException("Повреждённый двоичный снимок");
+        }
+        return (int) index;
+    }
+
+    private static int toMinutes(LocalDateTime time) {
+        return time == null ? NO_TIME : Math.toIntExact(time.toEpochSecond(ZoneOffset.UTC) / 60);
+    }
+
+    private static LocalDateTime fromMinutes(int minutes) {
+        return minutes == NO_TIME ? null : LocalDateTime.ofEpochSecond(minutes * 60L, 0, ZoneOffset.UTC);
+    }
+
+    private static void writeVarint(DataOutputStream data, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            data.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        data.writeByte((int) value);
+    }
+
+    /*
+     * Собственный буфер вместо DataInputStream: чтение байта и varint обходятся без вызова потока на каждый байт.
+     */
+    private static class Input {
+        private final InputStream in;
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+        private int position;
+        private int limit;
+
+        private Input(InputStream in) {
+            this.in = in;
+        }
+
+        private int readByte() throws IOException {
+            if (position == limit) {
+                fill();
+            }
+            return buffer[position++] & 0xFF;
+        }
+
+        private int readInt() throws IOException {
+            return (readByte() << 24) | (readByte() << 16) | (readByte() << 8) | readByte();
+        }
+
+        private long readVarint() throws IOException {
+            long result = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readByte();
+                result |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return result;
+                }
+            }
+            throw new IOException("Повреждённое число в двоичном снимке");
+        }
+
+        private String readString(int length) throws IOException {
+            if (limit - position >= length) {
+                String result = new String(buffer, position, length, StandardCharsets.UTF_8);
+                position += length;
+                return result;
+            }
+            byte[] bytes = new byte[length];
+            int copied = 0;
+            while (copied < length) {
+                if (position == limit) {
+                    fill();
+                }
+                int chunk = Math.min(length - copied, limit - position);
+                System.arraycopy(buffer, position, bytes, copied, chunk);
+                position += chunk;
+                copied += chunk;
+            }
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        private void fill() throws IOException {
+            int read = in.read(buffer);
+            if (read <= 0) {
+                throw new EOFException("Двоичный снимок оборван");
+            }
+            position = 0;
+            limit = read;
+        }
+    }
+}
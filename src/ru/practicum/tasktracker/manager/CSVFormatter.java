@@ -3,58 +3,98 @@ package ru.practicum.tasktracker.manager;
 import ru.practicum.tasktracker.enums.Status;
 import ru.practicum.tasktracker.enums.Type;
 import ru.practicum.tasktracker.task.Epic;
+import ru.practicum.tasktracker.task.LocalDateAdapter;
 import ru.practicum.tasktracker.task.Subtask;
 import ru.practicum.tasktracker.task.Task;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 
+/**
+ * Строка CSV задачи: id,type,name,description,status,startTime,endTime,duration[,epicId].
+ * Запись и разбор идут посимвольно: строка собирается в переданный StringBuilder, время в формате
+ * dd.MM.yy HH:mm пишется и читается по цифрам без DateTimeFormatter. Название и описание, содержащие
+ * запятую, кавычку или перевод строки, берутся в кавычки, кавычка внутри удваивается; остальные
+ * поля пишутся как раньше, поэтому прежние файлы читаются без изменений.
+ */
 public class CSVFormatter {
 
+    private static final String NULL = "null";
+    private static final Type[] TYPES = Type.values();
+    private static final Status[] STATUSES = Status.values();
+
     private CSVFormatter() {
     }
 
     public static String toString(Task task) {
-        String result;
-        if (task.getStartTime() != null && task.getDuration() != null && task.getEndTimeString() != null) {
-            result = task.getId() + "," + task.getType() + "," + task.getName() + "," +
-                    task.getDescription() + "," + task.getStatus() + "," + task.getStartTimeString() + "," +
-                    task.getEndTimeString() + "," + task.getDuration().toMinutes();
-        } else {
-            result = task.getId() + "," + task.getType() + "," + task.getName() + "," + task.getDescription() + "," +
-                    task.getStatus() + "," + null + "," + null + "," + null;
-        }
-        return result;
+        return format(task);
     }
 
     public static String toString(Subtask subtask) {
-        String result;
-        if (subtask.getStartTime() != null && subtask.getDuration() != null && subtask.getEndTimeString() != null) {
-            result = subtask.getId() + "," + subtask.getType() + "," + subtask.getName() + "," +
-                    subtask.getDescription() + "," + subtask.getStatus() + "," + subtask.getStartTimeString() + "," +
-                    subtask.getEndTimeString() + "," + subtask.getDuration().toMinutes() + "," + subtask.getEpicId();
-        } else {
-            result = subtask.getId() + "," + subtask.getType() + "," + subtask.getName() + "," +
-                    subtask.getDescription() + "," + subtask.getStatus() + "," + null + "," + null + "," + null + "," +
-                    subtask.getEpicId();
-        }
-        return result;
+        return format(subtask);
     }
 
     public static String toString(Epic epic) {
-        String result;
-        if (epic.getStartTime() != null && epic.getDuration() != null && epic.getEndTimeString() != null) {
-            result = epic.getId() + "," + epic.getType() + "," + epic.getName() + "," + epic.getDescription() + "," +
-                    epic.getStatus() + "," + epic.getStartTimeString() + "," + epic.getEndTimeString() + "," +
-                    epic.getDuration().toMinutes();
+        return format(epic);
+    }
+
+    public static String format(Task task) {
+        StringBuilder builder = new StringBuilder(64);
+        format(task, builder);
+        return builder.toString();
+    }
+
+    /**
+     * Дописывает строку задачи в builder без перевода строки.
+     */
+    public static void format(Task task, StringBuilder builder) {
+        builder.append(task.getId()).append(',').append(task.getType()).append(',');
+        appendText(builder, task.getName());
+        builder.append(',');
+        appendText(builder, task.getDescription());
+        builder.append(',').append(task.getStatus()).append(',');
+        LocalDateTime endTime = task.getStartTime() == null || task.getDuration() == null ? null : task.getEndTime();
+        if (endTime != null) {
+            appendDateTime(builder, task.getStartTime());
+            builder.append(',');
+            appendDateTime(builder, endTime);
+            builder.append(',').append(task.getDuration().toMinutes());
         } else {
-            result = epic.getId() + "," + epic.getType() + "," + epic.getName() + "," + epic.getDescription() + "," +
-                    epic.getStatus() + "," + null + "," + null + "," + null;
+            builder.append(NULL + "," + NULL + "," + NULL);
         }
-        return result;
+        if (task.getType() == Type.SUBTASK) {
+            builder.append(',').append(task.getEpicId());
+        }
+    }
+
+    /**
+     * Разбирает строку задачи, начиная с позиции from.
+     */
+    public static Task parse(String line, int from) {
+        Cursor cursor = new Cursor(line, from);
+        int id = cursor.nextInt();
+        Type type = cursor.nextConstant(TYPES);
+        String name = cursor.nextText();
+        String description = cursor.nextText();
+        Status status = cursor.nextConstant(STATUSES);
+        LocalDateTime startTime = cursor.nextDateTime();
+        LocalDateTime endTime = cursor.nextDateTime();
+        Duration duration = cursor.nextNull() ? null : Duration.ofMinutes(cursor.nextLong());
+        return switch (type) {
+            case TASK -> new Task(id, name, description, status, startTime, duration);
+            case EPIC -> new Epic(id, name, description, status, startTime, duration, endTime);
+            case SUBTASK -> new Subtask(id, name, description, status, startTime, duration, cursor.nextInt());
+        };
     }
 
+    public static Task parse(String line) {
+        return parse(line, 0);
+    }
+
+    /**
+     * Собирает задачу из уже разделённых полей строки. Поля в кавычках не поддерживаются: для них
+     * строку нужно разбирать целиком через {@link #parse(String)}.
+     */
     public static Task fromString(String[] line) {
         int id = Integer.parseInt(line[0]);
         Type type = Type.valueOf(line[1]);
@@ -63,14 +103,14 @@ public class CSVFormatter {
         Status status = Status.valueOf(line[4]);
         LocalDateTime startTime;
         LocalDateTime endTime;
-        if (!line[5].equals("null")) {
-            startTime = LocalDateTime.parse(line[5], DateTimeFormatter.ofPattern("dd.MM.yy HH:mm"));
-            endTime = LocalDateTime.parse(line[6], DateTimeFormatter.ofPattern("dd.MM.yy HH:mm"));
+        if (!line[5].equals(NULL)) {
+            startTime = parseDateTime(line[5], 0);
+            endTime = parseDateTime(line[6], 0);
         } else {
             startTime = null;
             endTime = null;
         }
-        Duration duration = Duration.ofMinutes(Long.parseLong(line[7]));
+        Duration duration = line[7].equals(NULL) ? null : Duration.ofMinutes(Long.parseLong(line[7]));
         return switch (type) {
             case TASK -> new Task(id, name, description, status, startTime, duration);
             case EPIC -> new Epic(id, name, description, status, startTime, duration, endTime);
@@ -84,4 +124,169 @@ public class CSVFormatter {
     public static String getHeader() {
         return "id,type,name,description,status, startTime, duration, epicId";
     }
-}
\ No newline at end of file
+
+    private static void appendText(StringBuilder builder, String text) {
+        if (!needsQuotes(text)) {
+            builder.append(text);
+            return;
+        }
+        builder.append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"') {
+                builder.append('"');
+            }
+            builder.append(c);
+        }
+        builder.append('"');
+    }
+
+    private static boolean needsQuotes(String text) {
+        if (text == null) {
+            return false;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /*
+     * Тот же вид, что у LocalDateAdapter.formatter: dd.MM.yy HH:mm.
+     */
+    private static void appendDateTime(StringBuilder builder, LocalDateTime time) {
+        appendTwoDigits(builder, time.getDayOfMonth());
+        builder.append('.');
+        appendTwoDigits(builder, time.getMonthValue());
+        builder.append('.');
+        appendTwoDigits(builder, time.getYear() % 100);
+        builder.append(' ');
+        appendTwoDigits(builder, time.getHour());
+        builder.append(':');
+        appendTwoDigits(builder, time.getMinute());
+    }
+
+    private static void appendTwoDigits(StringBuilder builder, int value) {
+        builder.append((char) ('0' + value / 10)).append((char) ('0' + value % 10));
+    }
+
+    /*
+     * Двузначный год относится к 2000-2099, как у шаблона yy в DateTimeFormatter.
+     */
+    private static LocalDateTime parseDateTime(String text, int from) {
+        if (text.length() - from < LocalDateAdapter.PATTERN.length()
+                || text.charAt(from + 2) != '.' || text.charAt(from + 5) != '.'
+                || text.charAt(from + 8) != ' ' || text.charAt(from + 11) != ':') {
+            throw new IllegalArgumentException("Неверный формат даты: " + text.substring(from));
+        }
+        return LocalDateTime.of(2000 + twoDigits(text, from + 6), twoDigits(text, from + 3),
+                twoDigits(text, from), twoDigits(text, from + 9), twoDigits(text, from + 12));
+    }
+
+    private static int twoDigits(String text, int at) {
+        return digit(text, at) * 10 + digit(text, at + 1);
+    }
+
+    private static int digit(String text, int at) {
+        char c = text.charAt(at);
+        if (c < '0' || c > '9') {
+            throw new IllegalArgumentException("Ожидалась цифра: " + text);
+        }
+        return c - '0';
+    }
+
+    /*
+     * Позиция в разбираемой строке; каждый метод next* читает одно поле и переходит за следующую запятую.
+     */
+    private static class Cursor {
+        private final String line;
+        private int position;
+
+        private Cursor(String line, int position) {
+            this.line = line;
+            this.position = position;
+        }
+
+        private int nextInt() {
+            return Math.toIntExact(nextLong());
+        }
+
+        private long nextLong() {
+            int end = fieldEnd();
+            boolean negative = position < end && line.charAt(position) == '-';
+            int at = negative ? position + 1 : position;
+            if (at == end) {
+                throw new IllegalArgumentException("Ожидалось число: " + line);
+            }
+            long value = 0;
+            for (; at < end; at++) {
+                value = value * 10 + digit(line, at);
+            }
+            position = end + 1;
+            return negative ? -value : value;
+        }
+
+        private boolean nextNull() {
+            int end = fieldEnd();
+            if (end - position == NULL.length() && line.startsWith(NULL, position)) {
+                position = end + 1;
+                return true;
+            }
+            return false;
+        }
+
+        private <E extends Enum<E>> E nextConstant(E[] constants) {
+            int end = fieldEnd();
+            for (E constant : constants) {
+                String name = constant.name();
+                if (name.length() == end - position && line.startsWith(name, position)) {
+                    position = end + 1;
+                    return constant;
+                }
+            }
+            throw new IllegalArgumentException("Неизвестное значение: " + line.substring(position, end));
+        }
+
+        private LocalDateTime nextDateTime() {
+            if (nextNull()) {
+                return null;
+            }
+            LocalDateTime time = parseDateTime(line, position);
+            position = fieldEnd() + 1;
+            return time;
+        }
+
+        private String nextText() {
+            if (position >= line.length() || line.charAt(position) != '"') {
+                int end = fieldEnd();
+                String text = line.substring(position, end);
+                position = end + 1;
+                return text;
+            }
+            StringBuilder text = new StringBuilder();
+            int at = position + 1;
+            while (true) {
+                int quote = line.indexOf('"', at);
+                if (quote < 0) {
+                    throw new IllegalArgumentException("Незакрытая кавычка: " + line);
+                }
+                text.append(line, at, quote);
+                if (quote + 1 < line.length() && line.charAt(quote + 1) == '"') {
+                    text.append('"');
+                    at = quote + 2;
+                } else {
+                    position = quote + 2;
+                    return text.toString();
+                }
+            }
+        }
+
+        private int fieldEnd() {
+            int comma = line.indexOf(',', position);
+            return comma < 0 ? line.length() : comma;
+        }
+    }
+}
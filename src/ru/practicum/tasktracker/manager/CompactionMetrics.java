@@ -0,0 +1,65 @@
+package ru.practicum.tasktracker.manager;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Счётчики фонового уплотнения журнала: число уплотнений, их длительность и освобождённые байты.
+ */
+public class CompactionMetrics {
+
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong lastDurationNanos = new AtomicLong();
+    private final AtomicLong totalDurationNanos = new AtomicLong();
+    private final AtomicLong lastBytesReclaimed = new AtomicLong();
+    private final AtomicLong totalBytesReclaimed = new AtomicLong();
+
+    void record(long durationNanos, long bytesReclaimed) {
+        count.incrementAndGet();
+        lastDurationNanos.set(durationNanos);
+        totalDurationNanos.addAndGet(durationNanos);
+        lastBytesReclaimed.set(bytesReclaimed);
+        totalBytesReclaimed.addAndGet(bytesReclaimed);
+    }
+
+    void recordFailure() {
+        failures.incrementAndGet();
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public long getFailures() {
+        return failures.get();
+    }
+
+    public long getLastDurationMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(lastDurationNanos.get());
+    }
+
+    public long getTotalDurationMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(totalDurationNanos.get());
+    }
+
+    public long getLastBytesReclaimed() {
+        return lastBytesReclaimed.get();
+    }
+
+    public long getTotalBytesReclaimed() {
+        return totalBytesReclaimed.get();
+    }
+
+    @Override
+    public String toString() {
+        return "CompactionMetrics{" +
+                "count=" + getCount() +
+                ", failures=" + getFailures() +
+                ", lastDurationMillis=" + getLastDurationMillis() +
+                ", totalDurationMillis=" + getTotalDurationMillis() +
+                ", lastBytesReclaimed=" + getLastBytesReclaimed() +
+                ", totalBytesReclaimed=" + getTotalBytesReclaimed() +
+                '}';
+    }
+}
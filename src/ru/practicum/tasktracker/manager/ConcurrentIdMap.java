@@ -0,0 +1,79 @@
+package ru.practicum.tasktracker.manager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+
+/**
+ * Потокобезопасный SortedIdMap на ConcurrentSkipListMap: ключи упорядочены, поэтому страница после
+ * заданного ключа читается без блокировок за O(log n + limit).
+ * Итератор ConcurrentSkipListMap слабо согласован: значения, изменённые во время чтения, попадают
+ * в результат в старом или новом виде, но не ломают обход.
+ */
+public class ConcurrentIdMap<V> implements SortedIdMap<V> {
+
+    private final ConcurrentSkipListMap<Integer, V> map = new ConcurrentSkipListMap<>();
+
+    @Override
+    public V get(int key) {
+        return map.get(key);
+    }
+
+    @Override
+    public boolean containsKey(int key) {
+        return map.containsKey(key);
+    }
+
+    @Override
+    public V put(int key, V value) {
+        return map.put(key, value);
+    }
+
+    @Override
+    public V remove(int key) {
+        return map.remove(key);
+    }
+
+    @Override
+    public int size() {
+        return map.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return map.isEmpty();
+    }
+
+    @Override
+    public void clear() {
+        map.clear();
+    }
+
+    /**
+     * Возвращает новый список значений в порядке возрастания ключей.
+     */
+    @Override
+    public List<V> values() {
+        return new ArrayList<>(map.values());
+    }
+
+    @Override
+    public void forEachValue(Consumer<? super V> action) {
+        map.values().forEach(action);
+    }
+
+    @Override
+    public List<V> valuesAfter(Integer afterKey, int limit) {
+        Map<Integer, V> tail = afterKey == null ? map : map.tailMap(afterKey, false);
+        List<V> result = new ArrayList<>();
+        for (V value : tail.values()) {
+            if (result.size() == limit) {
+                break;
+            }
+            result.add(value);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,217 @@
+package ru.practicum.tasktracker.manager;
+
+import ru.practicum.tasktracker.task.Task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Потокобезопасное расписание для ConcurrentTaskManager.
+ * Дерево интервалов меняется и опрашивается под короткой блокировкой: проверка пересечения и вставка
+ * должны быть атомарны для всей шкалы времени, поэтому по полосам их не разделить. Зато порядок задач
+ * дублируется в ConcurrentSkipListMap по паре (время начала, id), которую запись обновляет вместе
+ * с деревом, и полный список, страницы и выборка по времени начала читаются из неё без блокировки:
+ * список собирается за O(n) уже вне блокировки и не задерживает запись.
+ * Такое чтение слабо согласовано: задача, переносимая во время чтения, может в ответ не попасть.
+ */
+public class ConcurrentSchedule extends IntervalTree {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ConcurrentSkipListMap<Slot, Task> ordered = new ConcurrentSkipListMap<>();
+    private final Map<Integer, Slot> slots = new HashMap<>();
+
+    @Override
+    public void add(Task task) {
+        lock.lock();
+        try {
+            super.add(task);
+            track(task);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /*
+     * Пустое дерево строится из пакета целиком, после чего упорядоченная копия заполняется теми же
+     * задачами по порядку, так что из задач с одинаковым id в ней, как и в дереве, остаётся последняя.
+     * В непустое дерево задачи вставляются по одной через add.
+     */
+    @Override
+    public void addAll(Collection<? extends Task> items) {
+        lock.lock();
+        try {
+            if (super.size() != 0) {
+                items.forEach(this::add);
+                return;
+            }
+            super.addAll(items);
+            items.forEach(this::track);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Task addIfFree(Task task) {
+        lock.lock();
+        try {
+            return super.addIfFree(task);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void remove(Integer id) {
+        lock.lock();
+        try {
+            super.remove(id);
+            Slot slot = slots.remove(id);
+            if (slot != null) {
+                ordered.remove(slot);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean contains(Integer id) {
+        lock.lock();
+        try {
+            return super.contains(id);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.lock();
+        try {
+            return super.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.lock();
+        try {
+            super.clear();
+            slots.clear();
+            ordered.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Task findOverlap(LocalDateTime start, LocalDateTime end, Integer excludeId) {
+        lock.lock();
+        try {
+            return super.findOverlap(start, end, excludeId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Task findBatchOverlap(Collection<? extends Task> batch) {
+        lock.lock();
+        try {
+            return super.findBatchOverlap(batch);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public LocalDateTime findGap(LocalDateTime from, LocalDateTime to, Duration duration) {
+        lock.lock();
+        try {
+            return super.findGap(from, to, duration);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int countStarting(LocalDateTime from, LocalDateTime to) {
+        lock.lock();
+        try {
+            return super.countStarting(from, to);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public List<Task> toList() {
+        return List.copyOf(ordered.values());
+    }
+
+    @Override
+    public List<Task> page(LocalDateTime afterStart, Integer afterId, int limit) {
+        NavigableMap<Slot, Task> tail = afterStart == null ? ordered
+                : ordered.tailMap(new Slot(afterStart, afterId == null ? Integer.MIN_VALUE : afterId), false);
+        List<Task> result = new ArrayList<>();
+        for (Task task : tail.values()) {
+            if (result.size() == limit) {
+                break;
+            }
+            result.add(task);
+        }
+        return result;
+    }
+
+    @Override
+    public List<Task> starting(LocalDateTime from, LocalDateTime to) {
+        NavigableMap<Slot, Task> range = ordered;
+        if (from != null) {
+            range = range.tailMap(new Slot(from, Integer.MIN_VALUE), true);
+        }
+        if (to != null) {
+            range = range.headMap(new Slot(to, Integer.MIN_VALUE), false);
+        }
+        return new ArrayList<>(range.values());
+    }
+
+    /*
+     * Вызывается под блокировкой после записи в дерево. Слот запоминает время начала на момент вставки,
+     * как и узел дерева, поэтому последующее изменение полей задачи не ломает порядок.
+     */
+    private void track(Task task) {
+        Slot slot = new Slot(task.getStartTime(), task.getId());
+        Slot previous = slots.put(task.getId(), slot);
+        if (previous != null && previous.compareTo(slot) != 0) {
+            ordered.remove(previous);
+        }
+        ordered.put(slot, task);
+    }
+
+    private static final class Slot implements Comparable<Slot> {
+        private final LocalDateTime start;
+        private final int id;
+
+        private Slot(LocalDateTime start, int id) {
+            this.start = start;
+            this.id = id;
+        }
+
+        @Override
+        public int compareTo(Slot other) {
+            int cmp = start.compareTo(other.start);
+            return cmp != 0 ? cmp : Integer.compare(id, other.id);
+        }
+    }
+}
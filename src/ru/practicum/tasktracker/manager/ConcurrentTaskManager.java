@@ -0,0 +1,304 @@
+package ru.practicum.tasktracker.manager;
+
+import ru.practicum.tasktracker.task.Epic;
+import ru.practicum.tasktracker.task.Subtask;
+import ru.practicum.tasktracker.task.Task;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Потокобезопасный менеджер задач. Логика хранения, индексов и пересчёта эпиков общая
+ * с InMemoryTaskManager, а здесь подставляются потокобезопасные структуры и расставляются блокировки.
+ * Хранилища построены на ConcurrentIdMap: они упорядочены по id, поэтому страница после заданного id
+ * читается без блокировок за O(log n + limit).
+ * Id выдаются атомарным счётчиком, который сдвигается и за явно переданные id, чтобы новые задачи
+ * их не перезаписали.
+ * Изменения сущностей сериализуются по полосам блокировок: задача и эпик блокируют полосу своего id,
+ * подзадача — полосу своего эпика, поэтому независимые задачи и эпики изменяются параллельно.
+ * Массовые операции берут все полосы.
+ * Расписание — ConcurrentSchedule: проверка пересечения и вставка идут под его короткой блокировкой,
+ * а список и страницы расписания читаются без неё.
+ */
+public class ConcurrentTaskManager extends InMemoryTaskManager {
+
+    private static final int STRIPES = 64;
+    private static final int SEARCH_STRIPES = 16;
+
+    private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+    private final AtomicInteger id = new AtomicInteger();
+
+    public ConcurrentTaskManager() {
+        super(new ConcurrentIdMap<>(), new ConcurrentIdMap<>(), new ConcurrentIdMap<>(), new ConcurrentIdMap<>(),
+                new ConcurrentSchedule(), new StripedSearchIndex(SEARCH_STRIPES));
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    @Override
+    public Task createTask(Task task) {
+        assignId(task);
+        ReentrantLock lock = lockFor(task.getId());
+        lock.lock();
+        try {
+            return super.createTask(task);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Epic createEpic(Epic epic) {
+        assignId(epic);
+        ReentrantLock lock = lockFor(epic.getId());
+        lock.lock();
+        try {
+            return super.createEpic(epic);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Subtask createSubtask(Subtask subtask) {
+        if (subtask.getEpicId() == null) {
+            return super.createSubtask(subtask);
+        }
+        ReentrantLock lock = lockFor(subtask.getEpicId());
+        lock.lock();
+        try {
+            return super.createSubtask(subtask);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Task updateTask(Task task) {
+        if (task.getId() == null) {
+            return super.updateTask(task);
+        }
+        ReentrantLock lock = lockFor(task.getId());
+        lock.lock();
+        try {
+            return super.updateTask(task);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Epic updateEpic(Epic epic) {
+        if (epic.getId() == null) {
+            return super.updateEpic(epic);
+        }
+        ReentrantLock lock = lockFor(epic.getId());
+        lock.lock();
+        try {
+            return super.updateEpic(epic);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Подзадача может перейти в другой эпик, поэтому блокируются полосы старого и нового эпиков
+     * в порядке номеров. Если пока ждали блокировки, подзадачу заменили, попытка повторяется.
+     */
+    @Override
+    public Subtask updateSubtask(Subtask subtask) {
+        Integer subtaskId = subtask.getId();
+        if (subtaskId == null || subtask.getEpicId() == null) {
+            return super.updateSubtask(subtask);
+        }
+        while (true) {
+            Subtask earlySubtask = subtasks.get(subtaskId);
+            if (earlySubtask == null) {
+                return super.updateSubtask(subtask);
+            }
+            int first = Math.min(stripe(earlySubtask.getEpicId()), stripe(subtask.getEpicId()));
+            int second = Math.max(stripe(earlySubtask.getEpicId()), stripe(subtask.getEpicId()));
+            locks[first].lock();
+            locks[second].lock();
+            try {
+                if (subtasks.get(subtaskId) == earlySubtask) {
+                    return super.updateSubtask(subtask);
+                }
+            } finally {
+                locks[second].unlock();
+                locks[first].unlock();
+            }
+        }
+    }
+
+    @Override
+    public List<Task> createAll(List<? extends Task> items) {
+        lockAll();
+        try {
+            return super.createAll(items);
+        } finally {
+            unlockAll();
+        }
+    }
+
+    @Override
+    public List<Task> updateAll(List<? extends Task> items) {
+        lockAll();
+        try {
+            return super.updateAll(items);
+        } finally {
+            unlockAll();
+        }
+    }
+
+    @Override
+    public void deleteTasks() {
+        lockAll();
+        try {
+            super.deleteTasks();
+        } finally {
+            unlockAll();
+        }
+    }
+
+    @Override
+    public void deleteEpics() {
+        lockAll();
+        try {
+            super.deleteEpics();
+        } finally {
+            unlockAll();
+        }
+    }
+
+    @Override
+    public void deleteSubtasks() {
+        lockAll();
+        try {
+            super.deleteSubtasks();
+        } finally {
+            unlockAll();
+        }
+    }
+
+    @Override
+    public void deleteTask(int taskId) {
+        ReentrantLock lock = lockFor(taskId);
+        lock.lock();
+        try {
+            super.deleteTask(taskId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void deleteEpic(int epicId) {
+        ReentrantLock lock = lockFor(epicId);
+        lock.lock();
+        try {
+            super.deleteEpic(epicId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void deleteSubtask(int subtaskId) {
+        while (true) {
+            Subtask subtask = subtasks.get(subtaskId);
+            if (subtask == null) {
+                super.deleteSubtask(subtaskId);
+                return;
+            }
+            ReentrantLock lock = lockFor(subtask.getEpicId());
+            lock.lock();
+            try {
+                if (subtasks.get(subtaskId) == subtask) {
+                    super.deleteSubtask(subtaskId);
+                    return;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public void updateEpicStatus(Epic epic) {
+        ReentrantLock lock = lockFor(epic.getId());
+        lock.lock();
+        try {
+            super.updateEpicStatus(epic);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void setEpicDateTime(int epicId) {
+        ReentrantLock lock = lockFor(epicId);
+        lock.lock();
+        try {
+            super.setEpicDateTime(epicId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void clearPrioritizedTasks() {
+        lockAll();
+        try {
+            super.clearPrioritizedTasks();
+        } finally {
+            unlockAll();
+        }
+    }
+
+    @Override
+    public int getId() {
+        return id.get();
+    }
+
+    @Override
+    protected int getNextId() {
+        return id.incrementAndGet();
+    }
+
+    @Override
+    protected void assignId(Task task) {
+        if (task.getId() == null) {
+            task.setId(getNextId());
+        } else {
+            id.accumulateAndGet(task.getId(), Math::max);
+        }
+    }
+
+    @Override
+    protected void shareEpic(Epic epic) {
+        epic.shareBetweenThreads();
+    }
+
+    private int stripe(int id) {
+        return Math.floorMod(id, STRIPES);
+    }
+
+    private ReentrantLock lockFor(int id) {
+        return locks[stripe(id)];
+    }
+
+    private void lockAll() {
+        for (ReentrantLock lock : locks) {
+            lock.lock();
+        }
+    }
+
+    private void unlockAll() {
+        for (int i = STRIPES - 1; i >= 0; i--) {
+            locks[i].unlock();
+        }
+    }
+}
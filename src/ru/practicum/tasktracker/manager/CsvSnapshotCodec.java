@@ -0,0 +1,60 @@
+package ru.practicum.tasktracker.manager;
+
+import ru.practicum.tasktracker.task.Task;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Текстовый снимок: заголовок и по строке {@link CSVFormatter} на задачу. Строки собираются в один
+ * StringBuilder и сбрасываются в поток порциями, так что запись не создаёт строку на каждую задачу.
+ */
+public class CsvSnapshotCodec implements SnapshotCodec {
+
+    private static final int CHUNK_SIZE = 32 * 1024;
+
+    @Override
+    public void write(List<Task> tasks, OutputStream out) throws IOException {
+        BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), CHUNK_SIZE);
+        StringBuilder chunk = new StringBuilder(CHUNK_SIZE + 256);
+        char[] chars = new char[0];
+        chunk.append(CSVFormatter.getHeader()).append('\n');
+        for (Task task : tasks) {
+            CSVFormatter.format(task, chunk);
+            chunk.append('\n');
+            if (chunk.length() >= CHUNK_SIZE) {
+                chars = drain(chunk, chars, writer);
+            }
+        }
+        drain(chunk, chars, writer);
+        writer.flush();
+    }
+
+    @Override
+    public void read(InputStream in, Consumer<Task> sink) throws IOException {
+        boolean[] header = {true};
+        LineScanner.forEachRecord(in, false, line -> {
+            if (header[0]) {
+                header[0] = false;
+            } else {
+                sink.accept(CSVFormatter.parse(line));
+            }
+        });
+    }
+
+    private static char[] drain(StringBuilder chunk, char[] chars, BufferedWriter writer) throws IOException {
+        if (chars.length < chunk.length()) {
+            chars = new char[chunk.length()];
+        }
+        chunk.getChars(0, chunk.length(), chars, 0);
+        writer.write(chars, 0, chunk.length());
+        chunk.setLength(0);
+        return chars;
+    }
+}
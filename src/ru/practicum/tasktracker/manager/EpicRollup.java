@@ -0,0 +1,97 @@
+package ru.practicum.tasktracker.manager;
+
+import ru.practicum.tasktracker.enums.Status;
+import ru.practicum.tasktracker.task.Subtask;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Агрегаты эпика по его подзадачам: количество подзадач в каждом статусе и мультимножества
+ * времён начала и окончания. Добавление и удаление подзадачи стоит O(log k), поэтому статус
+ * и временное окно эпика не требуют повторного обхода всего списка подзадач.
+ * Вклад подзадачи запоминается при добавлении, чтобы удаление не зависело от её текущих полей.
+ */
+public class EpicRollup {
+
+    private final Map<Integer, Contribution> contributions = new HashMap<>();
+    private final int[] statusCounts = new int[Status.values().length];
+    private final TreeMap<LocalDateTime, Integer> startTimes = new TreeMap<>();
+    private final TreeMap<LocalDateTime, Integer> endTimes = new TreeMap<>();
+
+    public void add(Subtask subtask) {
+        remove(subtask.getId());
+        Contribution contribution = new Contribution(subtask);
+        contributions.put(subtask.getId(), contribution);
+        if (contribution.status != null) {
+            statusCounts[contribution.status.ordinal()]++;
+        }
+        if (contribution.startTime != null) {
+            startTimes.merge(contribution.startTime, 1, Integer::sum);
+            endTimes.merge(contribution.endTime, 1, Integer::sum);
+        }
+    }
+
+    public void remove(Integer subtaskId) {
+        Contribution contribution = contributions.remove(subtaskId);
+        if (contribution == null) {
+            return;
+        }
+        if (contribution.status != null) {
+            statusCounts[contribution.status.ordinal()]--;
+        }
+        if (contribution.startTime != null) {
+            decrement(startTimes, contribution.startTime);
+            decrement(endTimes, contribution.endTime);
+        }
+    }
+
+    public void clear() {
+        contributions.clear();
+        startTimes.clear();
+        endTimes.clear();
+        Arrays.fill(statusCounts, 0);
+    }
+
+    public int size() {
+        return contributions.size();
+    }
+
+    public Status getStatus() {
+        int size = contributions.size();
+        if (statusCounts[Status.DONE.ordinal()] == size) {
+            return Status.DONE;
+        } else if (statusCounts[Status.NEW.ordinal()] == size) {
+            return Status.NEW;
+        } else {
+            return Status.IN_PROGRESS;
+        }
+    }
+
+    public LocalDateTime getStartTime() {
+        return startTimes.isEmpty() ? null : startTimes.firstKey();
+    }
+
+    public LocalDateTime getEndTime() {
+        return endTimes.isEmpty() ? null : endTimes.lastKey();
+    }
+
+    private static void decrement(TreeMap<LocalDateTime, Integer> times, LocalDateTime time) {
+        times.computeIfPresent(time, (key, count) -> count == 1 ? null : count - 1);
+    }
+
+    private static class Contribution {
+        private final Status status;
+        private final LocalDateTime startTime;
+        private final LocalDateTime endTime;
+
+        private Contribution(Subtask subtask) {
+            this.status = subtask.getStatus();
+            this.startTime = subtask.getStartTime();
+            this.endTime = startTime == null ? null : subtask.getEndTime();
+        }
+    }
+}
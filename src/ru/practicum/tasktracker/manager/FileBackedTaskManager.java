@@ -1,144 +1,497 @@
 package ru.practicum.tasktracker.manager;
 
+import ru.practicum.tasktracker.enums.Durability;
+import ru.practicum.tasktracker.enums.PersistenceMode;
+import ru.practicum.tasktracker.enums.SnapshotFormat;
+import ru.practicum.tasktracker.enums.Type;
 import ru.practicum.tasktracker.exceptions.ManagerSaveException;
+import ru.practicum.tasktracker.metrics.LatencyHistogram;
 import ru.practicum.tasktracker.task.Epic;
 import ru.practicum.tasktracker.task.Subtask;
 import ru.practicum.tasktracker.task.Task;
 
 import java.io.*;
-import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.DateTimeException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 
+/**
+ * Менеджер, сохраняющий задачи в файл снимка: CSV или двоичный, см. {@link SnapshotFormat}.
+ * В режиме SNAPSHOT файл целиком переписывается после каждой операции. В режиме WAL операция лишь
+ * дописывает свои записи в журнал &lt;файл&gt;.wal, а снимок переписывается при вызове {@link #snapshot()}
+ * или фоновым уплотнением, когда журнал вырастает больше порога. При загрузке читается снимок и поверх него воспроизводится журнал, если он есть.
+ * Формат снимка при загрузке определяется по содержимому файла, так что менеджер, настроенный на двоичный
+ * формат, прочитает прежний CSV-снимок и перепишет его в двоичном виде при следующем сохранении.
+ * Журнал остаётся текстовым в любом формате снимка.
+ */
 public class FileBackedTaskManager extends InMemoryTaskManager {
 
+    public static final long DEFAULT_COMMIT_INTERVAL_MILLIS = 10;
+
+    public static final int DEFAULT_COMMIT_BATCH_SIZE = 256;
+
+    public static final long DEFAULT_COMPACTION_THRESHOLD_BYTES = 8L * 1024 * 1024;
+
+    public static final long DEFAULT_COMPACTION_CHECK_MILLIS = 1000;
+
     private final File file;
+    private final PersistenceMode mode;
+    private final SnapshotFormat format;
+    private final SnapshotCodec codec;
+    private final WriteAheadLog log;
+    private final PersistenceStage stage;
+    private final long compactionThresholdBytes;
+    private final ReentrantLock compactionLock = new ReentrantLock();
+    private final CompactionMetrics compactionMetrics = new CompactionMetrics();
+    private final LatencyHistogram flushLatency = new LatencyHistogram();
+    private final ScheduledExecutorService compactor;
+    private final long compactionCheckMillis;
+    private boolean compactorStarted;
 
     public FileBackedTaskManager(String fileName) {
-        this.file = new File(fileName);
+        this(fileName, PersistenceMode.SNAPSHOT);
+    }
+
+    public FileBackedTaskManager(String fileName, PersistenceMode mode) {
+        this(fileName, mode, Durability.SYNC);
+    }
+
+    public FileBackedTaskManager(String fileName, PersistenceMode mode, Durability durability) {
+        this(fileName, mode, durability, DEFAULT_COMMIT_INTERVAL_MILLIS, DEFAULT_COMMIT_BATCH_SIZE);
+    }
+
+    /**
+     * @param commitIntervalMillis сколько операций ждут общего сброса в режимах GROUP_COMMIT и ASYNC
+     * @param commitBatchSize      после скольких операций сброс начинается, не дожидаясь интервала
+     */
+    public FileBackedTaskManager(String fileName, PersistenceMode mode, Durability durability,
+                                 long commitIntervalMillis, int commitBatchSize) {
+        this(builder(fileName)
+                .mode(mode)
+                .durability(durability)
+                .commitIntervalMillis(commitIntervalMillis)
+                .commitBatchSize(commitBatchSize));
+    }
+
+    private FileBackedTaskManager(Builder builder) {
+        this.file = new File(builder.fileName);
+        this.mode = builder.mode;
+        this.format = builder.format;
+        this.codec = Snapshots.codec(format);
+        this.log = new WriteAheadLog(Path.of(builder.fileName + ".wal"));
+        this.stage = new PersistenceStage(builder.durability, builder.commitIntervalMillis, TimeUnit.MILLISECONDS,
+                builder.commitBatchSize, this::write);
+        this.compactionThresholdBytes = builder.compactionThresholdBytes;
+        this.compactionCheckMillis = builder.compactionCheckMillis;
+        if (mode == PersistenceMode.WAL && compactionCheckMillis > 0) {
+            this.compactor = Executors.newSingleThreadScheduledExecutor(
+                    Thread.ofPlatform().name("wal-compactor").daemon().factory());
+        } else {
+            this.compactor = null;
+        }
+    }
+
+    public static Builder builder(String fileName) {
+        return new Builder(fileName);
     }
 
-    public void loadFromFile() {
-        try (BufferedReader reader = new BufferedReader(new FileReader(file, StandardCharsets.UTF_8))) {
-            List<String> lines = reader.lines().toList();
-            lines.stream()
-                    .skip(1)
-                    .map(l -> l.split(","))
-                    .forEach(this::handleLine);
+    public synchronized void loadFromFile() {
+        if (file.exists() || !log.exists()) {
+            try {
+                storeAll(Snapshots.readAll(file.toPath(), ForkJoinPool.commonPool()));
+            } catch (IOException e) {
+                throw ManagerSaveException.loadException(e);
+            }
+        }
+        log.replay(this::replay);
+        startCompactor();
+    }
+
+    /**
+     * Переписывает снимок текущим состоянием и очищает журнал.
+     */
+    public void snapshot() {
+        compactionLock.lock();
+        try {
+            synchronized (this) {
+                if (mode == PersistenceMode.WAL) {
+                    await(stage.flush());
+                }
+                save();
+            }
+        } finally {
+            compactionLock.unlock();
+        }
+    }
+
+    /**
+     * Уплотняет журнал: дожидается записи уже выполненных операций, закрывает текущий файл журнала
+     * и запоминает состояние на этот момент, после чего, уже не мешая операциям записи, пишет по нему
+     * новый снимок и удаляет закрытые сегменты журнала. Операции, выполненные после закрытия файла,
+     * остаются в новом файле журнала и воспроизводятся поверх снимка. Без ожидания записи операций,
+     * выполненных до закрытия файла, в режимах GROUP_COMMIT и ASYNC попали бы в новый файл после снимка,
+     * который их уже учитывает.
+     */
+    public void compact() {
+        if (mode != PersistenceMode.WAL) {
+            return;
+        }
+        compactionLock.lock();
+        try {
+            long begin = System.nanoTime();
+            long segment;
+            List<Task> view;
+            synchronized (this) {
+                await(stage.flush());
+                segment = log.rotate();
+                view = currentView();
+            }
+            writeSnapshot(view, true);
+            long reclaimed = log.deleteSegments(segment);
+            compactionMetrics.record(System.nanoTime() - begin, reclaimed);
         } catch (IOException e) {
-            throw ManagerSaveException.loadException(e);
+            compactionMetrics.recordFailure();
+            throw ManagerSaveException.saveException(e);
+        } catch (RuntimeException e) {
+            compactionMetrics.recordFailure();
+            throw e;
+        } finally {
+            compactionLock.unlock();
+        }
+    }
+
+    /**
+     * Время каждого сброса на диск: дозаписи журнала или снимка, вместе с fsync, если его требует режим.
+     */
+    public LatencyHistogram getFlushLatency() {
+        return flushLatency;
+    }
+
+    public CompactionMetrics getCompactionMetrics() {
+        return compactionMetrics;
+    }
+
+    /**
+     * Возвращает текущий размер журнала в байтах.
+     */
+    public long getLogSize() {
+        return log.size();
+    }
+
+    /**
+     * Дожидается сохранения всех уже выполненных операций.
+     */
+    @Override
+    public void flush() {
+        await(stage.flush());
+    }
+
+    /**
+     * Возвращает future, который завершится после сохранения всех уже выполненных операций.
+     */
+    public CompletableFuture<Void> flushAsync() {
+        return stage.flush();
+    }
+
+    /**
+     * Сохраняет накопленные операции и останавливает фоновую запись и уплотнение.
+     */
+    public void close() {
+        synchronized (this) {
+            if (compactor != null) {
+                compactor.shutdown();
+            }
+        }
+        stage.close();
+    }
+
+    public Durability getDurability() {
+        return stage.getDurability();
+    }
+
+    public PersistenceMode getMode() {
+        return mode;
+    }
+
+    public SnapshotFormat getFormat() {
+        return format;
+    }
+
+    /*
+     * Фоновая проверка журнала запускается не в конструкторе, а при загрузке или первой записи, под монитором
+     * менеджера: так поток уплотнения не получает ссылку на ещё не достроенный объект.
+     */
+    private void startCompactor() {
+        if (compactor != null && !compactorStarted && !compactor.isShutdown()) {
+            compactorStarted = true;
+            compactor.scheduleWithFixedDelay(this::compactIfNeeded, compactionCheckMillis, compactionCheckMillis,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /*
+     * Неудачное уплотнение уже учтено в CompactionMetrics, а журнал остаётся целым. Исключение не пробрасывается:
+     * иначе планировщик отменит все следующие проверки.
+     */
+    private void compactIfNeeded() {
+        try {
+            if (log.size() >= compactionThresholdBytes) {
+                compact();
+            }
+        } catch (RuntimeException ignored) {
         }
     }
 
-    private void handleLine(String[] line) {
-        Task task = CSVFormatter.fromString(line);
+    private List<Task> currentView() {
+        List<Task> view = new ArrayList<>(tasks.size() + epics.size() + subtasks.size());
+        tasks.forEachValue(view::add);
+        epics.forEachValue(view::add);
+        subtasks.forEachValue(view::add);
+        return view;
+    }
+
+    /*
+     * Ошибка разбора записи, например строки, склеенной с оборванной записью старой версией журнала,
+     * сообщается как ошибка загрузки, а не как исключение разбора.
+     */
+    private void replay(String line) {
+        try {
+            if (line.startsWith(WriteAheadLog.UPSERT + ",")) {
+                replayUpsert(CSVFormatter.parse(line, WriteAheadLog.UPSERT.length() + 1));
+                return;
+            }
+            String[] record = line.split(",");
+            switch (record[0]) {
+                case WriteAheadLog.DELETE:
+                    replayDelete(Type.valueOf(record[1]), Integer.parseInt(record[2]));
+                    break;
+                case WriteAheadLog.CLEAR:
+                    replayClear(Type.valueOf(record[1]));
+                    break;
+                default:
+                    throw ManagerSaveException.loadException(
+                            new IOException("Неизвестная запись журнала: " + line));
+            }
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeException e) {
+            throw ManagerSaveException.loadException(new IOException("Повреждённая запись журнала: " + line, e));
+        }
+    }
+
+    /*
+     * Подзадача, эпика которой уже нет, пропускается: такая запись остаётся в журнале, если эпик удалён
+     * после неё, а подзадачи удалённого эпика всё равно удаляются вместе с ним.
+     */
+    private void replayUpsert(Task task) {
         switch (Objects.requireNonNull(task).getType()) {
             case TASK:
-                tasks.put(task.getId(), task);
-                prioritizedTasks.add(task);
+                storeTask(task);
                 break;
             case EPIC:
-                epics.put(task.getId(), (Epic) task);
+                if (epics.containsKey(task.getId())) {
+                    replaceEpic((Epic) task);
+                } else {
+                    storeEpic((Epic) task);
+                }
                 break;
             case SUBTASK:
-                subtasks.put(task.getId(), (Subtask) task);
-                int epicId = task.getEpicId();
-                List<Subtask> subtasks = epics.get(epicId).getSubtaskList();
-                subtasks.add((Subtask) task);
-                updateEpicStatus(epics.get(epicId));
-                prioritizedTasks.add(task);
+                if (subtasks.containsKey(task.getId())) {
+                    replaceSubtask((Subtask) task);
+                } else if (epics.containsKey(((Subtask) task).getEpicId())) {
+                    storeSubtask((Subtask) task);
+                }
                 break;
         }
     }
 
-    protected void save() {
-        try (BufferedWriter bw = new BufferedWriter(new FileWriter(file, StandardCharsets.UTF_8))) {
-            bw.write(CSVFormatter.getHeader());
-            bw.newLine();
-            tasks.values().forEach(task -> {
-                try {
-                    bw.write(CSVFormatter.toString(task));
-                    bw.newLine();
-                } catch (IOException e) {
-                    throw new RuntimeException(e);
+    private void replayDelete(Type type, int id) {
+        switch (type) {
+            case TASK:
+                if (tasks.containsKey(id)) {
+                    super.deleteTask(id);
+                }
+                break;
+            case EPIC:
+                if (epics.containsKey(id)) {
+                    super.deleteEpic(id);
+                }
+                break;
+            case SUBTASK:
+                if (subtasks.containsKey(id)) {
+                    super.deleteSubtask(id);
                 }
-            });
-            epics.values().forEach(epic -> {
-                try {
-                    bw.write(CSVFormatter.toString(epic));
-                    bw.newLine();
-                } catch (IOException e) {
-                    throw new RuntimeException(e);
+                break;
+        }
+    }
+
+    private void replayClear(Type type) {
+        switch (type) {
+            case TASK:
+                super.deleteTasks();
+                break;
+            case EPIC:
+                super.deleteEpics();
+                break;
+            case SUBTASK:
+                super.deleteSubtasks();
+                break;
+        }
+    }
+
+    private void persist(List<String> records) {
+        startCompactor();
+        stage.submit(mode == PersistenceMode.WAL ? records : List.of());
+    }
+
+    private void write(List<String> records, boolean force) throws IOException {
+        long begin = System.nanoTime();
+        try {
+            if (mode == PersistenceMode.WAL) {
+                log.append(records, force);
+            } else {
+                synchronized (this) {
+                    writeSnapshot(currentView(), force);
+                    log.truncate();
                 }
-            });
-            subtasks.values().forEach(subtask -> {
-                try {
-                    bw.write(CSVFormatter.toString(subtask));
-                    bw.newLine();
-                } catch (IOException e) {
-                    throw new RuntimeException(e);
+            }
+        } finally {
+            flushLatency.record(System.nanoTime() - begin);
+        }
+    }
+
+    private static void await(CompletableFuture<Void> future) {
+        try {
+            future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof ManagerSaveException saveException) {
+                throw saveException;
+            }
+            throw e;
+        }
+    }
+
+    /*
+     * Эпики пишутся первыми, как их применяет createAll/updateAll. При замене эпика вслед за ним пишутся
+     * его подзадачи: воспроизведение замены, как и updateEpic, сначала удаляет подзадачи старой версии.
+     */
+    private static List<String> upsertRecords(List<? extends Task> items, boolean replacedEpics) {
+        List<String> records = new ArrayList<>();
+        for (Task item : items) {
+            if (item.getType() == Type.EPIC) {
+                records.add(WriteAheadLog.upsert(item));
+                if (replacedEpics) {
+                    ((Epic) item).forEachSubtask(subtask -> records.add(WriteAheadLog.upsert(subtask)));
                 }
-            });
+            }
+        }
+        for (Task item : items) {
+            if (item.getType() != Type.EPIC) {
+                records.add(WriteAheadLog.upsert(item));
+            }
+        }
+        return records;
+    }
+
+    protected void save() {
+        try {
+            writeSnapshot(currentView(), true);
         } catch (IOException e) {
             throw ManagerSaveException.saveException(e);
         }
+        log.truncate();
+    }
+
+    private void writeSnapshot(List<Task> view, boolean force) throws IOException {
+        File tempFile = new File(file.getPath() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(tempFile)) {
+            codec.write(view, out);
+            if (force) {
+                out.getFD().sync();
+            }
+        }
+        Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
     }
 
     @Override
-    public Task createTask(Task task) {
+    public synchronized Task createTask(Task task) {
         Task createdTask = super.createTask(task);
-        save();
+        persist(List.of(WriteAheadLog.upsert(createdTask)));
         return createdTask;
     }
 
     @Override
-    public Epic createEpic(Epic epic) {
+    public synchronized Epic createEpic(Epic epic) {
         Epic createdEpic = super.createEpic(epic);
-        save();
+        persist(List.of(WriteAheadLog.upsert(createdEpic)));
         return createdEpic;
     }
 
     @Override
-    public Subtask createSubtask(Subtask subtask) {
+    public synchronized Subtask createSubtask(Subtask subtask) {
         Subtask createdSubtask = super.createSubtask(subtask);
-        save();
+        persist(List.of(WriteAheadLog.upsert(createdSubtask)));
         return createdSubtask;
     }
 
     @Override
-    public void deleteTask(int id) {
+    public synchronized List<Task> createAll(List<? extends Task> items) {
+        List<Task> createdTasks = super.createAll(items);
+        persist(upsertRecords(createdTasks, false));
+        return createdTasks;
+    }
+
+    @Override
+    public synchronized List<Task> updateAll(List<? extends Task> items) {
+        List<Task> updatedTasks = super.updateAll(items);
+        persist(upsertRecords(updatedTasks, true));
+        return updatedTasks;
+    }
+
+    @Override
+    public synchronized void deleteTask(int id) {
         super.deleteTask(id);
-        save();
+        persist(List.of(WriteAheadLog.delete(Type.TASK, id)));
     }
 
     @Override
-    public void deleteEpic(int id) {
+    public synchronized void deleteEpic(int id) {
         super.deleteEpic(id);
-        save();
+        persist(List.of(WriteAheadLog.delete(Type.EPIC, id)));
     }
 
     @Override
-    public void deleteSubtask(int id) {
+    public synchronized void deleteSubtask(int id) {
         super.deleteSubtask(id);
-        save();
+        persist(List.of(WriteAheadLog.delete(Type.SUBTASK, id)));
     }
 
     @Override
-    public void deleteTasks() {
+    public synchronized void deleteTasks() {
         super.deleteTasks();
-        save();
+        persist(List.of(WriteAheadLog.clear(Type.TASK)));
     }
 
     @Override
-    public void deleteEpics() {
+    public synchronized void deleteEpics() {
         super.deleteEpics();
-        save();
+        persist(List.of(WriteAheadLog.clear(Type.EPIC)));
     }
 
     @Override
-    public void deleteSubtasks() {
+    public synchronized void deleteSubtasks() {
         super.deleteSubtasks();
-        save();
+        persist(List.of(WriteAheadLog.clear(Type.SUBTASK)));
     }
 
     @Override
@@ -157,35 +510,85 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
     }
 
     @Override
-    public Task updateTask(Task task) {
+    public synchronized Task updateTask(Task task) {
         Task updatedTask = super.updateTask(task);
-        save();
+        persist(List.of(WriteAheadLog.upsert(updatedTask)));
         return updatedTask;
     }
 
     @Override
-    public Epic updateEpic(Epic epic) {
+    public synchronized Epic updateEpic(Epic epic) {
         Epic updatedEpic = super.updateEpic(epic);
-        save();
+        persist(upsertRecords(List.of(updatedEpic), true));
         return updatedEpic;
     }
 
     @Override
-    public Subtask updateSubtask(Subtask subtask) {
+    public synchronized Subtask updateSubtask(Subtask subtask) {
         Subtask updatedSubtask = super.updateSubtask(subtask);
-        save();
+        persist(List.of(WriteAheadLog.upsert(updatedSubtask)));
         return updatedSubtask;
     }
 
-    @Override
-    public void updateEpicStatus(Epic epic) {
-        super.updateEpicStatus(epic);
-        save();
-    }
+    /**
+     * Параметры менеджера. По умолчанию файл переписывается целиком после каждой операции
+     * (PersistenceMode.SNAPSHOT) в CSV с fsync (Durability.SYNC). Уплотнение работает только в режиме WAL;
+     * compactionCheckMillis = 0 отключает фоновую проверку, оставляя ручной вызов {@link #compact()}.
+     */
+    public static class Builder {
+        private final String fileName;
+        private PersistenceMode mode = PersistenceMode.SNAPSHOT;
+        private SnapshotFormat format = SnapshotFormat.CSV;
+        private Durability durability = Durability.SYNC;
+        private long commitIntervalMillis = DEFAULT_COMMIT_INTERVAL_MILLIS;
+        private int commitBatchSize = DEFAULT_COMMIT_BATCH_SIZE;
+        private long compactionThresholdBytes = DEFAULT_COMPACTION_THRESHOLD_BYTES;
+        private long compactionCheckMillis = DEFAULT_COMPACTION_CHECK_MILLIS;
 
-    @Override
-    public void setEpicDateTime(int epicId) {
-        super.setEpicDateTime(epicId);
-        save();
+        private Builder(String fileName) {
+            this.fileName = fileName;
+        }
+
+        public Builder mode(PersistenceMode mode) {
+            this.mode = mode;
+            return this;
+        }
+
+        public Builder format(SnapshotFormat format) {
+            this.format = format;
+            return this;
+        }
+
+        public Builder durability(Durability durability) {
+            this.durability = durability;
+            return this;
+        }
+
+        public Builder commitIntervalMillis(long commitIntervalMillis) {
+            this.commitIntervalMillis = commitIntervalMillis;
+            return this;
+        }
+
+        public Builder commitBatchSize(int commitBatchSize) {
+            this.commitBatchSize = commitBatchSize;
+            return this;
+        }
+
+        public Builder compactionThresholdBytes(long compactionThresholdBytes) {
+            this.compactionThresholdBytes = compactionThresholdBytes;
+            return this;
+        }
+
+        public Builder compactionCheckMillis(long compactionCheckMillis) {
+            if (compactionCheckMillis < 0) {
+                throw new IllegalArgumentException("Интервал проверки не может быть отрицательным");
+            }
+            this.compactionCheckMillis = compactionCheckMillis;
+            return this;
+        }
+
+        public FileBackedTaskManager build() {
+            return new FileBackedTaskManager(this);
+        }
     }
-}
\ No newline at end of file
+}
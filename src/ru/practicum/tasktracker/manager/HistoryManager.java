@@ -10,4 +10,6 @@ public interface HistoryManager {
     void remove(int id);
 
     List<Task> getHistory();
+
+    List<Task> getHistory(int limit);
 }
\ No newline at end of file
@@ -0,0 +1,33 @@
+package ru.practicum.tasktracker.manager;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Отображение id → объект, на котором менеджеры задач держат свои хранилища.
+ * InMemoryTaskManager использует однопоточные IntObjectMap и SortedIntObjectMap,
+ * ConcurrentTaskManager — ConcurrentIdMap; null в качестве значения не допускается.
+ */
+public interface IdMap<V> {
+
+    V get(int key);
+
+    boolean containsKey(int key);
+
+    V put(int key, V value);
+
+    V remove(int key);
+
+    int size();
+
+    boolean isEmpty();
+
+    void clear();
+
+    /**
+     * Возвращает новый список значений.
+     */
+    List<V> values();
+
+    void forEachValue(Consumer<? super V> action);
+}
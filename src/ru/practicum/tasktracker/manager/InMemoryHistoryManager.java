@@ -3,88 +3,96 @@ package ru.practicum.tasktracker.manager;
 import ru.practicum.tasktracker.task.Task;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * История просмотров с ограниченной ёмкостью: при переполнении вытесняется задача,
+ * которую смотрели раньше всех. Каждому просмотру выдаётся номер из атомарного счётчика,
+ * просмотры хранятся в ConcurrentSkipListMap по этому номеру, а последний номер каждой задачи —
+ * в ConcurrentHashMap. Общей блокировки нет, поэтому add можно вызывать из многих потоков.
+ */
 public class InMemoryHistoryManager implements HistoryManager {
 
-    private final Map<Integer, Node> nodes = new HashMap<>();
-    private Node head;
-    private Node tail;
+    public static final int DEFAULT_CAPACITY = 1000;
+
+    private final int capacity;
+    private final Map<Integer, Long> positions = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<Long, Task> views = new ConcurrentSkipListMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicInteger size = new AtomicInteger();
+
+    public InMemoryHistoryManager() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public InMemoryHistoryManager(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Ёмкость истории должна быть положительной");
+        }
+        this.capacity = capacity;
+    }
 
     @Override
     public void add(Task task) {
-        linkLast(task);
+        long position = sequence.incrementAndGet();
+        positions.compute(task.getId(), (id, previous) -> {
+            if (previous != null) {
+                views.remove(previous);
+            } else {
+                size.incrementAndGet();
+            }
+            views.put(position, task);
+            return position;
+        });
+        while (size.get() > capacity) {
+            evictEldest();
+        }
     }
 
     @Override
     public List<Task> getHistory() {
-        return getTasks();
+        return new ArrayList<>(views.values());
     }
 
     @Override
-    public void remove(int id) {
-        removeNode(getNode(id));
-    }
-
-    private void linkLast(Task task) {
-        Node node = new Node();
-        node.setTask(task);
-
-        if (nodes.containsKey(task.getId())) {
-            removeNode(nodes.get(task.getId()));
+    public List<Task> getHistory(int limit) {
+        if (limit <= 0) {
+            return new ArrayList<>();
         }
-
-        if (head == null) {
-            head = node;
-            tail = node;
-            node.setNext(null);
-            node.setPrev(null);
-        } else {
-            node.setNext(null);
-            node.setPrev(tail);
-            tail.setNext(node);
-            tail = node;
+        List<Task> history = new ArrayList<>(Math.min(limit, size.get()));
+        for (Task task : views.descendingMap().values()) {
+            if (history.size() == limit) {
+                break;
+            }
+            history.add(task);
         }
-
-        nodes.put(task.getId(), node);
+        Collections.reverse(history);
+        return history;
     }
 
-    private List<Task> getTasks() {
-        List<Task> taskList = new ArrayList<>();
-        Node node = head;
-        while (node != null) {
-            taskList.add(node.getTask());
-            node = node.getNext();
-        }
-        return taskList;
+    @Override
+    public void remove(int id) {
+        positions.computeIfPresent(id, (key, position) -> {
+            views.remove(position);
+            size.decrementAndGet();
+            return null;
+        });
     }
 
-    private void removeNode(Node node) {
-        if (node != null) {
-            nodes.remove(node.getTask().getId());
-            Node prev = node.getPrev();
-            Node next = node.getNext();
-
-            if (head == node) {
-                head = node.getNext();
-            }
-            if (tail == node) {
-                tail = node.getPrev();
-            }
-
-            if (prev != null) {
-                prev.setNext(next);
-            }
-
-            if (next != null) {
-                next.setPrev(prev);
-            }
-        }
+    public int getCapacity() {
+        return capacity;
     }
 
-    private Node getNode(int id) {
-        return nodes.get(id);
+    private void evictEldest() {
+        Map.Entry<Long, Task> eldest = views.pollFirstEntry();
+        if (eldest != null && positions.remove(eldest.getValue().getId(), eldest.getKey())) {
+            size.decrementAndGet();
+        }
     }
-}
\ No newline at end of file
+}
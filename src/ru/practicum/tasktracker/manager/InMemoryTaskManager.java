@@ -1,70 +1,99 @@
 package ru.practicum.tasktracker.manager;
 
 import ru.practicum.tasktracker.enums.Status;
+import ru.practicum.tasktracker.enums.Type;
 import ru.practicum.tasktracker.exceptions.PriorityTaskException;
 import ru.practicum.tasktracker.exceptions.TaskNotFoundException;
+import ru.practicum.tasktracker.exceptions.ValidationException;
 import ru.practicum.tasktracker.task.Epic;
 import ru.practicum.tasktracker.task.Subtask;
 import ru.practicum.tasktracker.task.Task;
+import ru.practicum.tasktracker.task.TimeSlot;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.*;
-
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Менеджер задач в памяти.
+ * Хранилища, индексы и расписание передаются в конструктор, поэтому вся логика менеджера общая
+ * с ConcurrentTaskManager: тот подставляет потокобезопасные структуры и только расставляет
+ * блокировки вокруг публичных операций.
+ * Время задачи проверяется дважды: validate отклоняет пересечение до выдачи id, а reserve
+ * атомарно проверяет и занимает интервал в расписании непосредственно перед записью в хранилище.
+ */
 public class InMemoryTaskManager implements TaskManager {
 
-    protected final Map<Integer, Task> tasks = new HashMap<>();
-    protected final Map<Integer, Epic> epics = new HashMap<>();
-    protected final Map<Integer, Subtask> subtasks = new HashMap<>();
+    protected final SortedIdMap<Task> tasks;
+    protected final SortedIdMap<Epic> epics;
+    protected final SortedIdMap<Subtask> subtasks;
     protected final HistoryManager historyManager = Managers.getDefaultHistory();
 
-    static final Comparator<Task> COMPARATOR = Comparator.comparing(Task::getStartTime,
-            Comparator.nullsLast(Comparator.naturalOrder())).thenComparing(Task::getId);
+    protected final IntervalTree prioritizedTasks;
+
+    protected final StatusIndex statusIndex = new StatusIndex();
+
+    protected final VersionCounter versions = new VersionCounter();
+    private final List<TaskChangeListener> listeners = new CopyOnWriteArrayList<>();
 
-    protected Set<Task> prioritizedTasks = new TreeSet<>(COMPARATOR);
+    protected final IdMap<EpicRollup> epicRollups;
+
+    private final TextIndex searchIndex;
 
     private int id;
 
     public InMemoryTaskManager() {
+        this(new SortedIntObjectMap<>(), new SortedIntObjectMap<>(), new SortedIntObjectMap<>(),
+                new IntObjectMap<>(), new IntervalTree(), new SearchIndex());
+    }
+
+    protected InMemoryTaskManager(SortedIdMap<Task> tasks, SortedIdMap<Epic> epics, SortedIdMap<Subtask> subtasks,
+                                  IdMap<EpicRollup> epicRollups, IntervalTree prioritizedTasks,
+                                  TextIndex searchIndex) {
+        this.tasks = tasks;
+        this.epics = epics;
+        this.subtasks = subtasks;
+        this.epicRollups = epicRollups;
+        this.prioritizedTasks = prioritizedTasks;
+        this.searchIndex = searchIndex;
     }
 
     @Override
     public Task createTask(Task task) {
         validate(task);
-        if (task.getId() == null) {
-            task.setId(getNextId());
-        }
+        assignId(task);
+        reserve(task);
         tasks.put(task.getId(), task);
-        if (task.getStartTime() != null) {
-            prioritizedTasks.add(task);
-        }
+        index(task);
         return task;
     }
 
     @Override
     public Epic createEpic(Epic epic) {
-        if (epic.getId() == null) {
-            epic.setId(getNextId());
-        }
-        epics.put(epic.getId(), epic);
+        assignId(epic);
+        storeEpic(epic);
         return epic;
     }
 
     @Override
     public Subtask createSubtask(Subtask subtask) {
-        validate(subtask);
         if (subtask.getEpicId() == null) {
             throw new TaskNotFoundException("EpicId этой подзадачи отсутствует");
         }
-        if (subtask.getId() == null) {
-            subtask.setId(getNextId());
+        if (!epics.containsKey(subtask.getEpicId())) {
+            throw new TaskNotFoundException("Эпика этой подзадачи нет");
         }
+        validate(subtask);
+        assignId(subtask);
+        reserve(subtask);
         subtasks.put(subtask.getId(), subtask);
-        Epic epic = epics.get(subtask.getEpicId());
-        epic.addSubtask(subtask);
-        updateEpicStatus(epic);
-        setEpicDateTime(subtask.getEpicId());
-        prioritizedTasks.add(subtask);
+        index(subtask);
+        linkSubtask(subtask);
         return subtask;
     }
 
@@ -81,8 +110,8 @@ public class InMemoryTaskManager implements TaskManager {
 
     @Override
     public Epic getEpic(int id) {
-        if (epics.containsKey(id)) {
-            Epic epic = epics.get(id);
+        final Epic epic = epics.get(id);
+        if (epic != null) {
             historyManager.add(epic);
             return epic;
         } else {
@@ -92,8 +121,8 @@ public class InMemoryTaskManager implements TaskManager {
 
     @Override
     public Subtask getSubtask(int id) {
-        if (subtasks.containsKey(id)) {
-            Subtask subtask = subtasks.get(id);
+        final Subtask subtask = subtasks.get(id);
+        if (subtask != null) {
             historyManager.add(subtask);
             return subtask;
         } else {
@@ -103,17 +132,123 @@ public class InMemoryTaskManager implements TaskManager {
 
     @Override
     public List<Task> getTasks() {
-        return new ArrayList<>(tasks.values());
+        return tasks.values();
     }
 
     @Override
     public List<Epic> getEpics() {
-        return new ArrayList<>(epics.values());
+        return epics.values();
     }
 
     @Override
     public List<Subtask> getSubtasks() {
-        return new ArrayList<>(subtasks.values());
+        return subtasks.values();
+    }
+
+    @Override
+    public List<Task> getTasks(Integer afterId, int limit) {
+        checkPageSize(limit);
+        return tasks.valuesAfter(afterId, limit);
+    }
+
+    @Override
+    public List<Epic> getEpics(Integer afterId, int limit) {
+        checkPageSize(limit);
+        return epics.valuesAfter(afterId, limit);
+    }
+
+    @Override
+    public List<Subtask> getSubtasks(Integer afterId, int limit) {
+        checkPageSize(limit);
+        return subtasks.valuesAfter(afterId, limit);
+    }
+
+    /**
+     * В потокобезопасном наследнике выборка читает индексы без общей блокировки: задачи, изменённые
+     * во время запроса, попадают в результат, только если подходят под фильтр в своём текущем виде.
+     */
+    @Override
+    public List<Task> findTasks(TaskQuery query) {
+        return QueryPlanner.execute(query, new QueryPlanner.Indexes() {
+            @Override
+            public int count(Type type) {
+                return statusIndex.count(type);
+            }
+
+            @Override
+            public Collection<? extends Task> all(Type type) {
+                return storage(type).values();
+            }
+
+            @Override
+            public int count(Status status) {
+                return statusIndex.count(status);
+            }
+
+            @Override
+            public Collection<? extends Task> withStatus(Status status) {
+                return statusIndex.get(status);
+            }
+
+            @Override
+            public int countStarting(LocalDateTime from, LocalDateTime to) {
+                return prioritizedTasks.countStarting(from, to);
+            }
+
+            @Override
+            public Collection<? extends Task> starting(LocalDateTime from, LocalDateTime to) {
+                return prioritizedTasks.starting(from, to);
+            }
+
+            @Override
+            public Collection<? extends Task> subtasksOf(int epicId) {
+                Epic epic = epics.get(epicId);
+                return epic == null ? List.of() : epic.getSubtaskList();
+            }
+        });
+    }
+
+    @Override
+    public List<Task> search(String query, int limit) {
+        checkPageSize(limit);
+        if (query == null) {
+            throw new ValidationException("Не указан поисковый запрос");
+        }
+        int[] ids = searchIndex.search(query, limit);
+        List<Task> result = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            Task task = tasks.get(id);
+            if (task == null) {
+                task = epics.get(id);
+            }
+            if (task == null) {
+                task = subtasks.get(id);
+            }
+            if (task != null) {
+                result.add(task);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public long getVersion() {
+        return versions.get();
+    }
+
+    @Override
+    public long getVersion(Type type) {
+        return versions.get(type);
+    }
+
+    @Override
+    public void addChangeListener(TaskChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void removeChangeListener(TaskChangeListener listener) {
+        listeners.remove(listener);
     }
 
     @Override
@@ -123,8 +258,9 @@ public class InMemoryTaskManager implements TaskManager {
             throw new TaskNotFoundException("Задачи с таким id нет");
         }
         validate(task);
-        tasks.replace(taskId, task);
-        prioritizedTasks.add(task);
+        reserve(task);
+        tasks.put(taskId, task);
+        index(task);
         return task;
     }
 
@@ -134,12 +270,7 @@ public class InMemoryTaskManager implements TaskManager {
         if (epicId == null || !epics.containsKey(epicId)) {
             throw new TaskNotFoundException("Эпика с таким id не существует");
         }
-        Epic earlyEpic = epics.get(epicId);
-        earlyEpic.getSubtaskList().forEach(subtask -> subtasks.remove(subtask.getId()));
-        epics.replace(epicId, epic);
-        epic.getSubtaskList().forEach(subtask -> subtasks.put(subtask.getId(), subtask));
-        updateEpicStatus(epic);
-        setEpicDateTime(epic.getId());
+        replaceEpic(epic);
         return epic;
     }
 
@@ -155,62 +286,148 @@ public class InMemoryTaskManager implements TaskManager {
         if (!epics.containsKey(subtask.getEpicId())) {
             throw new TaskNotFoundException("Эпика этой подзадачи нет");
         }
-        int epicId = subtask.getEpicId();
-        Subtask earlySubtask = subtasks.get(subtaskId);
-        subtasks.replace(subtaskId, subtask);
-        Epic epic = epics.get(epicId);
-        List<Subtask> subtaskList = epic.getSubtaskList();
-        subtaskList.remove(earlySubtask);
         validate(subtask);
-        subtaskList.add(subtask);
-        epic.setSubtaskList(subtaskList);
-        updateEpicStatus(epic);
-        setEpicDateTime(epicId);
-        prioritizedTasks.add(subtask);
+        reserve(subtask);
+        unlinkSubtask(subtasks.get(subtaskId));
+        subtasks.put(subtaskId, subtask);
+        index(subtask);
+        linkSubtask(subtask);
         return subtask;
     }
 
+    @Override
+    public List<Task> createAll(List<? extends Task> items) {
+        Set<Integer> batchEpicIds = new HashSet<>();
+        for (Task item : items) {
+            if (item.getType() == Type.EPIC && item.getId() != null) {
+                batchEpicIds.add(item.getId());
+            }
+        }
+        for (Task item : items) {
+            if (item.getType() == Type.SUBTASK) {
+                if (item.getEpicId() == null) {
+                    throw new TaskNotFoundException("EpicId этой подзадачи отсутствует");
+                }
+                if (!epics.containsKey(item.getEpicId()) && !batchEpicIds.contains(item.getEpicId())) {
+                    throw new TaskNotFoundException("Эпика этой подзадачи нет");
+                }
+            }
+        }
+        validateBatch(items);
+        for (Task item : items) {
+            if (item.getType() == Type.EPIC) {
+                assignId(item);
+                storeEpic((Epic) item);
+            }
+        }
+        for (Task item : items) {
+            if (item.getType() == Type.TASK) {
+                assignId(item);
+                storeTask(item);
+            } else if (item.getType() == Type.SUBTASK) {
+                assignId(item);
+                storeSubtask((Subtask) item);
+            }
+        }
+        return new ArrayList<>(items);
+    }
+
+    @Override
+    public List<Task> updateAll(List<? extends Task> items) {
+        for (Task item : items) {
+            Integer itemId = item.getId();
+            switch (item.getType()) {
+                case TASK:
+                    if (itemId == null || !tasks.containsKey(itemId)) {
+                        throw new TaskNotFoundException("Задачи с таким id нет");
+                    }
+                    break;
+                case EPIC:
+                    if (itemId == null || !epics.containsKey(itemId)) {
+                        throw new TaskNotFoundException("Эпика с таким id не существует");
+                    }
+                    break;
+                case SUBTASK:
+                    if (itemId == null || !subtasks.containsKey(itemId)) {
+                        throw new TaskNotFoundException("Подзадачи с таким id нет");
+                    }
+                    if (item.getEpicId() == null) {
+                        throw new TaskNotFoundException("EpicId этой подзадачи отсутствует");
+                    }
+                    if (!epics.containsKey(item.getEpicId())) {
+                        throw new TaskNotFoundException("Эпика этой подзадачи нет");
+                    }
+                    break;
+            }
+        }
+        validateBatch(items);
+        for (Task item : items) {
+            if (item.getType() == Type.EPIC) {
+                replaceEpic((Epic) item);
+            }
+        }
+        for (Task item : items) {
+            if (item.getType() == Type.TASK) {
+                storeTask(item);
+            } else if (item.getType() == Type.SUBTASK) {
+                replaceSubtask((Subtask) item);
+            }
+        }
+        return new ArrayList<>(items);
+    }
+
     @Override
     public void deleteTasks() {
-        tasks.values().forEach(task -> {
+        tasks.forEachValue(task -> {
             historyManager.remove(task.getId());
-            prioritizedTasks.remove(task);
+            prioritizedTasks.remove(task.getId());
+            unindex(task);
         });
         tasks.clear();
+        changed(Type.TASK, null);
     }
 
     @Override
     public void deleteEpics() {
-        epics.values().forEach(epic -> {
-            epic.getSubtaskList().clear();
-            subtasks.values().forEach(subtask -> {
-                prioritizedTasks.remove(subtask);
-                historyManager.remove(subtask.getEpicId());
-            });
+        epics.forEachValue(epic -> {
+            epic.clearSubtasks();
+            historyManager.remove(epic.getId());
+            unindex(epic);
+        });
+        subtasks.forEachValue(subtask -> {
+            prioritizedTasks.remove(subtask.getId());
+            historyManager.remove(subtask.getId());
+            unindex(subtask);
         });
-        epics.keySet().forEach(historyManager::remove);
         epics.clear();
+        epicRollups.clear();
         subtasks.clear();
+        changed(Type.EPIC, null);
+        changed(Type.SUBTASK, null);
     }
 
     @Override
     public void deleteSubtasks() {
-        subtasks.values().forEach(subtask -> {
+        subtasks.forEachValue(subtask -> {
             historyManager.remove(subtask.getId());
-            prioritizedTasks.remove(subtask);
+            prioritizedTasks.remove(subtask.getId());
+            unindex(subtask);
         });
-        epics.values().forEach(epic -> {
-            epic.getSubtaskList().clear();
-            updateEpicStatus(epic);
+        epics.forEachValue(epic -> {
+            epic.clearSubtasks();
+            getEpicRollup(epic.getId()).clear();
+            refreshEpic(epic);
         });
         subtasks.clear();
+        changed(Type.SUBTASK, null);
     }
 
     @Override
     public void deleteTask(int taskId) {
-        if (tasks.containsKey(taskId)) {
-            prioritizedTasks.remove(tasks.get(taskId));
-            tasks.remove(taskId);
+        Task task = tasks.remove(taskId);
+        if (task != null) {
+            prioritizedTasks.remove(taskId);
+            unindex(task);
             historyManager.remove(taskId);
         } else {
             throw new TaskNotFoundException("Задача не найдена");
@@ -219,14 +436,16 @@ public class InMemoryTaskManager implements TaskManager {
 
     @Override
     public void deleteEpic(int epicId) {
-        Epic epic = epics.get(epicId);
+        Epic epic = epics.remove(epicId);
         if (epic != null) {
-            epic.getSubtaskList().forEach(subtask -> {
-                prioritizedTasks.remove(subtask);
+            unindex(epic);
+            epic.forEachSubtask(subtask -> {
+                prioritizedTasks.remove(subtask.getId());
                 subtasks.remove(subtask.getId());
+                unindex(subtask);
                 historyManager.remove(subtask.getId());
             });
-            epics.remove(epic.getId());
+            epicRollups.remove(epic.getId());
             historyManager.remove(epic.getId());
         } else {
             throw new TaskNotFoundException("Эпик не найден");
@@ -238,16 +457,11 @@ public class InMemoryTaskManager implements TaskManager {
         Subtask subtask = subtasks.get(subtaskId);
 
         if (subtask != null) {
-            int epicId = subtask.getEpicId();
-            Epic epic = epics.get(epicId);
-            List<Subtask> subtaskList = epic.getSubtaskList();
-            subtaskList.remove(subtask);
-            epic.setSubtaskList(subtaskList);
-            updateEpicStatus(epic);
-            setEpicDateTime(epicId);
+            unlinkSubtask(subtask);
             subtasks.remove(subtaskId);
+            prioritizedTasks.remove(subtaskId);
+            unindex(subtask);
             historyManager.remove(subtaskId);
-            prioritizedTasks.remove(subtask);
         } else {
             throw new TaskNotFoundException("Подзадача не найдена");
         }
@@ -258,32 +472,22 @@ public class InMemoryTaskManager implements TaskManager {
         return historyManager.getHistory();
     }
 
+    @Override
+    public List<Task> getHistory(int limit) {
+        return historyManager.getHistory(limit);
+    }
+
     @Override
     public void remove(int id) {
         historyManager.remove(id);
     }
 
     public void updateEpicStatus(Epic epic) {
-        List<Subtask> list = epic.getSubtaskList();
-
-        int allDone = 0;
-        int allNew = 0;
+        refreshEpic(epic);
+    }
 
-        for (Subtask subtask : list) {
-            if (subtask.getStatus() == Status.DONE) {
-                allDone++;
-            }
-            if (subtask.getStatus() == Status.NEW) {
-                allNew++;
-            }
-        }
-        if (allDone == list.size()) {
-            epic.setStatus(Status.DONE);
-        } else if (allNew == list.size()) {
-            epic.setStatus(Status.NEW);
-        } else {
-            epic.setStatus(Status.IN_PROGRESS);
-        }
+    @Override
+    public void flush() {
     }
 
     protected int getNextId() {
@@ -296,50 +500,263 @@ public class InMemoryTaskManager implements TaskManager {
 
     @Override
     public void setEpicDateTime(int epicId) {
-        List<Subtask> subtasks = epics.get(epicId).getSubtaskList();
-        final LocalDateTime[] startTime = {subtasks.getFirst().getStartTime()};
-        final LocalDateTime[] endTime = {subtasks.getFirst().getEndTime()};
-        subtasks.forEach(subtask -> {
-            if (subtask.getStartTime().isBefore(startTime[0])) startTime[0] = subtask.getStartTime();
-            if (subtask.getEndTime().isAfter(endTime[0])) endTime[0] = subtask.getEndTime();
-        });
-        epics.get(epicId).setStartTime(startTime[0]);
-        epics.get(epicId).setEndTime(endTime[0]);
-        Duration duration = Duration.between(startTime[0], endTime[0]);
-        epics.get(epicId).setDuration(duration);
+        Epic epic = epics.get(epicId);
+        if (epic != null) {
+            refreshEpic(epic);
+        }
+    }
+
+    protected EpicRollup getEpicRollup(int epicId) {
+        EpicRollup rollup = epicRollups.get(epicId);
+        if (rollup == null) {
+            rollup = new EpicRollup();
+            epicRollups.put(epicId, rollup);
+        }
+        return rollup;
     }
 
-    private boolean checkTasksOverlapTime(Task task, Task existTask) {
-        return !(task.getStartTime().isAfter(existTask.getEndTime()) ||
-                task.getEndTime().isBefore(existTask.getStartTime()));
+    protected void linkSubtask(Subtask subtask) {
+        Epic epic = epics.get(subtask.getEpicId());
+        epic.addSubtask(subtask);
+        getEpicRollup(epic.getId()).add(subtask);
+        refreshEpic(epic);
+    }
+
+    protected void unlinkSubtask(Subtask subtask) {
+        Epic epic = epics.get(subtask.getEpicId());
+        if (epic == null) {
+            return;
+        }
+        epic.removeSubtask(subtask.getId());
+        getEpicRollup(epic.getId()).remove(subtask.getId());
+        refreshEpic(epic);
     }
 
+    @Override
     public List<Task> getPrioritizedTasks() {
-        tasks.values().stream()
-                .filter(Objects::nonNull)
-                .filter(task -> task.getStartTime() != null)
-                .forEach(prioritizedTasks::add);
-        subtasks.values().stream()
-                .filter(Objects::nonNull)
-                .filter(subTask -> subTask.getStartTime() != null)
-                .forEach(prioritizedTasks::add);
-        return new ArrayList<>(prioritizedTasks);
+        return prioritizedTasks.toList();
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks(LocalDateTime afterStart, Integer afterId, int limit) {
+        checkPageSize(limit);
+        return prioritizedTasks.page(afterStart, afterId, limit);
+    }
+
+    @Override
+    public TimeSlot findFreeSlot(Duration duration, LocalDateTime notBefore, LocalDateTime notAfter) {
+        if (duration == null || duration.isNegative() || duration.isZero()) {
+            throw new ValidationException("Продолжительность окна должна быть положительной");
+        }
+        if (notBefore == null) {
+            throw new ValidationException("Не указано время, с которого искать окно");
+        }
+        if (notAfter != null && notAfter.isBefore(notBefore)) {
+            throw new ValidationException("Конец интервала поиска раньше его начала");
+        }
+        LocalDateTime start = prioritizedTasks.findGap(notBefore, notAfter, duration);
+        if (start == null) {
+            throw new TaskNotFoundException("Свободного окна такой длительности в заданном интервале нет");
+        }
+        return new TimeSlot(start, duration);
     }
 
+    @Override
     public void clearPrioritizedTasks() {
         prioritizedTasks.clear();
+        tasks.forEachValue(this::addToSchedule);
+        subtasks.forEachValue(this::addToSchedule);
     }
 
     @Override
     public void validate(Task task) {
-        List<Task> prioritizedTasks = getPrioritizedTasks();
-        prioritizedTasks.stream()
-                .filter(existTask -> !existTask.getId().equals(task.getId()))
-                .filter(existTask -> checkTasksOverlapTime(task, existTask))
-                .findFirst()
-                .ifPresent(existTask -> {
-                    throw new PriorityTaskException("Время выполнения задачи пересекается со временем уже существующей " +
-                            "задачи. Выберите другую дату.");
-                });
+        if (task.getStartTime() == null) {
+            return;
+        }
+        if (prioritizedTasks.findOverlap(task.getStartTime(), task.getEndTime(), task.getId()) != null) {
+            throw new PriorityTaskException("Время выполнения задачи пересекается со временем уже существующей " +
+                    "задачи. Выберите другую дату.");
+        }
+    }
+
+    protected void validateBatch(List<? extends Task> items) {
+        if (prioritizedTasks.findBatchOverlap(items) != null) {
+            throw new PriorityTaskException("Время выполнения задачи пересекается со временем уже существующей " +
+                    "задачи. Выберите другую дату.");
+        }
+    }
+
+    protected void assignId(Task task) {
+        if (task.getId() == null) {
+            int nextId = getNextId();
+            while (tasks.containsKey(nextId) || epics.containsKey(nextId) || subtasks.containsKey(nextId)) {
+                nextId = getNextId();
+            }
+            task.setId(nextId);
+        }
+    }
+
+    /**
+     * Вызывается перед тем, как эпик попадает в хранилище. Потокобезопасный наследник переводит здесь
+     * список подзадач эпика на конкурентную структуру.
+     */
+    protected void shareEpic(Epic epic) {
+    }
+
+    /*
+     * Примитивы записи в хранилище без проверок. Они final, чтобы наследники, сохраняющие состояние
+     * после каждой публичной операции, не срабатывали на каждый элемент массовой операции.
+     */
+    protected final void storeTask(Task task) {
+        addToSchedule(task);
+        tasks.put(task.getId(), task);
+        index(task);
+    }
+
+    protected final void storeEpic(Epic epic) {
+        shareEpic(epic);
+        epics.put(epic.getId(), epic);
+        index(epic);
+    }
+
+    protected final void storeSubtask(Subtask subtask) {
+        addToSchedule(subtask);
+        subtasks.put(subtask.getId(), subtask);
+        index(subtask);
+        linkSubtask(subtask);
+    }
+
+    /**
+     * Кладёт в хранилище задачи загруженного снимка за один проход: сначала все эпики, поэтому порядок
+     * записей в файле не важен, затем задачи и подзадачи. Статус и время каждого эпика пересчитываются
+     * один раз после привязки всех его подзадач, а список приоритизации строится одним пакетом.
+     */
+    protected final void storeAll(List<? extends Task> items) {
+        for (Task item : items) {
+            if (item.getType() == Type.EPIC) {
+                storeEpic((Epic) item);
+            }
+        }
+        IntObjectMap<Epic> linkedEpics = new IntObjectMap<>();
+        List<Task> scheduled = new ArrayList<>();
+        for (Task item : items) {
+            if (item.getType() == Type.EPIC) {
+                continue;
+            }
+            if (item.getType() == Type.TASK) {
+                tasks.put(item.getId(), item);
+                index(item);
+            } else {
+                Subtask subtask = (Subtask) item;
+                Epic epic = epics.get(subtask.getEpicId());
+                if (epic == null) {
+                    throw new TaskNotFoundException("Эпика этой подзадачи нет");
+                }
+                subtasks.put(subtask.getId(), subtask);
+                index(subtask);
+                epic.addSubtask(subtask);
+                getEpicRollup(epic.getId()).add(subtask);
+                linkedEpics.put(epic.getId(), epic);
+            }
+            if (item.getStartTime() != null) {
+                scheduled.add(item);
+            } else {
+                prioritizedTasks.remove(item.getId());
+            }
+        }
+        linkedEpics.forEachValue(this::refreshEpic);
+        prioritizedTasks.addAll(scheduled);
+    }
+
+    protected final void replaceEpic(Epic epic) {
+        Epic earlyEpic = epics.get(epic.getId());
+        earlyEpic.forEachSubtask(subtask -> {
+            subtasks.remove(subtask.getId());
+            prioritizedTasks.remove(subtask.getId());
+            unindex(subtask);
+        });
+        storeEpic(epic);
+        EpicRollup rollup = getEpicRollup(epic.getId());
+        rollup.clear();
+        epic.forEachSubtask(subtask -> {
+            addToSchedule(subtask);
+            subtasks.put(subtask.getId(), subtask);
+            rollup.add(subtask);
+            index(subtask);
+        });
+        refreshEpic(epic);
+    }
+
+    protected final void replaceSubtask(Subtask subtask) {
+        unlinkSubtask(subtasks.get(subtask.getId()));
+        storeSubtask(subtask);
+    }
+
+    protected void addToSchedule(Task task) {
+        if (task.getStartTime() != null) {
+            prioritizedTasks.add(task);
+        } else {
+            prioritizedTasks.remove(task.getId());
+        }
+    }
+
+    private void reserve(Task task) {
+        if (prioritizedTasks.addIfFree(task) != null) {
+            throw new PriorityTaskException("Время выполнения задачи пересекается со временем уже существующей " +
+                    "задачи. Выберите другую дату.");
+        }
+    }
+
+    private void refreshEpic(Epic epic) {
+        EpicRollup rollup = getEpicRollup(epic.getId());
+        LocalDateTime startTime = rollup.getStartTime();
+        LocalDateTime endTime = rollup.getEndTime();
+        epic.setStatus(rollup.getStatus());
+        statusIndex.put(epic);
+        epic.setStartTime(startTime);
+        epic.setEndTime(endTime);
+        epic.setDuration(startTime == null ? null : Duration.between(startTime, endTime));
+        changed(Type.EPIC, epic.getId());
+    }
+
+    /*
+     * Вторичные индексы, номера изменений и слушатели обновляются вместе с хранилищем: при каждой
+     * записи и удалении задачи.
+     * Номер изменения растёт, а слушатели узнают об изменении только после записи в хранилище
+     * и расписание: иначе читатель потокобезопасного менеджера мог бы запомнить новый номер или
+     * закэшировать ответ вместе со старыми данными и больше их не перечитать. Поэтому массовые удаления,
+     * которые очищают хранилище после цикла, в конце ещё раз сообщают об изменении всей коллекции.
+     * Поисковый индекс тоже ведётся здесь с создания менеджера, в том числе при загрузке из файла,
+     * поэтому первый поиск не ждёт его построения.
+     */
+    private void index(Task task) {
+        statusIndex.put(task);
+        searchIndex.put(task);
+        changed(task.getType(), task.getId());
+    }
+
+    private void changed(Type type, Integer id) {
+        versions.touch(type);
+        listeners.forEach(listener -> listener.onChange(type, id));
+    }
+
+    private void unindex(Task task) {
+        statusIndex.remove(task.getId());
+        searchIndex.remove(task.getId());
+        changed(task.getType(), task.getId());
+    }
+
+    private IdMap<? extends Task> storage(Type type) {
+        return switch (type) {
+            case TASK -> tasks;
+            case EPIC -> epics;
+            case SUBTASK -> subtasks;
+        };
+    }
+
+    private static void checkPageSize(int limit) {
+        if (limit <= 0) {
+            throw new ValidationException("Размер страницы должен быть положительным");
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,201 @@
+package ru.practicum.tasktracker.manager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Отображение int → объект без упаковки ключей и без отдельного узла на каждую запись.
+ * Записи лежат в плотных массивах keys/values в порядке добавления, а хеш-таблица с открытой
+ * адресацией хранит только номера позиций в этих массивах. Удалённая позиция помечается null
+ * и освобождается при следующем расширении, поэтому null в качестве значения не допускается.
+ */
+public class IntObjectMap<V> implements IdMap<V> {
+
+    private static final int FREE = -1;
+    private static final int MIN_CAPACITY = 8;
+
+    private int[] index;
+    private int[] keys;
+    private Object[] values;
+    private int used;
+    private int size;
+
+    public IntObjectMap() {
+        this(MIN_CAPACITY);
+    }
+
+    public IntObjectMap(int expectedSize) {
+        allocate(Math.max(MIN_CAPACITY, Integer.highestOneBit(Math.max(expectedSize, 1) - 1) << 1));
+    }
+
+    @Override
+    public V get(int key) {
+        int slot = find(key);
+        return slot == FREE ? null : value(index[slot]);
+    }
+
+    @Override
+    public boolean containsKey(int key) {
+        return find(key) != FREE;
+    }
+
+    @Override
+    public V put(int key, V value) {
+        if (value == null) {
+            throw new NullPointerException("Значение не может быть null");
+        }
+        int slot = find(key);
+        if (slot != FREE) {
+            int position = index[slot];
+            V previous = value(position);
+            values[position] = value;
+            return previous;
+        }
+        if (used == keys.length) {
+            rehash(size + 1);
+        }
+        keys[used] = key;
+        values[used] = value;
+        insertIndex(key, used);
+        used++;
+        size++;
+        return null;
+    }
+
+    @Override
+    public V remove(int key) {
+        int slot = find(key);
+        if (slot == FREE) {
+            return null;
+        }
+        int position = index[slot];
+        V previous = value(position);
+        values[position] = null;
+        deleteIndex(slot);
+        size--;
+        return previous;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public void clear() {
+        allocate(MIN_CAPACITY);
+        used = 0;
+        size = 0;
+    }
+
+    /**
+     * Возвращает новый список значений в порядке добавления ключей.
+     */
+    @Override
+    public List<V> values() {
+        List<V> result = new ArrayList<>(size);
+        for (int i = 0; i < used; i++) {
+            if (values[i] != null) {
+                result.add(value(i));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void forEachValue(Consumer<? super V> action) {
+        for (int i = 0; i < used; i++) {
+            if (values[i] != null) {
+                action.accept(value(i));
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private V value(int position) {
+        return (V) values[position];
+    }
+
+    private int find(int key) {
+        int mask = index.length - 1;
+        int slot = hash(key) & mask;
+        while (true) {
+            int position = index[slot];
+            if (position == FREE) {
+                return FREE;
+            }
+            if (keys[position] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private void insertIndex(int key, int position) {
+        int mask = index.length - 1;
+        int slot = hash(key) & mask;
+        while (index[slot] != FREE) {
+            slot = (slot + 1) & mask;
+        }
+        index[slot] = position;
+    }
+
+    private void deleteIndex(int slot) {
+        int mask = index.length - 1;
+        int gap = slot;
+        int next = slot;
+        while (true) {
+            next = (next + 1) & mask;
+            int position = index[next];
+            if (position == FREE) {
+                break;
+            }
+            int ideal = hash(keys[position]) & mask;
+            boolean movable = gap <= next ? (ideal <= gap || ideal > next) : (ideal <= gap && ideal > next);
+            if (movable) {
+                index[gap] = position;
+                gap = next;
+            }
+        }
+        index[gap] = FREE;
+    }
+
+    private void rehash(int required) {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        int oldUsed = used;
+        int capacity = keys.length;
+        while (capacity < required * 2 && capacity < (1 << 29)) {
+            capacity <<= 1;
+        }
+        allocate(capacity);
+        used = 0;
+        for (int i = 0; i < oldUsed; i++) {
+            if (oldValues[i] != null) {
+                keys[used] = oldKeys[i];
+                values[used] = oldValues[i];
+                insertIndex(oldKeys[i], used);
+                used++;
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new Object[capacity];
+        index = new int[capacity * 2];
+        Arrays.fill(index, FREE);
+    }
+
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
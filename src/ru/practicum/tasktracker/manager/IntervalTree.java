@@ -0,0 +1,457 @@
+package ru.practicum.tasktracker.manager;
+
+import ru.practicum.tasktracker.enums.Type;
+import ru.practicum.tasktracker.task.Task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Сбалансированное (AVL) дерево интервалов задач, упорядоченное по времени начала и id.
+ * Каждый узел хранит максимальное время окончания и число задач в своём поддереве, поэтому поиск
+ * пересечения стоит O(log n + k), а подсчёт задач, начинающихся в интервале, — O(log n).
+ * Границы интервала запоминаются при вставке, так что последующее изменение полей самой задачи
+ * не ломает порядок в дереве.
+ * Упорядоченный список задач кэшируется и пересобирается только после изменения дерева.
+ */
+public class IntervalTree {
+
+    private final Map<Integer, Entry> entries = new HashMap<>();
+    private Entry root;
+    private List<Task> snapshot = List.of();
+    private boolean snapshotValid = true;
+
+    public void add(Task task) {
+        remove(task.getId());
+        Entry entry = new Entry(task);
+        root = insert(root, entry);
+        entries.put(entry.id, entry);
+        snapshotValid = false;
+    }
+
+    /**
+     * Добавляет задачи пакетом. В пустое дерево задачи не вставляются по одной: они сортируются
+     * и из них сразу строится идеально сбалансированное дерево за O(n log n) без поворотов.
+     * Из задач с одинаковым id остаётся последняя.
+     */
+    public void addAll(Collection<? extends Task> items) {
+        if (!entries.isEmpty()) {
+            items.forEach(this::add);
+            return;
+        }
+        for (Task task : items) {
+            entries.put(task.getId(), new Entry(task));
+        }
+        Entry[] sorted = entries.values().toArray(new Entry[0]);
+        Arrays.sort(sorted, IntervalTree::compare);
+        root = build(sorted, 0, sorted.length);
+        snapshotValid = false;
+    }
+
+    /**
+     * Ставит задачу в расписание, если её интервал не пересекается с другими задачами, и возвращает null;
+     * иначе оставляет дерево как есть и возвращает первую пересекающуюся задачу. Задача без времени
+     * начала убирается из расписания.
+     */
+    public Task addIfFree(Task task) {
+        if (task.getStartTime() == null) {
+            remove(task.getId());
+            return null;
+        }
+        Task overlap = findOverlap(task.getStartTime(), task.getEndTime(), task.getId());
+        if (overlap == null) {
+            add(task);
+        }
+        return overlap;
+    }
+
+    public void remove(Integer id) {
+        Entry entry = entries.remove(id);
+        if (entry != null) {
+            root = delete(root, entry);
+            snapshotValid = false;
+        }
+    }
+
+    public boolean contains(Integer id) {
+        return entries.containsKey(id);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public void clear() {
+        entries.clear();
+        root = null;
+        snapshot = List.of();
+        snapshotValid = true;
+    }
+
+    /**
+     * Возвращает первую по времени задачу, интервал которой пересекается с [start, end]
+     * (границы включительно), либо null. Задача с id excludeId не учитывается.
+     */
+    public Task findOverlap(LocalDateTime start, LocalDateTime end, Integer excludeId) {
+        Entry entry = findOverlap(root, start, end, id -> id.equals(excludeId));
+        return entry == null ? null : entry.task;
+    }
+
+    /**
+     * Проверяет пакет задач перед массовой вставкой: возвращает первую задачу пакета, которая
+     * пересекается с другой задачей пакета или с уже запланированной задачей не из пакета, либо null.
+     * Пакет сортируется по времени начала и проходится один раз с накоплением максимального времени
+     * окончания, а с деревом каждая задача сверяется за O(log n). Эпики не проверяются.
+     */
+    public Task findBatchOverlap(Collection<? extends Task> batch) {
+        Set<Integer> batchIds = new HashSet<>();
+        List<Task> timed = new ArrayList<>(batch.size());
+        for (Task task : batch) {
+            if (task.getId() != null) {
+                batchIds.add(task.getId());
+            }
+            if (task.getType() != Type.EPIC && task.getStartTime() != null) {
+                timed.add(task);
+            }
+        }
+        timed.sort(Comparator.comparing(Task::getStartTime));
+        LocalDateTime maxEnd = null;
+        for (Task task : timed) {
+            LocalDateTime start = task.getStartTime();
+            LocalDateTime end = task.getEndTime();
+            if (maxEnd != null && !start.isAfter(maxEnd)) {
+                return task;
+            }
+            if (findOverlap(root, start, end, batchIds::contains) != null) {
+                return task;
+            }
+            maxEnd = end;
+        }
+        return null;
+    }
+
+    /**
+     * Возвращает самое раннее время start >= from, при котором окно [start, start + duration] ни с чем
+     * не пересекается и заканчивается не позже to (to == null — без ограничения), либо null.
+     * Обход идёт по порядку времени начала с отсечением поддеревьев, закончившихся до текущего
+     * кандидата, поэтому стоит O(log n + k), где k — число задач, вплотную занимающих время после from.
+     * Окно начинается не раньше чем через минуту после окончания предыдущей задачи: границы включительные.
+     */
+    public LocalDateTime findGap(LocalDateTime from, LocalDateTime to, Duration duration) {
+        GapSearch search = new GapSearch(from, to, duration);
+        findGap(root, search);
+        return search.fits() ? search.candidate : null;
+    }
+
+    /**
+     * Возвращает неизменяемый снимок задач в порядке времени начала. Первый вызов после изменения
+     * дерева собирает снимок обходом за O(n), следующие до нового изменения отдают его же. Полный список
+     * всё равно сериализуется за O(n), а снимок позволяет отдавать его без блокировки дерева на время
+     * записи ответа; при частых изменениях читать расписание дешевле страницами, см. {@link #page}.
+     */
+    public List<Task> toList() {
+        if (!snapshotValid) {
+            List<Task> result = new ArrayList<>(entries.size());
+            collect(root, result);
+            snapshot = Collections.unmodifiableList(result);
+            snapshotValid = true;
+        }
+        return snapshot;
+    }
+
+    /**
+     * Возвращает до limit задач, идущих в порядке времени начала и id строго после пары
+     * (afterStart, afterId); afterStart == null — с самой ранней задачи. Спуск к началу страницы
+     * и обход самой страницы стоят O(log n + limit), снимок всего дерева не собирается.
+     */
+    public List<Task> page(LocalDateTime afterStart, Integer afterId, int limit) {
+        List<Task> result = new ArrayList<>(Math.min(limit, entries.size()));
+        collectAfter(root, afterStart, afterId == null ? Integer.MIN_VALUE : afterId, limit, result);
+        return result;
+    }
+
+    /**
+     * Возвращает число задач, время начала которых попадает в [from, to); null — без ограничения.
+     */
+    public int countStarting(LocalDateTime from, LocalDateTime to) {
+        int end = to == null ? size(root) : countBefore(to);
+        int begin = from == null ? 0 : countBefore(from);
+        return Math.max(0, end - begin);
+    }
+
+    /**
+     * Возвращает задачи, время начала которых попадает в [from, to), в порядке времени начала
+     * за O(log n + k); null — без ограничения.
+     */
+    public List<Task> starting(LocalDateTime from, LocalDateTime to) {
+        List<Task> result = new ArrayList<>();
+        collectStarting(root, from, to, result);
+        return result;
+    }
+
+    private Entry findOverlap(Entry node, LocalDateTime start, LocalDateTime end, Predicate<Integer> excluded) {
+        if (node == null || node.maxEnd.isBefore(start)) {
+            return null;
+        }
+        Entry found = findOverlap(node.left, start, end, excluded);
+        if (found != null) {
+            return found;
+        }
+        if (node.start.isAfter(end)) {
+            return null;
+        }
+        if (!node.end.isBefore(start) && !excluded.test(node.id)) {
+            return node;
+        }
+        return findOverlap(node.right, start, end, excluded);
+    }
+
+    private boolean findGap(Entry node, GapSearch search) {
+        if (node == null || node.maxEnd.isBefore(search.candidate)) {
+            return false;
+        }
+        if (findGap(node.left, search)) {
+            return true;
+        }
+        if (node.start.isAfter(search.candidateEnd())) {
+            return true;
+        }
+        if (!node.end.isBefore(search.candidate)) {
+            search.candidate = node.end.plusMinutes(1);
+            if (!search.fits()) {
+                return true;
+            }
+        }
+        return findGap(node.right, search);
+    }
+
+    private Entry build(Entry[] sorted, int from, int to) {
+        if (from >= to) {
+            return null;
+        }
+        int middle = (from + to) >>> 1;
+        Entry node = sorted[middle];
+        node.left = build(sorted, from, middle);
+        node.right = build(sorted, middle + 1, to);
+        update(node);
+        return node;
+    }
+
+    private void collect(Entry node, List<Task> result) {
+        if (node != null) {
+            collect(node.left, result);
+            result.add(node.task);
+            collect(node.right, result);
+        }
+    }
+
+    private void collectAfter(Entry node, LocalDateTime afterStart, int afterId, int limit, List<Task> result) {
+        if (node == null || result.size() >= limit) {
+            return;
+        }
+        if (afterStart != null && compare(node, afterStart, afterId) <= 0) {
+            collectAfter(node.right, afterStart, afterId, limit, result);
+            return;
+        }
+        collectAfter(node.left, afterStart, afterId, limit, result);
+        if (result.size() < limit) {
+            result.add(node.task);
+            collectAfter(node.right, afterStart, afterId, limit, result);
+        }
+    }
+
+    private int countBefore(LocalDateTime time) {
+        int count = 0;
+        Entry node = root;
+        while (node != null) {
+            if (node.start.isBefore(time)) {
+                count += size(node.left) + 1;
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return count;
+    }
+
+    private void collectStarting(Entry node, LocalDateTime from, LocalDateTime to, List<Task> result) {
+        if (node == null) {
+            return;
+        }
+        boolean afterFrom = from == null || !node.start.isBefore(from);
+        boolean beforeTo = to == null || node.start.isBefore(to);
+        if (afterFrom) {
+            collectStarting(node.left, from, to, result);
+        }
+        if (afterFrom && beforeTo) {
+            result.add(node.task);
+        }
+        if (beforeTo) {
+            collectStarting(node.right, from, to, result);
+        }
+    }
+
+    private Entry insert(Entry node, Entry entry) {
+        if (node == null) {
+            return entry;
+        }
+        if (compare(entry, node) < 0) {
+            node.left = insert(node.left, entry);
+        } else {
+            node.right = insert(node.right, entry);
+        }
+        return balance(node);
+    }
+
+    private Entry delete(Entry node, Entry entry) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = compare(entry, node);
+        if (cmp < 0) {
+            node.left = delete(node.left, entry);
+        } else if (cmp > 0) {
+            node.right = delete(node.right, entry);
+        } else {
+            if (node.left == null) {
+                return node.right;
+            }
+            if (node.right == null) {
+                return node.left;
+            }
+            Entry successor = node.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            successor.right = deleteMin(node.right);
+            successor.left = node.left;
+            node = successor;
+        }
+        return balance(node);
+    }
+
+    private Entry deleteMin(Entry node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        node.left = deleteMin(node.left);
+        return balance(node);
+    }
+
+    private Entry balance(Entry node) {
+        update(node);
+        int factor = height(node.left) - height(node.right);
+        if (factor > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (factor < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private Entry rotateRight(Entry node) {
+        Entry left = node.left;
+        node.left = left.right;
+        left.right = node;
+        update(node);
+        update(left);
+        return left;
+    }
+
+    private Entry rotateLeft(Entry node) {
+        Entry right = node.right;
+        node.right = right.left;
+        right.left = node;
+        update(node);
+        update(right);
+        return right;
+    }
+
+    private void update(Entry node) {
+        node.height = Math.max(height(node.left), height(node.right)) + 1;
+        node.size = size(node.left) + size(node.right) + 1;
+        node.maxEnd = node.end;
+        if (node.left != null && node.left.maxEnd.isAfter(node.maxEnd)) {
+            node.maxEnd = node.left.maxEnd;
+        }
+        if (node.right != null && node.right.maxEnd.isAfter(node.maxEnd)) {
+            node.maxEnd = node.right.maxEnd;
+        }
+    }
+
+    private static int height(Entry node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static int size(Entry node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static int compare(Entry a, Entry b) {
+        int cmp = a.start.compareTo(b.start);
+        return cmp != 0 ? cmp : Integer.compare(a.id, b.id);
+    }
+
+    private static int compare(Entry entry, LocalDateTime start, int id) {
+        int cmp = entry.start.compareTo(start);
+        return cmp != 0 ? cmp : Integer.compare(entry.id, id);
+    }
+
+    private static class Entry {
+        private final Task task;
+        private final Integer id;
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+        private LocalDateTime maxEnd;
+        private int height = 1;
+        private int size = 1;
+        private Entry left;
+        private Entry right;
+
+        private Entry(Task task) {
+            this.task = task;
+            this.id = task.getId();
+            this.start = task.getStartTime();
+            this.end = task.getEndTime();
+            this.maxEnd = end;
+        }
+    }
+
+    private static class GapSearch {
+        private final LocalDateTime limit;
+        private final Duration duration;
+        private LocalDateTime candidate;
+
+        private GapSearch(LocalDateTime from, LocalDateTime limit, Duration duration) {
+            this.candidate = from;
+            this.limit = limit;
+            this.duration = duration;
+        }
+
+        private LocalDateTime candidateEnd() {
+            return candidate.plus(duration);
+        }
+
+        private boolean fits() {
+            return limit == null || !candidateEnd().isAfter(limit);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package ru.practicum.tasktracker.manager;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Построчное чтение UTF-8 потока CSV без BufferedReader: поток читается в буфер фиксированного размера,
+ * а строка декодируется прямо из него, поэтому в памяти одновременно находятся только буфер и одна запись.
+ * Перевод строки внутри поля в кавычках запись не завершает. Пустые строки и завершающий '\r' пропускаются.
+ */
+public final class LineScanner {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private LineScanner() {
+    }
+
+    /**
+     * Передаёт в action каждую запись потока. При skipUnterminated последняя запись без перевода строки
+     * считается оборванной и пропускается.
+     * Возвращает число байт потока до конца последней прочитанной полной записи.
+     */
+    public static long forEachRecord(InputStream in, boolean skipUnterminated, Consumer<String> action)
+            throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        byte[] carry = new byte[0];
+        int carried = 0;
+        boolean quoted = false;
+        long position = 0;
+        long complete = 0;
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            int from = 0;
+            for (int i = 0; i < read; i++) {
+                if (buffer[i] == '"') {
+                    quoted = !quoted;
+                }
+                if (buffer[i] != '\n' || quoted) {
+                    continue;
+                }
+                if (carried == 0) {
+                    emit(buffer, from, i, action);
+                } else {
+                    carry = append(carry, carried, buffer, from, i);
+                    emit(carry, 0, carried + i - from, action);
+                    carried = 0;
+                }
+                from = i + 1;
+                complete = position + from;
+            }
+            if (from < read) {
+                carry = append(carry, carried, buffer, from, read);
+                carried += read - from;
+            }
+            position += read;
+        }
+        if (carried > 0 && !skipUnterminated) {
+            emit(carry, 0, carried, action);
+            complete = position;
+        }
+        return complete;
+    }
+
+    private static byte[] append(byte[] carry, int carried, byte[] buffer, int from, int to) {
+        int length = to - from;
+        if (carry.length < carried + length) {
+            carry = Arrays.copyOf(carry, Math.max(carried + length, carry.length * 2));
+        }
+        System.arraycopy(buffer, from, carry, carried, length);
+        return carry;
+    }
+
+    private static void emit(byte[] bytes, int from, int to, Consumer<String> action) {
+        if (to > from && bytes[to - 1] == '\r') {
+            to--;
+        }
+        if (to > from) {
+            action.accept(new String(bytes, from, to - from, StandardCharsets.UTF_8));
+        }
+    }
+}
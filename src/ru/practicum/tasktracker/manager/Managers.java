@@ -3,25 +3,49 @@ package ru.practicum.tasktracker.manager;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import ru.practicum.tasktracker.http.adapter.DurationAdapter;
+import ru.practicum.tasktracker.http.adapter.EpicAdapter;
 import ru.practicum.tasktracker.http.adapter.LocalDateTimeAdapter;
+import ru.practicum.tasktracker.http.adapter.SubtaskAdapter;
+import ru.practicum.tasktracker.http.adapter.TaskAdapter;
+import ru.practicum.tasktracker.task.Epic;
+import ru.practicum.tasktracker.task.Subtask;
+import ru.practicum.tasktracker.task.Task;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
 
 public class Managers {
 
+    private static final Gson GSON = createGson();
+
     public static TaskManager getInMemoryTaskManager() {
         return new InMemoryTaskManager();
     }
 
+    public static TaskManager getConcurrentTaskManager() {
+        return new ConcurrentTaskManager();
+    }
+
     public static HistoryManager getDefaultHistory() {
         return new InMemoryHistoryManager();
     }
 
+    /**
+     * Возвращает общий экземпляр Gson. Он потокобезопасен и собирается один раз, а задачи, эпики
+     * и подзадачи сериализуются собственными адаптерами без рефлексии.
+     */
     public static Gson getGson() {
+        return GSON;
+    }
+
+    private static Gson createGson() {
+        SubtaskAdapter subtaskAdapter = new SubtaskAdapter();
         GsonBuilder builder = new GsonBuilder();
         builder.registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter());
         builder.registerTypeAdapter(Duration.class, new DurationAdapter());
+        builder.registerTypeAdapter(Task.class, new TaskAdapter());
+        builder.registerTypeAdapter(Subtask.class, subtaskAdapter);
+        builder.registerTypeAdapter(Epic.class, new EpicAdapter(subtaskAdapter));
         return builder.create();
     }
 }
\ No newline at end of file
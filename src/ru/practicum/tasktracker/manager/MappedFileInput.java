@@ -0,0 +1,78 @@
+package ru.practicum.tasktracker.manager;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Поток чтения участка файла через FileChannel.map. Файл отображается окнами по {@link #WINDOW_SIZE} байт,
+ * так что размер файла не ограничен 2 ГБ одного MappedByteBuffer, а данные читаются из страничного кэша
+ * без системного вызова на каждую порцию и без копии файла в куче.
+ * Канал закрывает вызывающий код.
+ */
+public class MappedFileInput extends InputStream {
+
+    static final long WINDOW_SIZE = 64L * 1024 * 1024;
+
+    private final FileChannel channel;
+    private final long limit;
+    private long position;
+    private MappedByteBuffer window;
+
+    public MappedFileInput(FileChannel channel) throws IOException {
+        this(channel, 0, channel.size());
+    }
+
+    /**
+     * Читает байты файла с позиции from (включительно) до to (не включительно).
+     */
+    public MappedFileInput(FileChannel channel, long from, long to) {
+        this.channel = channel;
+        this.position = from;
+        this.limit = to;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!ensureWindow()) {
+            return -1;
+        }
+        return window.get() & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        if (!ensureWindow()) {
+            return -1;
+        }
+        int count = Math.min(length, window.remaining());
+        window.get(buffer, offset, count);
+        return count;
+    }
+
+    @Override
+    public int available() {
+        return (int) Math.min(Integer.MAX_VALUE, remaining());
+    }
+
+    private long remaining() {
+        return limit - position + (window == null ? 0 : window.remaining());
+    }
+
+    private boolean ensureWindow() throws IOException {
+        if (window != null && window.hasRemaining()) {
+            return true;
+        }
+        if (position >= limit) {
+            return false;
+        }
+        long size = Math.min(WINDOW_SIZE, limit - position);
+        window = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+        position += size;
+        return true;
+    }
+}
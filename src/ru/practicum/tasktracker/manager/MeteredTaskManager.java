@@ -0,0 +1,262 @@
+package ru.practicum.tasktracker.manager;
+
+import ru.practicum.tasktracker.enums.Type;
+import ru.practicum.tasktracker.metrics.LatencyHistogram;
+import ru.practicum.tasktracker.metrics.MetricsRegistry;
+import ru.practicum.tasktracker.task.Epic;
+import ru.practicum.tasktracker.task.Subtask;
+import ru.practicum.tasktracker.task.Task;
+import ru.practicum.tasktracker.task.TimeSlot;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Менеджер-обёртка, который замеряет время каждой операции другого менеджера и пишет его в гистограмму
+ * task_manager_operation_duration_seconds с меткой operation — именем метода. Операции, завершившиеся
+ * исключением, тоже учитываются. Номера изменений и подписка на события передаются без замера:
+ * это чтение поля, а не операция над задачами.
+ */
+public class MeteredTaskManager implements TaskManager {
+
+    public static final String OPERATION_DURATION = "task_manager_operation_duration_seconds";
+
+    private final TaskManager delegate;
+    private final MetricsRegistry metrics;
+    private final Map<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+
+    public MeteredTaskManager(TaskManager delegate, MetricsRegistry metrics) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+    }
+
+    public TaskManager getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public Task getTask(int id) {
+        return timed("getTask", () -> delegate.getTask(id));
+    }
+
+    @Override
+    public Epic getEpic(int id) {
+        return timed("getEpic", () -> delegate.getEpic(id));
+    }
+
+    @Override
+    public Subtask getSubtask(int id) {
+        return timed("getSubtask", () -> delegate.getSubtask(id));
+    }
+
+    @Override
+    public List<Task> getTasks() {
+        return timed("getTasks", () -> delegate.getTasks());
+    }
+
+    @Override
+    public List<Epic> getEpics() {
+        return timed("getEpics", () -> delegate.getEpics());
+    }
+
+    @Override
+    public List<Subtask> getSubtasks() {
+        return timed("getSubtasks", () -> delegate.getSubtasks());
+    }
+
+    @Override
+    public List<Task> getTasks(Integer afterId, int limit) {
+        return timed("getTasks", () -> delegate.getTasks(afterId, limit));
+    }
+
+    @Override
+    public List<Epic> getEpics(Integer afterId, int limit) {
+        return timed("getEpics", () -> delegate.getEpics(afterId, limit));
+    }
+
+    @Override
+    public List<Subtask> getSubtasks(Integer afterId, int limit) {
+        return timed("getSubtasks", () -> delegate.getSubtasks(afterId, limit));
+    }
+
+    @Override
+    public List<Task> findTasks(TaskQuery query) {
+        return timed("findTasks", () -> delegate.findTasks(query));
+    }
+
+    @Override
+    public List<Task> search(String query, int limit) {
+        return timed("search", () -> delegate.search(query, limit));
+    }
+
+    @Override
+    public long getVersion() {
+        return delegate.getVersion();
+    }
+
+    @Override
+    public long getVersion(Type type) {
+        return delegate.getVersion(type);
+    }
+
+    @Override
+    public void addChangeListener(TaskChangeListener listener) {
+        delegate.addChangeListener(listener);
+    }
+
+    @Override
+    public void removeChangeListener(TaskChangeListener listener) {
+        delegate.removeChangeListener(listener);
+    }
+
+    @Override
+    public Task createTask(Task task) {
+        return timed("createTask", () -> delegate.createTask(task));
+    }
+
+    @Override
+    public Epic createEpic(Epic epic) {
+        return timed("createEpic", () -> delegate.createEpic(epic));
+    }
+
+    @Override
+    public Subtask createSubtask(Subtask subtask) {
+        return timed("createSubtask", () -> delegate.createSubtask(subtask));
+    }
+
+    @Override
+    public Task updateTask(Task task) {
+        return timed("updateTask", () -> delegate.updateTask(task));
+    }
+
+    @Override
+    public Epic updateEpic(Epic epic) {
+        return timed("updateEpic", () -> delegate.updateEpic(epic));
+    }
+
+    @Override
+    public Subtask updateSubtask(Subtask subtask) {
+        return timed("updateSubtask", () -> delegate.updateSubtask(subtask));
+    }
+
+    @Override
+    public List<Task> createAll(List<? extends Task> items) {
+        return timed("createAll", () -> delegate.createAll(items));
+    }
+
+    @Override
+    public List<Task> updateAll(List<? extends Task> items) {
+        return timed("updateAll", () -> delegate.updateAll(items));
+    }
+
+    @Override
+    public void deleteTasks() {
+        timed("deleteTasks", () -> delegate.deleteTasks());
+    }
+
+    @Override
+    public void deleteEpics() {
+        timed("deleteEpics", () -> delegate.deleteEpics());
+    }
+
+    @Override
+    public void deleteSubtasks() {
+        timed("deleteSubtasks", () -> delegate.deleteSubtasks());
+    }
+
+    @Override
+    public void deleteTask(int taskId) {
+        timed("deleteTask", () -> delegate.deleteTask(taskId));
+    }
+
+    @Override
+    public void deleteEpic(int epicId) {
+        timed("deleteEpic", () -> delegate.deleteEpic(epicId));
+    }
+
+    @Override
+    public void deleteSubtask(int subtaskId) {
+        timed("deleteSubtask", () -> delegate.deleteSubtask(subtaskId));
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        return timed("getHistory", () -> delegate.getHistory());
+    }
+
+    @Override
+    public List<Task> getHistory(int limit) {
+        return timed("getHistory", () -> delegate.getHistory(limit));
+    }
+
+    @Override
+    public void remove(int id) {
+        timed("remove", () -> delegate.remove(id));
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks() {
+        return timed("getPrioritizedTasks", () -> delegate.getPrioritizedTasks());
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks(LocalDateTime afterStart, Integer afterId, int limit) {
+        return timed("getPrioritizedTasks", () -> delegate.getPrioritizedTasks(afterStart, afterId, limit));
+    }
+
+    @Override
+    public TimeSlot findFreeSlot(Duration duration, LocalDateTime notBefore, LocalDateTime notAfter) {
+        return timed("findFreeSlot", () -> delegate.findFreeSlot(duration, notBefore, notAfter));
+    }
+
+    @Override
+    public void validate(Task task) {
+        timed("validate", () -> delegate.validate(task));
+    }
+
+    @Override
+    public void setEpicDateTime(int epicId) {
+        timed("setEpicDateTime", () -> delegate.setEpicDateTime(epicId));
+    }
+
+    @Override
+    public void clearPrioritizedTasks() {
+        timed("clearPrioritizedTasks", () -> delegate.clearPrioritizedTasks());
+    }
+
+    @Override
+    public void flush() {
+        timed("flush", () -> delegate.flush());
+    }
+
+    private <T> T timed(String operation, Supplier<T> call) {
+        long begin = System.nanoTime();
+        try {
+            return call.get();
+        } finally {
+            histogram(operation).record(System.nanoTime() - begin);
+        }
+    }
+
+    private void timed(String operation, Runnable call) {
+        long begin = System.nanoTime();
+        try {
+            call.run();
+        } finally {
+            histogram(operation).record(System.nanoTime() - begin);
+        }
+    }
+
+    private LatencyHistogram histogram(String operation) {
+        LatencyHistogram histogram = histograms.get(operation);
+        if (histogram == null) {
+            histogram = histograms.computeIfAbsent(operation, key -> metrics.summary(OPERATION_DURATION,
+                    "Время операций менеджера задач.", "operation", key));
+        }
+        return histogram;
+    }
+}
@@ -0,0 +1,175 @@
+package ru.practicum.tasktracker.manager;
+
+import ru.practicum.tasktracker.enums.SnapshotFormat;
+import ru.practicum.tasktracker.task.Task;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Параллельное чтение CSV-снимка на ForkJoinPool. Файл делится на равные участки, и граница каждого
+ * сдвигается к началу ближайшей записи. Перевод строки внутри поля в кавычках запись не завершает,
+ * поэтому сначала параллельно считаются кавычки в каждом участке: по чётности их суммы в предыдущих
+ * участках видно, начинается ли участок внутри кавычек. Затем участки разбираются независимо,
+ * а результаты склеиваются в порядке файла.
+ * Двоичный снимок не содержит границ записей и читается последовательно.
+ */
+public final class ParallelSnapshotReader {
+
+    static final long MIN_CHUNK_SIZE = 1024 * 1024;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private ParallelSnapshotReader() {
+    }
+
+    /**
+     * Возвращает задачи снимка в порядке записи в файле.
+     */
+    public static List<Task> read(Path file, ForkJoinPool pool) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (isBinary(channel)) {
+                List<Task> result = new ArrayList<>();
+                Snapshots.codec(SnapshotFormat.BINARY)
+                        .read(new MappedFileInput(channel), result::add);
+                return result;
+            }
+            int chunks = (int) Math.max(1, Math.min((long) pool.getParallelism() * CHUNKS_PER_THREAD,
+                    size / MIN_CHUNK_SIZE));
+            long[] starts = new long[chunks + 1];
+            for (int i = 0; i <= chunks; i++) {
+                starts[i] = size * i / chunks;
+            }
+            long[] quotes = new long[chunks];
+            invoke(pool, chunks, chunk -> quotes[chunk] = countQuotes(channel, starts[chunk], starts[chunk + 1]));
+
+            long[] boundaries = new long[chunks + 1];
+            boundaries[chunks] = size;
+            long quotesBefore = 0;
+            boolean[] quoted = new boolean[chunks];
+            for (int i = 0; i < chunks; i++) {
+                quoted[i] = quotesBefore % 2 == 1;
+                quotesBefore += quotes[i];
+            }
+            invoke(pool, chunks, chunk -> boundaries[chunk] = chunk == 0 ? 0
+                    : recordStart(channel, starts[chunk], size, quoted[chunk]));
+
+            List<List<Task>> parts = new ArrayList<>(Collections.nCopies(chunks, null));
+            invoke(pool, chunks, chunk -> parts.set(chunk, parse(channel, boundaries[chunk],
+                    boundaries[chunk + 1], chunk == 0)));
+            List<Task> result = new ArrayList<>(parts.stream().mapToInt(List::size).sum());
+            parts.forEach(result::addAll);
+            return result;
+        }
+    }
+
+    private static boolean isBinary(FileChannel channel) throws IOException {
+        ByteBuffer head = ByteBuffer.allocate(BinarySnapshotCodec.MAGIC.length);
+        return channel.read(head, 0) == head.capacity() && Arrays.equals(head.array(), BinarySnapshotCodec.MAGIC);
+    }
+
+    private static long countQuotes(FileChannel channel, long from, long to) throws IOException {
+        InputStream in = new MappedFileInput(channel, from, to);
+        byte[] buffer = new byte[BUFFER_SIZE];
+        long count = 0;
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            for (int i = 0; i < read; i++) {
+                if (buffer[i] == '"') {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /*
+     * Позиция сразу за первым переводом строки вне кавычек, начиная с from, либо конец файла.
+     */
+    private static long recordStart(FileChannel channel, long from, long size, boolean quoted) throws IOException {
+        InputStream in = new MappedFileInput(channel, from, size);
+        byte[] buffer = new byte[BUFFER_SIZE];
+        long position = from;
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            for (int i = 0; i < read; i++) {
+                if (buffer[i] == '"') {
+                    quoted = !quoted;
+                } else if (buffer[i] == '\n' && !quoted) {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    private static List<Task> parse(FileChannel channel, long from, long to, boolean header) throws IOException {
+        List<Task> result = new ArrayList<>();
+        boolean[] skip = {header};
+        LineScanner.forEachRecord(new MappedFileInput(channel, from, to), false, line -> {
+            if (skip[0]) {
+                skip[0] = false;
+            } else {
+                result.add(CSVFormatter.parse(line));
+            }
+        });
+        return result;
+    }
+
+    private static void invoke(ForkJoinPool pool, int chunks, ChunkAction action) throws IOException {
+        try {
+            pool.invoke(new ChunkTask(0, chunks, action));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private interface ChunkAction {
+        void run(int chunk) throws IOException;
+    }
+
+    /*
+     * Делит диапазон участков пополам, пока не останется один участок.
+     */
+    private static class ChunkTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final transient ChunkAction action;
+
+        private ChunkTask(int from, int to, ChunkAction action) {
+            this.from = from;
+            this.to = to;
+            this.action = action;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                try {
+                    action.run(from);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new ChunkTask(from, middle, action), new ChunkTask(middle, to, action));
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package ru.practicum.tasktracker.manager;
+
+import ru.practicum.tasktracker.enums.Durability;
+import ru.practicum.tasktracker.exceptions.ManagerSaveException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Стадия записи изменений на диск.
+ * SYNC — запись и fsync в потоке вызывающего на каждую операцию.
+ * GROUP_COMMIT — операции копятся и записываются одним сбросом с fsync, когда их набралось batchSize
+ * или с первой из них прошло interval; future операции завершается после fsync.
+ * ASYNC — то же в фоне, но без fsync: после сбоя системы можно потерять последние операции.
+ */
+public class PersistenceStage implements AutoCloseable {
+
+    /**
+     * Запись пакета накопленных записей журнала; force — нужен ли fsync.
+     */
+    @FunctionalInterface
+    public interface Writer {
+        void write(List<String> records, boolean force) throws IOException;
+    }
+
+    private final Durability durability;
+    private final long intervalNanos;
+    private final int batchSize;
+    private final Writer writer;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final Thread worker;
+    private List<Pending> pending = new ArrayList<>();
+    private long firstPendingNanos;
+    private boolean flushRequested;
+    private boolean closed;
+
+    public PersistenceStage(Durability durability, long interval, TimeUnit unit, int batchSize, Writer writer) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Размер пакета должен быть не меньше 1");
+        }
+        this.durability = durability;
+        this.intervalNanos = unit.toNanos(interval);
+        this.batchSize = batchSize;
+        this.writer = writer;
+        if (durability == Durability.SYNC) {
+            this.worker = null;
+        } else {
+            this.worker = Thread.ofPlatform().name("persistence-stage").daemon().start(this::run);
+        }
+    }
+
+    public Durability getDurability() {
+        return durability;
+    }
+
+    /**
+     * Передаёт записи одной операции на сохранение. Возвращённый future завершается, когда записи
+     * сохранены с гарантией, которую даёт режим.
+     */
+    public CompletableFuture<Void> submit(List<String> records) {
+        if (worker == null) {
+            try {
+                writer.write(records, true);
+            } catch (IOException e) {
+                throw ManagerSaveException.saveException(e);
+            }
+            return CompletableFuture.completedFuture(null);
+        }
+        return enqueue(records, false);
+    }
+
+    /**
+     * Возвращает future, который завершится, когда будут сохранены все переданные до этого записи.
+     */
+    public CompletableFuture<Void> flush() {
+        if (worker == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return enqueue(List.of(), true);
+    }
+
+    /**
+     * Сохраняет всё накопленное и останавливает фоновый поток.
+     */
+    @Override
+    public void close() {
+        if (worker == null) {
+            return;
+        }
+        CompletableFuture<Void> flushed = flush();
+        lock.lock();
+        try {
+            closed = true;
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        flushed.join();
+        try {
+            worker.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private CompletableFuture<Void> enqueue(List<String> records, boolean flush) {
+        Pending operation = new Pending(records);
+        lock.lock();
+        try {
+            if (closed) {
+                throw ManagerSaveException.saveException(new IOException("Стадия записи остановлена"));
+            }
+            if (pending.isEmpty()) {
+                firstPendingNanos = System.nanoTime();
+            }
+            pending.add(operation);
+            flushRequested |= flush;
+            if (flush || pending.size() == 1 || pending.size() >= batchSize) {
+                changed.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+        return operation.future;
+    }
+
+    private void run() {
+        while (true) {
+            List<Pending> batch;
+            lock.lock();
+            try {
+                while (pending.isEmpty() && !closed) {
+                    changed.awaitUninterruptibly();
+                }
+                if (pending.isEmpty()) {
+                    return;
+                }
+                long remaining = firstPendingNanos + intervalNanos - System.nanoTime();
+                while (!closed && !flushRequested && pending.size() < batchSize && remaining > 0) {
+                    remaining = changed.awaitNanos(remaining);
+                }
+                batch = pending;
+                pending = new ArrayList<>();
+                flushRequested = false;
+            } catch (InterruptedException e) {
+                continue;
+            } finally {
+                lock.unlock();
+            }
+            write(batch);
+        }
+    }
+
+    private void write(List<Pending> batch) {
+        List<String> records = new ArrayList<>();
+        for (Pending operation : batch) {
+            records.addAll(operation.records);
+        }
+        try {
+            writer.write(records, durability == Durability.GROUP_COMMIT);
+            batch.forEach(operation -> operation.future.complete(null));
+        } catch (Exception e) {
+            batch.forEach(operation -> operation.future.completeExceptionally(ManagerSaveException.saveException(e)));
+        }
+    }
+
+    private static class Pending {
+        private final List<String> records;
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        private Pending(List<String> records) {
+            this.records = records;
+        }
+    }
+}
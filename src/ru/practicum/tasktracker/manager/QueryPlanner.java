@@ -0,0 +1,108 @@
+package ru.practicum.tasktracker.manager;
+
+import ru.practicum.tasktracker.enums.Status;
+import ru.practicum.tasktracker.enums.Type;
+import ru.practicum.tasktracker.task.Task;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Выполняет {@link TaskQuery} по индексам менеджера. Для каждого заданного условия планировщик
+ * узнаёт точный размер выборки из соответствующего индекса (эпик → подзадачи, статус, время начала,
+ * тип) и читает самую маленькую, проверяя остальные условия на каждом кандидате. Поэтому запрос
+ * с избирательным условием стоит порядка размера результата, а не всей доски.
+ * Результат упорядочен по id, повторы одной задачи (например, в списке подзадач эпика) убираются.
+ */
+public final class QueryPlanner {
+
+    private QueryPlanner() {
+    }
+
+    /**
+     * Индексы, которые менеджер предоставляет планировщику. Размеры должны считаться за O(1) или O(log n).
+     */
+    public interface Indexes {
+        int count(Type type);
+
+        Collection<? extends Task> all(Type type);
+
+        int count(Status status);
+
+        Collection<? extends Task> withStatus(Status status);
+
+        int countStarting(LocalDateTime from, LocalDateTime to);
+
+        /**
+         * Задачи и подзадачи с временем начала в [from, to); эпики в индекс времени не входят.
+         */
+        Collection<? extends Task> starting(LocalDateTime from, LocalDateTime to);
+
+        /**
+         * Подзадачи эпика или пустой список, если эпика нет.
+         */
+        Collection<? extends Task> subtasksOf(int epicId);
+    }
+
+    public static List<Task> execute(TaskQuery query, Indexes indexes) {
+        List<Task> matched = new ArrayList<>();
+        if (query.getEpicId() != null && query.getType() != null && query.getType() != Type.SUBTASK) {
+            return matched;
+        }
+        for (Collection<? extends Task> candidates : plan(query, indexes)) {
+            for (Task task : candidates) {
+                if (query.matches(task)) {
+                    matched.add(task);
+                }
+            }
+        }
+        matched.sort(Comparator.comparing(Task::getId));
+        List<Task> result = new ArrayList<>(matched.size());
+        for (Task task : matched) {
+            if (result.isEmpty() || !result.get(result.size() - 1).getId().equals(task.getId())) {
+                result.add(task);
+            }
+        }
+        return result;
+    }
+
+    /*
+     * Возвращает наборы кандидатов самого дешёвого плана. Индекс времени не содержит эпиков, поэтому
+     * если эпики могут попасть в результат, к нему добавляется перебор эпиков.
+     */
+    private static List<Collection<? extends Task>> plan(TaskQuery query, Indexes indexes) {
+        Type type = query.getType();
+        long bestCost = Long.MAX_VALUE;
+        List<Collection<? extends Task>> best = null;
+        if (query.getEpicId() != null) {
+            Collection<? extends Task> subtasks = indexes.subtasksOf(query.getEpicId());
+            bestCost = subtasks.size();
+            best = List.of(subtasks);
+        }
+        if (query.getStatus() != null && indexes.count(query.getStatus()) < bestCost) {
+            bestCost = indexes.count(query.getStatus());
+            best = List.of(indexes.withStatus(query.getStatus()));
+        }
+        if (query.hasTimeRange() && type != Type.EPIC) {
+            long cost = indexes.countStarting(query.getFrom(), query.getTo());
+            if (type == null) {
+                cost += indexes.count(Type.EPIC);
+            }
+            if (cost < bestCost) {
+                bestCost = cost;
+                Collection<? extends Task> starting = indexes.starting(query.getFrom(), query.getTo());
+                best = type == null ? List.of(starting, indexes.all(Type.EPIC)) : List.of(starting);
+            }
+        }
+        if (type != null && indexes.count(type) < bestCost) {
+            best = List.of(indexes.all(type));
+        }
+        if (best == null) {
+            best = List.of(indexes.all(Type.TASK), indexes.all(Type.EPIC), indexes.all(Type.SUBTASK));
+        }
+        return best;
+    }
+}
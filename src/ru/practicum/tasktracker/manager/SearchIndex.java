@@ -0,0 +1,279 @@
+package ru.practicum.tasktracker.manager;
+
+import ru.practicum.tasktracker.task.Task;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+
+/**
+ * Инвертированный индекс по названию и описанию задач. Текст делится на слова по символам, которые
+ * не являются буквой или цифрой, и приводится к нижнему регистру. Для каждого слова хранится
+ * отсортированный массив id задач, а для каждой задачи — её слова, чтобы обновление и удаление
+ * не требовали повторного разбора старого текста.
+ * Точное слово ищется по хешу, слова с заданным префиксом — по отсортированному словарю, который
+ * меняется только при появлении нового или исчезновении последнего вхождения слова.
+ * Класс не потокобезопасен.
+ */
+public class SearchIndex implements TextIndex {
+
+    private static final int NOT_FOUND = Integer.MAX_VALUE;
+
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final TreeMap<String, Postings> sortedTerms = new TreeMap<>();
+    private final IntObjectMap<String[]> documents = new IntObjectMap<>();
+
+    @Override
+    public void put(Task task) {
+        remove(task.getId());
+        List<String> tokens = new ArrayList<>();
+        tokenize(task.getName(), tokens);
+        tokenize(task.getDescription(), tokens);
+        if (tokens.isEmpty()) {
+            return;
+        }
+        String[] terms = new String[tokens.size()];
+        int count = 0;
+        for (String token : tokens) {
+            Postings list = postings.get(token);
+            if (list == null) {
+                list = new Postings(token);
+                postings.put(token, list);
+                sortedTerms.put(token, list);
+            }
+            if (list.add(task.getId())) {
+                terms[count++] = list.term;
+            }
+        }
+        documents.put(task.getId(), count == terms.length ? terms : Arrays.copyOf(terms, count));
+    }
+
+    @Override
+    public void remove(Integer id) {
+        String[] terms = documents.remove(id);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            Postings list = postings.get(term);
+            list.remove(id);
+            if (list.size == 0) {
+                postings.remove(term);
+                sortedTerms.remove(term);
+            }
+        }
+    }
+
+    /**
+     * Возвращает до limit id задач по возрастанию, в тексте которых есть все слова запроса; последнее
+     * слово запроса ищется как префикс. Списки id пересекаются перескоками с двоичным поиском, а списки
+     * слов одного префикса сливаются лениво через очередь, поэтому поиск останавливается, набрав limit
+     * результатов. Построение очереди стоит O(t log t), где t — число слов с этим префиксом.
+     */
+    @Override
+    public int[] search(String query, int limit) {
+        List<String> tokens = new ArrayList<>(new LinkedHashSet<>(tokenize(query, new ArrayList<>())));
+        if (tokens.isEmpty()) {
+            return new int[0];
+        }
+        Cursor[] cursors = new Cursor[tokens.size()];
+        for (int i = 0; i < tokens.size(); i++) {
+            boolean prefix = i == tokens.size() - 1;
+            Cursor cursor = prefix ? prefixCursor(tokens.get(i)) : termCursor(tokens.get(i));
+            if (cursor == null) {
+                return new int[0];
+            }
+            cursors[i] = cursor;
+        }
+        int[] found = new int[Math.min(limit, 1024)];
+        int count = 0;
+        int candidate = Integer.MIN_VALUE;
+        while (count < limit) {
+            boolean matched = true;
+            for (Cursor cursor : cursors) {
+                int current = cursor.advance(candidate);
+                if (current == NOT_FOUND) {
+                    return Arrays.copyOf(found, count);
+                }
+                if (current != candidate) {
+                    candidate = current;
+                    matched = false;
+                }
+            }
+            if (matched) {
+                if (count == found.length) {
+                    found = Arrays.copyOf(found, Math.min(limit, found.length * 2));
+                }
+                found[count++] = candidate;
+                if (candidate == Integer.MAX_VALUE - 1) {
+                    break;
+                }
+                candidate++;
+            }
+        }
+        return Arrays.copyOf(found, count);
+    }
+
+    public int termCount() {
+        return postings.size();
+    }
+
+    public int documentCount() {
+        return documents.size();
+    }
+
+    private Cursor termCursor(String term) {
+        Postings list = postings.get(term);
+        return list == null ? null : new PostingsCursor(list);
+    }
+
+    private Cursor prefixCursor(String prefix) {
+        Collection<Postings> lists = sortedTerms.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values();
+        if (lists.isEmpty()) {
+            return null;
+        }
+        if (lists.size() == 1) {
+            return new PostingsCursor(lists.iterator().next());
+        }
+        return new UnionCursor(lists);
+    }
+
+    private static List<String> tokenize(String text, List<String> tokens) {
+        if (text == null) {
+            return tokens;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(fold(text, start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    private static String fold(String text, int from, int to) {
+        char[] chars = new char[to - from];
+        for (int i = from; i < to; i++) {
+            chars[i - from] = Character.toLowerCase(text.charAt(i));
+        }
+        return new String(chars);
+    }
+
+    /*
+     * Отсортированный по возрастанию массив id. Новые задачи получают растущие id, поэтому добавление
+     * почти всегда дописывает в конец; удаление сдвигает хвост массива.
+     */
+    private static class Postings {
+        private final String term;
+        private int[] ids = new int[2];
+        private int size;
+
+        private Postings(String term) {
+            this.term = term;
+        }
+
+        /*
+         * Возвращает false, если id уже есть: так повтор слова в тексте одной задачи отсекается без
+         * отдельного множества слов.
+         */
+        private boolean add(int id) {
+            if (size > 0 && ids[size - 1] >= id) {
+                int at = Arrays.binarySearch(ids, 0, size, id);
+                if (at >= 0) {
+                    return false;
+                }
+                insert(-at - 1, id);
+                return true;
+            }
+            insert(size, id);
+            return true;
+        }
+
+        private void insert(int at, int id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, ids.length * 2);
+            }
+            System.arraycopy(ids, at, ids, at + 1, size - at);
+            ids[at] = id;
+            size++;
+        }
+
+        private void remove(int id) {
+            int at = Arrays.binarySearch(ids, 0, size, id);
+            if (at >= 0) {
+                System.arraycopy(ids, at + 1, ids, at, size - at - 1);
+                size--;
+            }
+        }
+    }
+
+    private interface Cursor {
+        /**
+         * Переходит к первому id не меньше target и возвращает его либо NOT_FOUND.
+         */
+        int advance(int target);
+    }
+
+    private static class PostingsCursor implements Cursor {
+        private final Postings list;
+        private int position;
+
+        private PostingsCursor(Postings list) {
+            this.list = list;
+        }
+
+        private int current() {
+            return position < list.size ? list.ids[position] : NOT_FOUND;
+        }
+
+        @Override
+        public int advance(int target) {
+            if (current() >= target) {
+                return current();
+            }
+            int step = 1;
+            int low = position;
+            int high = position + 1;
+            while (high < list.size && list.ids[high] < target) {
+                low = high;
+                step <<= 1;
+                high = position + step;
+            }
+            int at = Arrays.binarySearch(list.ids, low, Math.min(high + 1, list.size), target);
+            position = at >= 0 ? at : -at - 1;
+            return current();
+        }
+    }
+
+    private static class UnionCursor implements Cursor {
+        private final PriorityQueue<PostingsCursor> queue =
+                new PriorityQueue<>((a, b) -> Integer.compare(a.current(), b.current()));
+
+        private UnionCursor(Collection<Postings> lists) {
+            for (Postings list : lists) {
+                queue.add(new PostingsCursor(list));
+            }
+        }
+
+        @Override
+        public int advance(int target) {
+            while (!queue.isEmpty() && queue.peek().current() < target) {
+                PostingsCursor cursor = queue.poll();
+                if (cursor.advance(target) != NOT_FOUND) {
+                    queue.add(cursor);
+                }
+            }
+            return queue.isEmpty() ? NOT_FOUND : queue.peek().current();
+        }
+    }
+}
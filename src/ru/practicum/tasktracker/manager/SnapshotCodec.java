@@ -0,0 +1,22 @@
+package ru.practicum.tasktracker.manager;
+
+import ru.practicum.tasktracker.task.Task;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Формат файла снимка FileBackedTaskManager. Кодек не закрывает переданные ему потоки.
+ */
+public interface SnapshotCodec {
+
+    void write(List<Task> tasks, OutputStream out) throws IOException;
+
+    /**
+     * Читает задачи снимка и передаёт их в sink в порядке записи.
+     */
+    void read(InputStream in, Consumer<Task> sink) throws IOException;
+}
@@ -0,0 +1,82 @@
+package ru.practicum.tasktracker.manager;
+
+import ru.practicum.tasktracker.enums.SnapshotFormat;
+import ru.practicum.tasktracker.task.Task;
+
+import java.io.BufferedInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+
+/**
+ * Выбор кодека снимка и перевод снимков из одного формата в другой. Формат существующего файла
+ * определяется по сигнатуре, поэтому менеджер читает и старые CSV-снимки, и двоичные.
+ */
+public final class Snapshots {
+
+    private static final SnapshotCodec CSV = new CsvSnapshotCodec();
+    private static final SnapshotCodec BINARY = new BinarySnapshotCodec();
+
+    private Snapshots() {
+    }
+
+    public static SnapshotCodec codec(SnapshotFormat format) {
+        return switch (format) {
+            case CSV -> CSV;
+            case BINARY -> BINARY;
+        };
+    }
+
+    /**
+     * Читает файл снимка любого поддерживаемого формата через отображение в память, передавая задачи
+     * в sink по одной: ни текст файла, ни список задач целиком в куче не собираются.
+     */
+    public static void read(Path file, Consumer<Task> sink) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            read(new MappedFileInput(channel), sink);
+        }
+    }
+
+    /**
+     * Читает файл снимка любого поддерживаемого формата целиком, разбирая CSV параллельно на pool.
+     */
+    public static List<Task> readAll(Path file, ForkJoinPool pool) throws IOException {
+        return ParallelSnapshotReader.read(file, pool);
+    }
+
+    /**
+     * Читает снимок любого поддерживаемого формата.
+     */
+    public static void read(InputStream in, Consumer<Task> sink) throws IOException {
+        BufferedInputStream buffered = new BufferedInputStream(in);
+        buffered.mark(BinarySnapshotCodec.MAGIC.length);
+        byte[] head = buffered.readNBytes(BinarySnapshotCodec.MAGIC.length);
+        buffered.reset();
+        SnapshotCodec codec = Arrays.equals(head, BinarySnapshotCodec.MAGIC) ? BINARY : CSV;
+        codec.read(buffered, sink);
+    }
+
+    /**
+     * Переписывает снимок source в формате format в файл target. Источник может быть в любом формате.
+     */
+    public static void convert(Path source, Path target, SnapshotFormat format) throws IOException {
+        List<Task> tasks = new ArrayList<>();
+        read(source, tasks::add);
+        Path tempFile = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(tempFile.toFile())) {
+            codec(format).write(tasks, out);
+            out.getFD().sync();
+        }
+        Files.move(tempFile, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
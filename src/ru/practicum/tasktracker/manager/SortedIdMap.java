@@ -0,0 +1,15 @@
+package ru.practicum.tasktracker.manager;
+
+import java.util.List;
+
+/**
+ * IdMap, который умеет отдавать значения страницами в порядке возрастания ключей.
+ */
+public interface SortedIdMap<V> extends IdMap<V> {
+
+    /**
+     * Возвращает до limit значений с ключами больше afterKey в порядке возрастания ключей
+     * (afterKey == null — с наименьшего ключа).
+     */
+    List<V> valuesAfter(Integer afterKey, int limit);
+}
@@ -0,0 +1,105 @@
+package ru.practicum.tasktracker.manager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * IntObjectMap с дополнительным упорядоченным массивом ключей для постраничного чтения.
+ * Значения по-прежнему ищутся по хешу за O(1), а страница после заданного ключа находится двоичным
+ * поиском по массиву int без упаковки ключей и берётся за O(log n + limit).
+ * Id выдаются по возрастанию, поэтому новый ключ обычно просто дописывается в конец массива.
+ * Удалённые ключи остаются в массиве и пропускаются при чтении, пока их не станет больше живых:
+ * тогда массив уплотняется за O(n), что в среднем даёт O(1) на удаление. Ключ меньше последнего
+ * тоже дописывается в конец, а массив сортируется перед следующим чтением страницы.
+ */
+public class SortedIntObjectMap<V> extends IntObjectMap<V> implements SortedIdMap<V> {
+
+    private static final int MIN_CAPACITY = 8;
+    private static final int MIN_DEAD_KEYS = 16;
+
+    private int[] sortedKeys = new int[MIN_CAPACITY];
+    private int keyCount;
+    private boolean sorted = true;
+
+    @Override
+    public V put(int key, V value) {
+        V previous = super.put(key, value);
+        if (previous == null) {
+            if (keyCount > 0 && key <= sortedKeys[keyCount - 1]) {
+                sorted = false;
+            }
+            if (keyCount == sortedKeys.length) {
+                sortedKeys = Arrays.copyOf(sortedKeys, keyCount * 2);
+            }
+            sortedKeys[keyCount++] = key;
+        }
+        return previous;
+    }
+
+    @Override
+    public V remove(int key) {
+        V previous = super.remove(key);
+        if (previous != null && keyCount - size() > Math.max(MIN_DEAD_KEYS, size())) {
+            compactKeys();
+        }
+        return previous;
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        sortedKeys = new int[MIN_CAPACITY];
+        keyCount = 0;
+        sorted = true;
+    }
+
+    @Override
+    public List<V> valuesAfter(Integer afterKey, int limit) {
+        if (!sorted) {
+            compactKeys();
+        }
+        int from = 0;
+        if (afterKey != null) {
+            int position = Arrays.binarySearch(sortedKeys, 0, keyCount, afterKey);
+            from = position >= 0 ? position + 1 : -position - 1;
+        }
+        List<V> result = new ArrayList<>(Math.min(limit, size()));
+        for (int i = from; i < keyCount && result.size() < limit; i++) {
+            V value = get(sortedKeys[i]);
+            if (value != null) {
+                result.add(value);
+            }
+        }
+        return result;
+    }
+
+    /*
+     * Оставляет в массиве только живые ключи, по одному разу и по возрастанию. Повтор возможен, если
+     * ключ удалили и добавили снова до уплотнения; тогда он меньше последнего и массив помечен
+     * неотсортированным.
+     */
+    private void compactKeys() {
+        int live = 0;
+        for (int i = 0; i < keyCount; i++) {
+            if (containsKey(sortedKeys[i])) {
+                sortedKeys[live++] = sortedKeys[i];
+            }
+        }
+        if (!sorted) {
+            Arrays.sort(sortedKeys, 0, live);
+            int unique = 0;
+            for (int i = 0; i < live; i++) {
+                if (unique == 0 || sortedKeys[i] != sortedKeys[unique - 1]) {
+                    sortedKeys[unique++] = sortedKeys[i];
+                }
+            }
+            live = unique;
+            sorted = true;
+        }
+        keyCount = live;
+        if (sortedKeys.length > MIN_CAPACITY && keyCount < sortedKeys.length / 4) {
+            sortedKeys = Arrays.copyOf(sortedKeys, Math.max(MIN_CAPACITY, keyCount * 2));
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package ru.practicum.tasktracker.manager;
+
+import ru.practicum.tasktracker.enums.Status;
+import ru.practicum.tasktracker.enums.Type;
+import ru.practicum.tasktracker.task.Task;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Вторичный индекс задач, эпиков и подзадач по статусу со счётчиками по парам (статус, тип), так что
+ * размер выборки по статусу или по типу известен за O(1). Задачи без статуса в индекс не попадают.
+ * Статус запоминается при индексации: если задачу изменили без повторного put, она остаётся под
+ * старым статусом, поэтому выборку из индекса нужно перепроверять. Таблицы и счётчики потокобезопасны,
+ * так что индекс годится и для ConcurrentTaskManager, где одну задачу индексирует только владелец
+ * её блокировки.
+ */
+public class StatusIndex {
+
+    private static final int TYPES = Type.values().length;
+
+    private final Map<Status, Map<Integer, Task>> byStatus = new EnumMap<>(Status.class);
+    private final AtomicIntegerArray counts = new AtomicIntegerArray(Status.values().length * TYPES);
+
+    public StatusIndex() {
+        for (Status status : Status.values()) {
+            byStatus.put(status, new ConcurrentHashMap<>());
+        }
+    }
+
+    public void put(Task task) {
+        remove(task.getId());
+        if (task.getStatus() != null) {
+            byStatus.get(task.getStatus()).put(task.getId(), task);
+            counts.incrementAndGet(slot(task.getStatus(), task.getType()));
+        }
+    }
+
+    public void remove(Integer id) {
+        for (Map.Entry<Status, Map<Integer, Task>> entry : byStatus.entrySet()) {
+            Task removed = entry.getValue().remove(id);
+            if (removed != null) {
+                counts.decrementAndGet(slot(entry.getKey(), removed.getType()));
+            }
+        }
+    }
+
+    public int count(Status status) {
+        int count = 0;
+        for (int type = 0; type < TYPES; type++) {
+            count += counts.get(status.ordinal() * TYPES + type);
+        }
+        return count;
+    }
+
+    public int count(Type type) {
+        int count = 0;
+        for (Status status : Status.values()) {
+            count += counts.get(slot(status, type));
+        }
+        return count;
+    }
+
+    public Collection<Task> get(Status status) {
+        return Collections.unmodifiableCollection(byStatus.get(status).values());
+    }
+
+    private static int slot(Status status, Type type) {
+        return status.ordinal() * TYPES + type.ordinal();
+    }
+}
@@ -0,0 +1,111 @@
+package ru.practicum.tasktracker.manager;
+
+import ru.practicum.tasktracker.task.Task;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Потокобезопасный поисковый индекс из нескольких SearchIndex, между которыми задачи делятся
+ * по остатку от деления id. У каждой полосы своя блокировка, поэтому запись задач из разных полос
+ * не ждёт друг друга, а подряд выданные id попадают в разные полосы.
+ * Поиск опрашивает полосы по очереди, берёт из каждой до limit id и сливает их по возрастанию:
+ * полосы не пересекаются по id, поэтому повторов нет. Блокировка полосы держится только на время её
+ * поиска, так что ответ может не увидеть изменение, закончившееся во время поиска.
+ */
+public class StripedSearchIndex implements TextIndex {
+
+    private final SearchIndex[] indexes;
+    private final ReentrantLock[] locks;
+
+    public StripedSearchIndex(int stripes) {
+        if (stripes <= 0) {
+            throw new IllegalArgumentException("Число полос должно быть больше нуля");
+        }
+        indexes = new SearchIndex[stripes];
+        locks = new ReentrantLock[stripes];
+        for (int i = 0; i < stripes; i++) {
+            indexes[i] = new SearchIndex();
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    @Override
+    public void put(Task task) {
+        int stripe = stripe(task.getId());
+        locks[stripe].lock();
+        try {
+            indexes[stripe].put(task);
+        } finally {
+            locks[stripe].unlock();
+        }
+    }
+
+    @Override
+    public void remove(Integer id) {
+        int stripe = stripe(id);
+        locks[stripe].lock();
+        try {
+            indexes[stripe].remove(id);
+        } finally {
+            locks[stripe].unlock();
+        }
+    }
+
+    /**
+     * Возвращает до limit id задач по возрастанию; правила совпадения те же, что у SearchIndex.search.
+     */
+    @Override
+    public int[] search(String query, int limit) {
+        int[][] found = new int[indexes.length][];
+        for (int i = 0; i < indexes.length; i++) {
+            locks[i].lock();
+            try {
+                found[i] = indexes[i].search(query, limit);
+            } finally {
+                locks[i].unlock();
+            }
+        }
+        return merge(found, limit);
+    }
+
+    public int documentCount() {
+        int count = 0;
+        for (int i = 0; i < indexes.length; i++) {
+            locks[i].lock();
+            try {
+                count += indexes[i].documentCount();
+            } finally {
+                locks[i].unlock();
+            }
+        }
+        return count;
+    }
+
+    /*
+     * Слияние отсортированных массивов: на каждом шаге берётся наименьшая голова, что стоит
+     * O(limit * число полос) и не требует сортировки всех найденных id.
+     */
+    private static int[] merge(int[][] found, int limit) {
+        int total = 0;
+        for (int[] ids : found) {
+            total += ids.length;
+        }
+        int[] result = new int[Math.min(limit, total)];
+        int[] positions = new int[found.length];
+        for (int count = 0; count < result.length; count++) {
+            int min = -1;
+            for (int i = 0; i < found.length; i++) {
+                if (positions[i] < found[i].length
+                        && (min < 0 || found[i][positions[i]] < found[min][positions[min]])) {
+                    min = i;
+                }
+            }
+            result[count] = found[min][positions[min]++];
+        }
+        return result;
+    }
+
+    private int stripe(int id) {
+        return Math.floorMod(id, indexes.length);
+    }
+}
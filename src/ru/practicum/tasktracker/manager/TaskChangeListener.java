@@ -0,0 +1,15 @@
+package ru.practicum.tasktracker.manager;
+
+import ru.practicum.tasktracker.enums.Type;
+
+/**
+ * Получает события изменения менеджера: после записи или удаления задачи, эпика или подзадачи и после
+ * пересчёта статуса или времени эпика. id == null означает, что изменилась вся коллекция типа,
+ * например после массового удаления. Событие приходит, когда изменение уже видно читателям, в потоке
+ * изменяющей операции и под её блокировками, поэтому слушатель должен быть быстрым и не вызывать менеджер.
+ */
+@FunctionalInterface
+public interface TaskChangeListener {
+
+    void onChange(Type type, Integer id);
+}
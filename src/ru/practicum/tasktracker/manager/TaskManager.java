@@ -1,9 +1,13 @@
 package ru.practicum.tasktracker.manager;
 
+import ru.practicum.tasktracker.enums.Type;
 import ru.practicum.tasktracker.task.Epic;
 import ru.practicum.tasktracker.task.Subtask;
 import ru.practicum.tasktracker.task.Task;
+import ru.practicum.tasktracker.task.TimeSlot;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface TaskManager {
@@ -19,6 +23,44 @@ public interface TaskManager {
 
     List<Subtask> getSubtasks();
 
+    /**
+     * Возвращает страницу задач: до limit задач с id больше afterId в порядке возрастания id
+     * (afterId == null — первая страница). Страница стоит O(log n + limit).
+     */
+    List<Task> getTasks(Integer afterId, int limit);
+
+    List<Epic> getEpics(Integer afterId, int limit);
+
+    List<Subtask> getSubtasks(Integer afterId, int limit);
+
+    /**
+     * Возвращает задачи, эпики и подзадачи, подходящие под фильтр, в порядке id. Выборка идёт по самому
+     * избирательному из индексов (статус, время начала, подзадачи эпика, тип), а не по всей доске.
+     */
+    List<Task> findTasks(TaskQuery query);
+
+    /**
+     * Ищет по словам названия и описания без учёта регистра: возвращает до limit задач, эпиков
+     * и подзадач в порядке id, в тексте которых есть все слова запроса, последнее — как префикс.
+     */
+    List<Task> search(String query, int limit);
+
+    /**
+     * Возвращает номер изменения менеджера. Он растёт после каждой записи или удаления задачи, эпика
+     * или подзадачи, поэтому совпадение номеров означает, что с тех пор ничего не менялось.
+     */
+    long getVersion();
+
+    /**
+     * Возвращает номер изменения коллекции одного типа. Эпик считается изменённым и тогда, когда
+     * изменение его подзадач пересчитало его статус или время.
+     */
+    long getVersion(Type type);
+
+    void addChangeListener(TaskChangeListener listener);
+
+    void removeChangeListener(TaskChangeListener listener);
+
     Task createTask(Task task);
 
     Epic createEpic(Epic epic);
@@ -31,6 +73,17 @@ public interface TaskManager {
 
     Subtask updateSubtask(Subtask subtask);
 
+    /**
+     * Создаёт пакет задач, эпиков и подзадач целиком или не создаёт ничего: все проверки выполняются
+     * до первого изменения. Эпики пакета создаются первыми, поэтому подзадачи могут ссылаться на них.
+     */
+    List<Task> createAll(List<? extends Task> items);
+
+    /**
+     * Обновляет пакет задач, эпиков и подзадач целиком или не обновляет ничего.
+     */
+    List<Task> updateAll(List<? extends Task> items);
+
     void deleteTasks();
 
     void deleteEpics();
@@ -45,13 +98,32 @@ public interface TaskManager {
 
     List<Task> getHistory();
 
+    List<Task> getHistory(int limit);
+
     void remove(int id);
 
     List<Task> getPrioritizedTasks();
 
+    /**
+     * Возвращает страницу расписания: до limit задач, которые в порядке времени начала и id идут
+     * после задачи (afterStart, afterId); afterStart == null — первая страница.
+     */
+    List<Task> getPrioritizedTasks(LocalDateTime afterStart, Integer afterId, int limit);
+
+    /**
+     * Находит самое раннее свободное окно длительностью duration, которое начинается не раньше notBefore
+     * и заканчивается не позже notAfter (null — без ограничения).
+     */
+    TimeSlot findFreeSlot(Duration duration, LocalDateTime notBefore, LocalDateTime notAfter);
+
     void validate(Task task);
 
     void setEpicDateTime(int epicId);
 
     void clearPrioritizedTasks();
+
+    /**
+     * Дожидается, пока все выполненные операции будут сохранены. Менеджеры без хранилища ничего не делают.
+     */
+    void flush();
 }
\ No newline at end of file
@@ -0,0 +1,131 @@
+package ru.practicum.tasktracker.manager;
+
+import ru.practicum.tasktracker.enums.Status;
+import ru.practicum.tasktracker.enums.Type;
+import ru.practicum.tasktracker.exceptions.ValidationException;
+import ru.practicum.tasktracker.task.Task;
+
+import java.time.LocalDateTime;
+
+/**
+ * Фильтр для {@link TaskManager#findTasks(TaskQuery)}. Незаданное условие (null) не ограничивает выборку,
+ * заданные объединяются через «и». Время задаёт полуинтервал [from, to) для времени начала задачи,
+ * задачи без времени начала под такое условие не попадают. Условие epicId выбирает подзадачи эпика.
+ */
+public class TaskQuery {
+
+    private final Status status;
+    private final Type type;
+    private final LocalDateTime from;
+    private final LocalDateTime to;
+    private final Integer epicId;
+
+    private TaskQuery(Builder builder) {
+        this.status = builder.status;
+        this.type = builder.type;
+        this.from = builder.from;
+        this.to = builder.to;
+        this.epicId = builder.epicId;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public LocalDateTime getFrom() {
+        return from;
+    }
+
+    public LocalDateTime getTo() {
+        return to;
+    }
+
+    public Integer getEpicId() {
+        return epicId;
+    }
+
+    public boolean hasTimeRange() {
+        return from != null || to != null;
+    }
+
+    public boolean matches(Task task) {
+        if (status != null && task.getStatus() != status) {
+            return false;
+        }
+        if (type != null && task.getType() != type) {
+            return false;
+        }
+        if (epicId != null && (task.getType() != Type.SUBTASK || !epicId.equals(task.getEpicId()))) {
+            return false;
+        }
+        if (hasTimeRange()) {
+            LocalDateTime start = task.getStartTime();
+            if (start == null || (from != null && start.isBefore(from)) || (to != null && !start.isBefore(to))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "TaskQuery{" +
+                "status=" + status +
+                ", type=" + type +
+                ", from=" + from +
+                ", to=" + to +
+                ", epicId=" + epicId +
+                '}';
+    }
+
+    public static class Builder {
+        private Status status;
+        private Type type;
+        private LocalDateTime from;
+        private LocalDateTime to;
+        private Integer epicId;
+
+        private Builder() {
+        }
+
+        public Builder status(Status status) {
+            this.status = status;
+            return this;
+        }
+
+        public Builder type(Type type) {
+            this.type = type;
+            return this;
+        }
+
+        public Builder from(LocalDateTime from) {
+            this.from = from;
+            return this;
+        }
+
+        public Builder to(LocalDateTime to) {
+            this.to = to;
+            return this;
+        }
+
+        public Builder epicId(Integer epicId) {
+            this.epicId = epicId;
+            return this;
+        }
+
+        public TaskQuery build() {
+            if (from != null && to != null && to.isBefore(from)) {
+                throw new ValidationException("Конец интервала раньше его начала");
+            }
+            return new TaskQuery(this);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package ru.practicum.tasktracker.manager;
+
+import ru.practicum.tasktracker.task.Task;
+
+/**
+ * Полнотекстовый индекс по названию и описанию задач: SearchIndex для однопоточного менеджера
+ * и StripedSearchIndex для потокобезопасного.
+ */
+public interface TextIndex {
+
+    void put(Task task);
+
+    void remove(Integer id);
+
+    /**
+     * Возвращает до limit id задач по возрастанию.
+     */
+    int[] search(String query, int limit);
+}
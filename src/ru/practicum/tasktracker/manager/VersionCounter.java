@@ -0,0 +1,31 @@
+package ru.practicum.tasktracker.manager;
+
+import ru.practicum.tasktracker.enums.Type;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Номера изменений менеджера: общий и по коллекциям задач, эпиков и подзадач. Номера только растут,
+ * поэтому клиенту достаточно сравнить запомненный номер с текущим, чтобы узнать, менялась ли коллекция.
+ * Номер увеличивается после того, как изменение записано в хранилище: читатель, который взял номер
+ * до чтения данных, может получить данные новее номера, но не старее.
+ */
+public class VersionCounter {
+
+    private final AtomicLong version = new AtomicLong();
+    private final AtomicLongArray versions = new AtomicLongArray(Type.values().length);
+
+    public void touch(Type type) {
+        versions.incrementAndGet(type.ordinal());
+        version.incrementAndGet();
+    }
+
+    public long get() {
+        return version.get();
+    }
+
+    public long get(Type type) {
+        return versions.get(type.ordinal());
+    }
+}
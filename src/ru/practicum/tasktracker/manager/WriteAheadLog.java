@@ -0,0 +1,210 @@
+package ru.practicum.tasktracker.manager;
+
+import ru.practicum.tasktracker.enums.Type;
+import ru.practicum.tasktracker.exceptions.ManagerSaveException;
+import ru.practicum.tasktracker.task.Task;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Журнал изменений FileBackedTaskManager. Каждая операция дописывает в конец файла свои записи,
+ * по одной на строку: "+,&lt;строка CSV&gt;" — добавление или замена, "-,&lt;TYPE&gt;,&lt;id&gt;" — удаление,
+ * "*,&lt;TYPE&gt;" — удаление всех задач типа. Строка без завершающего перевода строки считается
+ * оборванной при сбое записью и при чтении пропускается, а из текущего файла она отрезается при
+ * воспроизведении журнала, чтобы следующая дозапись не склеилась с ней в одну строку.
+ * Для уплотнения текущий файл журнала можно закрыть: он переименовывается в сегмент &lt;журнал&gt;.&lt;N&gt;,
+ * а новые записи идут в новый файл. Сегменты читаются перед текущим файлом в порядке номеров.
+ */
+public class WriteAheadLog {
+
+    public static final String UPSERT = "+";
+    public static final String DELETE = "-";
+    public static final String CLEAR = "*";
+
+    private final Path path;
+    private long generation;
+
+    public WriteAheadLog(Path path) {
+        this.path = path;
+        List<Long> generations = generations();
+        this.generation = generations.isEmpty() ? 0 : generations.getLast();
+    }
+
+    public static String upsert(Task task) {
+        StringBuilder builder = new StringBuilder(UPSERT).append(',');
+        CSVFormatter.format(task, builder);
+        return builder.toString();
+    }
+
+    public static String delete(Type type, int id) {
+        return DELETE + "," + type + "," + id;
+    }
+
+    public static String clear(Type type) {
+        return CLEAR + "," + type;
+    }
+
+    /**
+     * Дописывает записи одним вызовом write; при force дожидается их сброса на диск (fsync).
+     */
+    public void append(List<String> records, boolean force) throws IOException {
+        if (records.isEmpty()) {
+            return;
+        }
+        StringBuilder builder = new StringBuilder();
+        for (String record : records) {
+            builder.append(record).append('\n');
+        }
+        ByteBuffer buffer = StandardCharsets.UTF_8.encode(CharBuffer.wrap(builder));
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            if (force) {
+                channel.force(false);
+            }
+        }
+    }
+
+    /**
+     * Передаёт в action записи всех сегментов и текущего файла в порядке их записи, читая файлы
+     * через отображение в память по одной строке. Затем обрезает текущий файл по концу последней
+     * полной записи: вызывается при загрузке, до первой новой записи в журнал.
+     */
+    public void replay(Consumer<String> action) {
+        for (long segment : generations()) {
+            read(segmentPath(segment), action);
+        }
+        long complete = read(path, action);
+        if (complete < 0) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            if (channel.size() > complete) {
+                channel.truncate(complete);
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            throw ManagerSaveException.loadException(e);
+        }
+    }
+
+    /**
+     * Закрывает текущий файл журнала, превращая его в сегмент, и возвращает номер этого сегмента.
+     * Записи, добавленные после вызова, попадут в новый файл.
+     */
+    public long rotate() {
+        generation++;
+        try {
+            if (Files.exists(path)) {
+                Files.move(path, segmentPath(generation), StandardCopyOption.ATOMIC_MOVE);
+            }
+        } catch (IOException e) {
+            throw ManagerSaveException.saveException(e);
+        }
+        return generation;
+    }
+
+    /**
+     * Удаляет сегменты с номерами не больше upTo и возвращает их суммарный размер в байтах.
+     */
+    public long deleteSegments(long upTo) {
+        long reclaimed = 0;
+        try {
+            for (long segment : generations()) {
+                if (segment <= upTo) {
+                    Path segmentPath = segmentPath(segment);
+                    reclaimed += Files.size(segmentPath);
+                    Files.delete(segmentPath);
+                }
+            }
+        } catch (IOException e) {
+            throw ManagerSaveException.saveException(e);
+        }
+        return reclaimed;
+    }
+
+    /**
+     * Удаляет текущий файл и все сегменты.
+     */
+    public void truncate() {
+        deleteSegments(Long.MAX_VALUE);
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            throw ManagerSaveException.saveException(e);
+        }
+    }
+
+    public boolean exists() {
+        return Files.exists(path) || !generations().isEmpty();
+    }
+
+    /**
+     * Возвращает суммарный размер текущего файла и сегментов в байтах.
+     */
+    public long size() {
+        try {
+            long size = Files.exists(path) ? Files.size(path) : 0;
+            for (long segment : generations()) {
+                size += Files.size(segmentPath(segment));
+            }
+            return size;
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    /*
+     * Возвращает длину файла до конца последней полной записи или -1, если файла нет.
+     */
+    private static long read(Path file, Consumer<String> action) {
+        if (!Files.exists(file)) {
+            return -1;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return LineScanner.forEachRecord(new MappedFileInput(channel), true, action);
+        } catch (IOException e) {
+            throw ManagerSaveException.loadException(e);
+        }
+    }
+
+    private Path segmentPath(long segment) {
+        return path.resolveSibling(path.getFileName() + "." + segment);
+    }
+
+    private List<Long> generations() {
+        String prefix = path.getFileName() + ".";
+        Path directory = path.toAbsolutePath().getParent();
+        List<Long> result = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, prefix + "*")) {
+            for (Path candidate : stream) {
+                String suffix = candidate.getFileName().toString().substring(prefix.length());
+                if (!suffix.isEmpty() && suffix.chars().allMatch(Character::isDigit)) {
+                    result.add(Long.parseLong(suffix));
+                }
+            }
+        } catch (IOException e) {
+            throw ManagerSaveException.loadException(e);
+        }
+        result.sort(null);
+        return result;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+}
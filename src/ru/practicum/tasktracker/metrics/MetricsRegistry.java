@@ -0,0 +1,129 @@
+package ru.practicum.tasktracker.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Реестр метрик с выводом в текстовом формате Prometheus (version 0.0.4). Метрика — семейство с именем,
+ * описанием и типом, серии семейства различаются метками, которые передаются парами «имя, значение».
+ * Счётчики и гистограммы создаются при первом обращении и дальше обновляются без блокировок;
+ * значения, которые уже считает кто-то другой (кэш, уплотнение журнала), регистрируются функцией
+ * и читаются только при выводе.
+ * Гистограммы выводятся как summary с перцентилями 0.5, 0.99 и 0.999 в секундах.
+ */
+public class MetricsRegistry {
+
+    private static final double[] QUANTILES = {0.5, 0.99, 0.999};
+
+    private final Map<String, Family> families = new ConcurrentSkipListMap<>();
+
+    public LongAdder counter(String name, String help, String... labels) {
+        return (LongAdder) family(name, help, "counter").series.computeIfAbsent(labels(labels),
+                key -> new LongAdder());
+    }
+
+    public LatencyHistogram summary(String name, String help, String... labels) {
+        return (LatencyHistogram) family(name, help, "summary").series.computeIfAbsent(labels(labels),
+                key -> new LatencyHistogram());
+    }
+
+    /**
+     * Выводит гистограмму, которую ведёт её владелец, например менеджер задач.
+     */
+    public void summary(String name, String help, LatencyHistogram histogram, String... labels) {
+        family(name, help, "summary").series.put(labels(labels), histogram);
+    }
+
+    public void counter(String name, String help, DoubleSupplier value, String... labels) {
+        family(name, help, "counter").series.put(labels(labels), value);
+    }
+
+    public void gauge(String name, String help, DoubleSupplier value, String... labels) {
+        family(name, help, "gauge").series.put(labels(labels), value);
+    }
+
+    public String scrape() {
+        StringBuilder out = new StringBuilder();
+        for (Family family : families.values()) {
+            out.append("# HELP ").append(family.name).append(' ')
+                    .append(family.help.replace("\\", "\\\\").replace("\n", "\\n")).append('\n');
+            out.append("# TYPE ").append(family.name).append(' ').append(family.type).append('\n');
+            for (Map.Entry<String, Object> series : family.series.entrySet()) {
+                write(out, family.name, series.getKey(), series.getValue());
+            }
+        }
+        return out.toString();
+    }
+
+    private static void write(StringBuilder out, String name, String labels, Object value) {
+        if (value instanceof LongAdder counter) {
+            sample(out, name, labels, counter.sum());
+        } else if (value instanceof DoubleSupplier supplier) {
+            sample(out, name, labels, supplier.getAsDouble());
+        } else if (value instanceof LatencyHistogram histogram) {
+            for (double quantile : QUANTILES) {
+                String quantileLabel = "quantile=\"" + quantile + "\"";
+                sample(out, name, labels.isEmpty() ? quantileLabel : labels + "," + quantileLabel,
+                        seconds(histogram.getPercentileNanos(quantile)));
+            }
+            sample(out, name + "_sum", labels, seconds(histogram.getSumNanos()));
+            sample(out, name + "_count", labels, histogram.getCount());
+        }
+    }
+
+    private static void sample(StringBuilder out, String name, String labels, double value) {
+        out.append(name);
+        if (!labels.isEmpty()) {
+            out.append('{').append(labels).append('}');
+        }
+        out.append(' ');
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            out.append((long) value);
+        } else {
+            out.append(value);
+        }
+        out.append('\n');
+    }
+
+    private static double seconds(long nanos) {
+        return nanos / 1e9;
+    }
+
+    private Family family(String name, String help, String type) {
+        Family family = families.computeIfAbsent(name, key -> new Family(name, help, type));
+        if (!family.type.equals(type)) {
+            throw new IllegalArgumentException("Метрика " + name + " уже зарегистрирована с типом " + family.type);
+        }
+        return family;
+    }
+
+    private static String labels(String... labels) {
+        if (labels.length % 2 != 0) {
+            throw new IllegalArgumentException("Метки передаются парами «имя, значение»");
+        }
+        StringBuilder key = new StringBuilder();
+        for (int i = 0; i < labels.length; i += 2) {
+            if (i > 0) {
+                key.append(',');
+            }
+            key.append(labels[i]).append("=\"").append(labels[i + 1].replace("\\", "\\\\")
+                    .replace("\"", "\\\"").replace("\n", "\\n")).append('"');
+        }
+        return key.toString();
+    }
+
+    private static class Family {
+        private final String name;
+        private final String help;
+        private final String type;
+        private final Map<String, Object> series = new ConcurrentSkipListMap<>();
+
+        private Family(String name, String help, String type) {
+            this.name = name;
+            this.help = help;
+            this.type = type;
+        }
+    }
+}
@@ -6,10 +6,22 @@ import ru.practicum.tasktracker.enums.Type;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
 
 public class Epic extends Task {
-    private List<Subtask> subtaskList = new ArrayList<>();
+    /*
+     * Подзадачи хранятся по id, поэтому привязка и отвязка подзадачи стоят O(log k) без поиска по списку.
+     * По умолчанию это TreeMap; менеджер, из которого эпик читают другие потоки, переключает его
+     * на ConcurrentSkipListMap через shareBetweenThreads.
+     */
+    private transient NavigableMap<Integer, Subtask> subtasks = new TreeMap<>();
+    private transient Collection<Subtask> subtaskView = Collections.unmodifiableCollection(subtasks.values());
 
     private LocalDateTime endTime;
 
@@ -27,22 +39,52 @@ public class Epic extends Task {
         this.endTime = endTime;
     }
 
+    /**
+     * Возвращает копию списка подзадач в порядке id.
+     */
     public List<Subtask> getSubtaskList() {
-        return subtaskList;
+        return new ArrayList<>(subtasks.values());
+    }
+
+    /**
+     * Возвращает неизменяемое представление подзадач в порядке id без копирования.
+     */
+    public Collection<Subtask> getSubtasks() {
+        return subtaskView;
+    }
+
+    public void forEachSubtask(Consumer<? super Subtask> action) {
+        subtasks.values().forEach(action);
+    }
+
+    /**
+     * Переводит подзадачи эпика на ConcurrentSkipListMap, чтобы их можно было читать из других потоков
+     * во время изменения. Вызывается до публикации эпика в потокобезопасном хранилище.
+     */
+    public void shareBetweenThreads() {
+        if (!(subtasks instanceof ConcurrentSkipListMap)) {
+            subtasks = new ConcurrentSkipListMap<>(subtasks);
+            subtaskView = Collections.unmodifiableCollection(subtasks.values());
+        }
     }
 
     public void addSubtask(Subtask subtask) {
-        subtaskList.add(subtask);
+        subtasks.put(subtask.getId(), subtask);
+    }
 
+    public void removeSubtask(Integer subtaskId) {
+        subtasks.remove(subtaskId);
     }
 
     public void clearSubtasks() {
-        subtaskList.clear();
-
+        subtasks.clear();
     }
 
     public void setSubtaskList(List<Subtask> subtaskList) {
-        this.subtaskList = subtaskList;
+        subtasks.clear();
+        if (subtaskList != null) {
+            subtaskList.forEach(this::addSubtask);
+        }
     }
 
     @Override
@@ -69,7 +111,7 @@ public class Epic extends Task {
 
     @Override
     public String toString() {
-        if (subtaskList.isEmpty()) {
+        if (subtasks.isEmpty()) {
             return "Epic{" +
                     "id=" + getId() + '\'' +
                     ", name= " + getName() + '\'' +
@@ -5,11 +5,14 @@ import java.time.format.DateTimeFormatter;
 
 public class LocalDateAdapter {
 
+    public static final String PATTERN = "dd.MM.yy HH:mm";
+
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern(PATTERN);
+
     private LocalDateAdapter() {
     }
 
     public static String formatter(LocalDateTime localDateTime) {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd.MM.yy HH:mm");
-        return localDateTime.format(formatter);
+        return localDateTime.format(FORMATTER);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,54 @@
+package ru.practicum.tasktracker.task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Свободное окно в расписании: [startTime, endTime] длительностью duration.
+ */
+public class TimeSlot {
+    private final LocalDateTime startTime;
+    private final LocalDateTime endTime;
+    private final Duration duration;
+
+    public TimeSlot(LocalDateTime startTime, Duration duration) {
+        this.startTime = startTime;
+        this.endTime = startTime.plus(duration);
+        this.duration = duration;
+    }
+
+    public LocalDateTime getStartTime() {
+        return startTime;
+    }
+
+    public LocalDateTime getEndTime() {
+        return endTime;
+    }
+
+    public Duration getDuration() {
+        return duration;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        TimeSlot timeSlot = (TimeSlot) o;
+        return Objects.equals(startTime, timeSlot.startTime) && Objects.equals(duration, timeSlot.duration);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(startTime, duration);
+    }
+
+    @Override
+    public String toString() {
+        return "TimeSlot{" +
+                "startTime=" + startTime +
+                ", endTime=" + endTime +
+                ", duration=" + duration +
+                '}';
+    }
+}
@@ -0,0 +1,129 @@
+package ru.practicum.tasktracker.manager;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.tasktracker.enums.Status;
+import ru.practicum.tasktracker.exceptions.PriorityTaskException;
+import ru.practicum.tasktracker.task.Epic;
+import ru.practicum.tasktracker.task.Subtask;
+import ru.practicum.tasktracker.task.Task;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConcurrentTaskManagerTest extends TaskManagerTest<ConcurrentTaskManager> {
+    private static final int THREADS = 8;
+
+    @BeforeEach
+    void setUp() {
+        super.taskManager = new ConcurrentTaskManager();
+        initTasks();
+    }
+
+    @Test
+    void concurrentWritesKeepInvariants() throws Exception {
+        int epicsPerThread = 20;
+        int subtasksPerEpic = 25;
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            final int thread = t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int e = 0; e < epicsPerThread; e++) {
+                    Epic epic = taskManager.createEpic(new Epic("Эпик", "description", Status.NEW));
+                    for (int s = 0; s < subtasksPerEpic; s++) {
+                        long slot = ((long) thread * epicsPerThread + e) * subtasksPerEpic + s;
+                        Status status = s % 2 == 0 ? Status.NEW : Status.DONE;
+                        Subtask subtask = taskManager.createSubtask(new Subtask("Подзадача", "description",
+                                status, DATE.plusYears(1).plusMinutes(slot * 10), Duration.ofMinutes(5),
+                                epic.getId()));
+                        if (s % 5 == 0) {
+                            taskManager.getSubtask(subtask.getId());
+                            taskManager.deleteSubtask(subtask.getId());
+                        }
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        int expectedSubtasks = THREADS * epicsPerThread * (subtasksPerEpic - subtasksPerEpic / 5) + 2;
+        assertEquals(expectedSubtasks, taskManager.getSubtasks().size(), "Неверное количество подзадач");
+        assertEquals(THREADS * epicsPerThread + 1, taskManager.getEpics().size(), "Неверное количество эпиков");
+
+        Set<Integer> ids = new HashSet<>();
+        taskManager.getTasks().forEach(task -> assertTrue(ids.add(task.getId()), "Повторяющийся id"));
+        taskManager.getEpics().forEach(epic -> assertTrue(ids.add(epic.getId()), "Повторяющийся id"));
+        taskManager.getSubtasks().forEach(subtask -> assertTrue(ids.add(subtask.getId()), "Повторяющийся id"));
+
+        for (Epic epic : taskManager.getEpics()) {
+            List<Subtask> subtaskList = epic.getSubtaskList();
+            assertEquals(subtaskList.stream().allMatch(subtask -> subtask.getStatus() == Status.NEW),
+                    epic.getStatus() == Status.NEW, "Статус эпика не соответствует подзадачам");
+            subtaskList.forEach(subtask -> assertSame(subtask, taskManager.subtasks.get(subtask.getId()),
+                    "Подзадача эпика отсутствует в хранилище"));
+            subtaskList.stream()
+                    .map(Task::getStartTime)
+                    .min(Comparable::compareTo)
+                    .ifPresent(startTime -> assertEquals(startTime, epic.getStartTime(),
+                            "Время начала эпика не соответствует подзадачам"));
+        }
+
+        List<Task> prioritizedTasks = taskManager.getPrioritizedTasks();
+        assertEquals(taskManager.getTasks().size() + taskManager.getSubtasks().size(), prioritizedTasks.size(),
+                "Неверное количество задач в списке приоритизации");
+        for (int i = 1; i < prioritizedTasks.size(); i++) {
+            assertTrue(prioritizedTasks.get(i - 1).getEndTime().isBefore(prioritizedTasks.get(i).getStartTime()),
+                    "Задачи в расписании пересекаются");
+        }
+    }
+
+    @Test
+    void concurrentOverlappingTasksAcceptOnlyOne() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger created = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    taskManager.createTask(new Task("Задача", "description", Status.NEW,
+                            DATE.plusYears(2), Duration.ofMinutes(30)));
+                    created.incrementAndGet();
+                } catch (PriorityTaskException e) {
+                    rejected.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertEquals(1, created.get(), "Создано несколько пересекающихся задач");
+        assertEquals(THREADS - 1, rejected.get(), "Пересекающиеся задачи не отклонены");
+        assertEquals(2, taskManager.getTasks().size(), "Неверное количество задач");
+    }
+}
@@ -3,13 +3,40 @@ package ru.practicum.tasktracker.manager;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import ru.practicum.tasktracker.enums.Durability;
+import ru.practicum.tasktracker.enums.PersistenceMode;
+import ru.practicum.tasktracker.enums.SnapshotFormat;
+import ru.practicum.tasktracker.enums.Status;
+import ru.practicum.tasktracker.exceptions.ManagerSaveException;
+import ru.practicum.tasktracker.task.Epic;
+import ru.practicum.tasktracker.task.Subtask;
+import ru.practicum.tasktracker.task.Task;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class FileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskManager> {
+    private static final String WAL_FILE = "resources/wal-test.csv";
     File file;
 
     @BeforeEach
@@ -39,10 +66,338 @@ public class FileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskMan
                 "Несоответствие id последней добавленной задачи после чтения");
     }
 
+    @Test
+    void createAllSavesBatch() {
+        Epic epic = new Epic(10, "Эпик", "description10", Status.NEW);
+        Subtask subtask = new Subtask(11, "Подзадача", "description11", Status.NEW, DATE.plusHours(1),
+                Duration.ofMinutes(10), 10);
+        taskManager.createAll(List.of(epic, subtask));
+
+        FileBackedTaskManager fileManager = new FileBackedTaskManager("resources/test.csv");
+        fileManager.loadFromFile();
+        assertEquals(2, fileManager.epics.size(), "Эпик пакета не сохранён");
+        assertEquals(3, fileManager.subtasks.size(), "Подзадача пакета не сохранена");
+        assertEquals(List.of(11), fileManager.epics.get(10).getSubtaskList().stream().map(Subtask::getId).toList(),
+                "Подзадача пакета не привязана к эпику после чтения");
+    }
+
+    @Test
+    void walReplay() throws IOException {
+        FileBackedTaskManager walManager = new FileBackedTaskManager(WAL_FILE, PersistenceMode.WAL);
+        Epic epic = walManager.createEpic(new Epic(1, "Эпик", "description1", Status.NEW));
+        walManager.createTask(new Task(2, "Задача", "description2", Status.NEW, DATE, Duration.ofMinutes(10)));
+        walManager.createTask(new Task(3, "Задача", "description3", Status.NEW));
+        walManager.createSubtask(new Subtask(4, "Подзадача", "description4", Status.NEW, DATE.plusHours(1),
+                Duration.ofMinutes(10), 1));
+        walManager.createSubtask(new Subtask(5, "Подзадача", "description5", Status.NEW, DATE.plusHours(2),
+                Duration.ofMinutes(10), 1));
+        walManager.updateSubtask(new Subtask(4, "Подзадача", "description4", Status.DONE, DATE.plusHours(3),
+                Duration.ofMinutes(10), 1));
+        walManager.deleteTask(3);
+        walManager.deleteSubtask(5);
+
+        assertFalse(new File(WAL_FILE).exists(), "В режиме WAL снимок переписан без вызова snapshot()");
+
+        FileBackedTaskManager loaded = new FileBackedTaskManager(WAL_FILE, PersistenceMode.WAL);
+        loaded.loadFromFile();
+        assertEquals(List.of(2), loaded.getTasks().stream().map(Task::getId).toList(),
+                "Задачи не восстановлены из журнала");
+        assertEquals(List.of(2, 4), loaded.getPrioritizedTasks().stream().map(Task::getId).toList(),
+                "Список приоритизации не восстановлен из журнала");
+        assertEquals(Status.DONE, loaded.getEpic(1).getStatus(), "Статус эпика не восстановлен из журнала");
+        assertEquals(epic.getEndTime(), loaded.getEpic(1).getEndTime(), "Время эпика не восстановлено");
+
+        walManager.snapshot();
+        assertFalse(Files.exists(Path.of(WAL_FILE + ".wal")), "Журнал не очищен после снимка");
+        walManager.deleteEpics();
+        Files.writeString(Path.of(WAL_FILE + ".wal"), "+,7,TASK,Задача", StandardOpenOption.APPEND);
+
+        FileBackedTaskManager reloaded = new FileBackedTaskManager(WAL_FILE, PersistenceMode.WAL);
+        reloaded.loadFromFile();
+        assertEquals(1, reloaded.tasks.size(), "Оборванная запись журнала не пропущена");
+        assertEquals(0, reloaded.epics.size(), "Удаление эпиков не воспроизведено");
+        assertEquals(0, reloaded.subtasks.size(), "Подзадачи удалённых эпиков восстановлены");
+    }
+
+    @Test
+    void tornWalTailIsCutBeforeNextWrite() throws IOException {
+        FileBackedTaskManager walManager = new FileBackedTaskManager(WAL_FILE, PersistenceMode.WAL);
+        walManager.createTask(new Task(1, "Задача", "description1", Status.NEW));
+        Files.writeString(Path.of(WAL_FILE + ".wal"), "+,2,TASK,tw", StandardOpenOption.APPEND);
+
+        FileBackedTaskManager restarted = new FileBackedTaskManager(WAL_FILE, PersistenceMode.WAL);
+        restarted.loadFromFile();
+        restarted.createTask(new Task(3, "Задача", "description3", Status.NEW));
+
+        FileBackedTaskManager reloaded = new FileBackedTaskManager(WAL_FILE, PersistenceMode.WAL);
+        reloaded.loadFromFile();
+        assertEquals(List.of(1, 3), reloaded.getTasks().stream().map(Task::getId).toList(),
+                "Запись после оборванной строки журнала потеряна");
+
+        Files.writeString(Path.of(WAL_FILE + ".wal"), "+,4,TASK,tw+,5,TASK,three,d,NEW,null,null,null\n",
+                StandardOpenOption.APPEND);
+        FileBackedTaskManager corrupted = new FileBackedTaskManager(WAL_FILE, PersistenceMode.WAL);
+        assertThrows(ManagerSaveException.class, corrupted::loadFromFile,
+                "Повреждённая запись журнала не сообщена как ошибка загрузки");
+    }
+
+    @Test
+    void groupCommitWritesOnFlush() {
+        FileBackedTaskManager groupManager = new FileBackedTaskManager(WAL_FILE, PersistenceMode.WAL,
+                Durability.GROUP_COMMIT, TimeUnit.HOURS.toMillis(1), 1_000);
+        try {
+            for (int i = 1; i <= 10; i++) {
+                groupManager.createTask(new Task(i, "Задача", "description", Status.NEW, DATE.plusHours(i),
+                        Duration.ofMinutes(10)));
+            }
+            assertFalse(Files.exists(Path.of(WAL_FILE + ".wal")), "Записи сброшены до конца интервала");
+
+            groupManager.flushAsync().join();
+            FileBackedTaskManager loaded = new FileBackedTaskManager(WAL_FILE, PersistenceMode.WAL);
+            loaded.loadFromFile();
+            assertEquals(10, loaded.tasks.size(), "Не все операции сохранены после flush");
+        } finally {
+            groupManager.close();
+        }
+    }
+
+    @Test
+    void asyncSnapshotCoalescesWrites() {
+        FileBackedTaskManager asyncManager = new FileBackedTaskManager(WAL_FILE, PersistenceMode.SNAPSHOT,
+                Durability.ASYNC, 5, 1_000);
+        for (int i = 1; i <= 100; i++) {
+            asyncManager.createTask(new Task(i, "Задача", "description", Status.NEW));
+        }
+        asyncManager.close();
+
+        FileBackedTaskManager loaded = new FileBackedTaskManager(WAL_FILE);
+        loaded.loadFromFile();
+        assertEquals(100, loaded.tasks.size(), "Не все операции сохранены при закрытии");
+    }
+
+    @Test
+    void compactTruncatesLog() throws IOException {
+        FileBackedTaskManager walManager = FileBackedTaskManager.builder(WAL_FILE)
+                .mode(PersistenceMode.WAL)
+                .compactionCheckMillis(0)
+                .build();
+        for (int i = 1; i <= 50; i++) {
+            walManager.createTask(new Task(i, "Задача", "description", Status.NEW, DATE.plusHours(i),
+                    Duration.ofMinutes(10)));
+        }
+        for (int i = 1; i <= 50; i += 2) {
+            walManager.deleteTask(i);
+        }
+        long logSize = walManager.getLogSize();
+
+        walManager.compact();
+        walManager.createTask(new Task(100, "Задача", "description", Status.NEW));
+
+        assertEquals(1, walManager.getCompactionMetrics().getCount(), "Уплотнение не учтено");
+        assertEquals(logSize, walManager.getCompactionMetrics().getLastBytesReclaimed(),
+                "Неверное число освобождённых байт");
+        assertTrue(walManager.getLogSize() < logSize / 10, "Журнал не укорочен после уплотнения");
+
+        Files.writeString(Path.of(WAL_FILE + ".wal.7"), "-,TASK,2\n");
+        FileBackedTaskManager loaded = new FileBackedTaskManager(WAL_FILE, PersistenceMode.WAL);
+        loaded.loadFromFile();
+        assertEquals(25, loaded.tasks.size(), "Состояние не восстановлено из снимка и хвоста журнала");
+        assertNull(loaded.tasks.get(2), "Оставшийся сегмент журнала не воспроизведён");
+        assertNotNull(loaded.tasks.get(100), "Хвост журнала после уплотнения не воспроизведён");
+        walManager.close();
+    }
+
+    @Test
+    void compactWithPendingRecords() throws IOException {
+        FileBackedTaskManager walManager = FileBackedTaskManager.builder(WAL_FILE)
+                .mode(PersistenceMode.WAL)
+                .durability(Durability.ASYNC)
+                .commitIntervalMillis(60_000)
+                .commitBatchSize(1_000)
+                .compactionCheckMillis(0)
+                .build();
+        walManager.createEpic(new Epic(1, "Эпик", "description", Status.NEW));
+        walManager.flush();
+        walManager.createSubtask(new Subtask(2, "Подзадача", "description", Status.NEW, DATE,
+                Duration.ofMinutes(10), 1));
+        walManager.deleteEpic(1);
+        walManager.createTask(new Task(3, "Задача", "description", Status.NEW));
+        walManager.compact();
+        walManager.close();
+
+        Files.writeString(Path.of(WAL_FILE + ".wal.9"), WriteAheadLog.upsert(new Subtask(4, "Подзадача",
+                "description", Status.NEW, DATE, Duration.ofMinutes(10), 5)) + "\n");
+        FileBackedTaskManager loaded = new FileBackedTaskManager(WAL_FILE, PersistenceMode.WAL);
+        loaded.loadFromFile();
+        assertTrue(loaded.epics.isEmpty(), "Удалённый эпик восстановлен");
+        assertTrue(loaded.subtasks.isEmpty(), "Подзадача удалённого эпика восстановлена");
+        assertNotNull(loaded.tasks.get(3), "Задача не восстановлена");
+        loaded.close();
+    }
+
+    @Test
+    void backgroundCompaction() throws InterruptedException {
+        FileBackedTaskManager walManager = FileBackedTaskManager.builder(WAL_FILE)
+                .mode(PersistenceMode.WAL)
+                .compactionThresholdBytes(1)
+                .compactionCheckMillis(10)
+                .build();
+        try {
+            walManager.createTask(new Task(1, "Задача", "description", Status.NEW));
+            for (int i = 0; i < 500 && walManager.getCompactionMetrics().getCount() == 0; i++) {
+                Thread.sleep(10);
+            }
+            assertTrue(walManager.getCompactionMetrics().getCount() > 0, "Фоновое уплотнение не выполнено");
+            assertTrue(new File(WAL_FILE).exists(), "Снимок не записан фоновым уплотнением");
+        } finally {
+            walManager.close();
+        }
+    }
+
+    @Test
+    void binarySnapshot() throws IOException {
+        FileBackedTaskManager binaryManager = FileBackedTaskManager.builder(WAL_FILE)
+                .format(SnapshotFormat.BINARY)
+                .build();
+        binaryManager.createEpic(new Epic(1, "Эпик", "описание, с запятой", Status.NEW));
+        binaryManager.createSubtask(new Subtask(2, "Подзадача", "description", Status.DONE, DATE,
+                Duration.ofMinutes(90), 1));
+        binaryManager.createTask(new Task(3, "Задача", "description", Status.IN_PROGRESS));
+
+        byte[] head = Arrays.copyOf(Files.readAllBytes(Path.of(WAL_FILE)), BinarySnapshotCodec.MAGIC.length);
+        assertArrayEquals(BinarySnapshotCodec.MAGIC, head, "Снимок записан не в двоичном формате");
+
+        FileBackedTaskManager loaded = new FileBackedTaskManager(WAL_FILE);
+        loaded.loadFromFile();
+        assertEquals("описание, с запятой", loaded.getEpic(1).getDescription(),
+                "Строка с запятой не восстановлена из двоичного снимка");
+        assertEquals(Status.DONE, loaded.getEpic(1).getStatus(), "Статус эпика не восстановлен");
+        assertEquals(DATE.plusMinutes(90), loaded.getEpic(1).getEndTime(), "Время эпика не восстановлено");
+        assertEquals(Duration.ofMinutes(90), loaded.getSubtask(2).getDuration(),
+                "Длительность подзадачи не восстановлена");
+        assertNull(loaded.getTask(3).getStartTime(), "Пустое время начала восстановлено неверно");
+    }
+
+    @Test
+    void corruptedBinarySnapshotFailsToLoad() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new BinarySnapshotCodec().write(List.of(new Task(1, null, null, Status.NEW)), out);
+        byte[] snapshot = out.toByteArray();
+        // Смещения байтов типа, статуса и ссылки на название единственной записи при пустом словаре.
+        for (int offset : new int[]{7, 8, 13}) {
+            byte[] corrupted = snapshot.clone();
+            corrupted[offset] = 0x7F;
+            Files.write(Path.of(WAL_FILE), corrupted);
+
+            FileBackedTaskManager loaded = new FileBackedTaskManager(WAL_FILE);
+            ManagerSaveException exception = assertThrows(ManagerSaveException.class, loaded::loadFromFile,
+                    "Повреждённый двоичный снимок загружен");
+            assertEquals("Повреждённый двоичный снимок", exception.getCause().getMessage(),
+                    "Повреждение снимка не распознано");
+        }
+    }
+
+    @Test
+    void convertCsvSnapshot() throws IOException {
+        Path source = Path.of("resources/test.csv");
+        Snapshots.convert(source, Path.of(WAL_FILE), SnapshotFormat.BINARY);
+        assertTrue(Files.size(Path.of(WAL_FILE)) < Files.size(source), "Двоичный снимок не меньше CSV");
+
+        FileBackedTaskManager loaded = new FileBackedTaskManager(WAL_FILE);
+        loaded.loadFromFile();
+        assertEquals(taskManager.getPrioritizedTasks().stream().map(Task::getId).toList(),
+                loaded.getPrioritizedTasks().stream().map(Task::getId).toList(),
+                "Задачи не совпадают после перевода снимка в двоичный формат");
+        assertEquals(taskManager.epics.size(), loaded.epics.size(), "Эпики потеряны при переводе снимка");
+    }
+
+    @Test
+    void loadLongLinesWithoutTrailingNewline() throws IOException {
+        String description = "d".repeat(200_000);
+        Files.writeString(Path.of(WAL_FILE), CSVFormatter.getHeader() + "\r\n"
+                + "1,TASK,Задача," + description + ",NEW,null,null,null\r\n"
+                + "2,TASK,Задача,description2,DONE,null,null,null");
+
+        FileBackedTaskManager loaded = new FileBackedTaskManager(WAL_FILE);
+        loaded.loadFromFile();
+        assertEquals(description, loaded.getTask(1).getDescription(), "Длинная строка прочитана неверно");
+        assertEquals(Status.DONE, loaded.getTask(2).getStatus(), "Последняя строка без перевода строки потеряна");
+    }
+
+    @Test
+    void quotedFields() {
+        String name = "Задача, \"срочная\"";
+        String description = "строка 1\nстрока 2,\r\n\"";
+        for (PersistenceMode mode : PersistenceMode.values()) {
+            FileBackedTaskManager csvManager = FileBackedTaskManager.builder(WAL_FILE)
+                    .mode(mode)
+                    .compactionCheckMillis(0)
+                    .build();
+            csvManager.deleteTasks();
+            csvManager.createTask(new Task(1, name, description, Status.NEW, DATE, Duration.ofMinutes(15)));
+            csvManager.createTask(new Task(2, "Задача", "description2", Status.DONE));
+
+            FileBackedTaskManager loaded = new FileBackedTaskManager(WAL_FILE, mode);
+            loaded.loadFromFile();
+            assertEquals(name, loaded.getTask(1).getName(), "Название в кавычках прочитано неверно: " + mode);
+            assertEquals(description, loaded.getTask(1).getDescription(),
+                    "Описание с переводами строк прочитано неверно: " + mode);
+            assertEquals(DATE.plusMinutes(15), loaded.getTask(1).getEndTime(), "Время прочитано неверно: " + mode);
+            assertEquals(Status.DONE, loaded.getTask(2).getStatus(), "Запись после кавычек потеряна: " + mode);
+            csvManager.close();
+        }
+    }
+
+    @Test
+    void loadSubtaskBeforeEpic() throws IOException {
+        Files.writeString(Path.of(WAL_FILE), CSVFormatter.getHeader() + "\n"
+                + "2,SUBTASK,Подзадача,description2,DONE,14.08.24 00:00,14.08.24 00:30,30,1\n"
+                + "1,EPIC,Эпик,description1,NEW,null,null,null\n");
+
+        FileBackedTaskManager loaded = new FileBackedTaskManager(WAL_FILE);
+        loaded.loadFromFile();
+        assertEquals(List.of(2), loaded.getEpic(1).getSubtaskList().stream().map(Subtask::getId).toList(),
+                "Подзадача не привязана к эпику, записанному после неё");
+        assertEquals(Status.DONE, loaded.getEpic(1).getStatus(), "Статус эпика не пересчитан после загрузки");
+        assertEquals(DATE.plusMinutes(30), loaded.getEpic(1).getEndTime(), "Время эпика не пересчитано");
+    }
+
+    @Test
+    void parallelLoadMatchesSequential() throws IOException {
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 1; i <= 30_000; i++) {
+            String description = i % 7 == 0 ? "строка " + i + "\n\"в кавычках\", с запятой" : "description" + i;
+            tasks.add(new Task(i, "Задача", description, Status.NEW, DATE.plusMinutes(i * 10L),
+                    Duration.ofMinutes(5)));
+        }
+        try (OutputStream out = Files.newOutputStream(Path.of(WAL_FILE))) {
+            Snapshots.codec(SnapshotFormat.CSV).write(tasks, out);
+        }
+        assertTrue(Files.size(Path.of(WAL_FILE)) > 2 * ParallelSnapshotReader.MIN_CHUNK_SIZE,
+                "Файл слишком мал для деления на участки");
+
+        List<Task> sequential = new ArrayList<>();
+        Snapshots.read(Path.of(WAL_FILE), sequential::add);
+        List<Task> parallel = Snapshots.readAll(Path.of(WAL_FILE), new ForkJoinPool(4));
+        assertEquals(tasks.size(), parallel.size(), "Потеряны записи на границах участков");
+        for (int i = 0; i < tasks.size(); i++) {
+            assertEquals(sequential.get(i).getId(), parallel.get(i).getId(), "Нарушен порядок записей");
+            assertEquals(tasks.get(i).getDescription(), parallel.get(i).getDescription(),
+                    "Запись разрезана на границе участка");
+        }
+    }
+
     @AfterEach
-    void tearDown() {
+    void tearDown() throws IOException {
         if ((file.exists())) {
             assertTrue(file.delete());
         }
+        Files.deleteIfExists(Path.of(WAL_FILE));
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(Path.of(WAL_FILE).getParent(),
+                Path.of(WAL_FILE).getFileName() + ".*")) {
+            for (Path path : stream) {
+                Files.delete(path);
+            }
+        }
     }
 }
\ No newline at end of file
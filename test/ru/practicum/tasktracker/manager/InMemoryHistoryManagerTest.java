@@ -90,4 +90,57 @@ public class InMemoryHistoryManagerTest {
         assertEquals(1, history.size(), "История сохранена неверно");
         assertEquals(2, history.getFirst().getId(), "История сохранена неверно");
     }
-}
\ No newline at end of file
+
+    @Test
+    void evictEldestWhenFull() {
+        historyManager = new InMemoryHistoryManager(2);
+        historyManager.add(task);
+        historyManager.add(epic);
+        historyManager.add(task);
+        historyManager.add(subtask);
+        List<Task> history = historyManager.getHistory();
+        assertEquals(2, history.size(), "История превысила ёмкость");
+        assertEquals(1, history.get(0).getId(), "Вытеснена не самая старая задача");
+        assertEquals(3, history.get(1).getId(), "История сохранена неверно");
+    }
+
+    @Test
+    void getHistoryWithLimit() {
+        historyManager.add(task);
+        historyManager.add(epic);
+        historyManager.add(subtask);
+        List<Task> history = historyManager.getHistory(2);
+        assertEquals(2, history.size(), "Неверное количество задач");
+        assertEquals(2, history.get(0).getId(), "История сохранена неверно");
+        assertEquals(3, history.get(1).getId(), "История сохранена неверно");
+        assertEquals(3, historyManager.getHistory(10).size(), "Неверное количество задач");
+        assertTrue(historyManager.getHistory(0).isEmpty(), "История не пустая");
+    }
+
+    @Test
+    void concurrentAdd() throws InterruptedException {
+        int capacity = 50;
+        historyManager = new InMemoryHistoryManager(capacity);
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            final int offset = t;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    int id = (i * 7 + offset) % 200;
+                    historyManager.add(new Task(id, "Задача", "description", Status.NEW, DATE, Duration.ZERO));
+                    if (i % 13 == 0) {
+                        historyManager.remove(id);
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        List<Task> history = historyManager.getHistory();
+        assertTrue(history.size() <= capacity, "История превысила ёмкость");
+        assertEquals(history.size(), history.stream().map(Task::getId).distinct().count(),
+                "Задача повторяется в истории");
+    }
+}
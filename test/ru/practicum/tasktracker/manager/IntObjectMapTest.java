@@ -0,0 +1,121 @@
+package ru.practicum.tasktracker.manager;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IntObjectMapTest {
+    private IntObjectMap<String> map;
+
+    @BeforeEach
+    void setUp() {
+        map = new IntObjectMap<>();
+    }
+
+    @Test
+    void putGetRemove() {
+        assertNull(map.put(1, "a"), "Для нового ключа вернулось прежнее значение");
+        assertEquals("a", map.put(1, "b"), "Не вернулось прежнее значение");
+        assertEquals("b", map.get(1), "Значение не заменено");
+        assertEquals(1, map.size(), "Замена значения изменила размер");
+        assertEquals("b", map.remove(1), "Не вернулось удалённое значение");
+        assertNull(map.get(1), "Значение осталось после удаления");
+        assertTrue(map.isEmpty(), "Отображение не пустое после удаления");
+        assertThrows(NullPointerException.class, () -> map.put(2, null), "Разрешено значение null");
+    }
+
+    @Test
+    void valuesKeepInsertionOrder() {
+        for (int i = 100; i > 0; i--) {
+            map.put(i, "v" + i);
+        }
+        for (int i = 100; i > 0; i -= 2) {
+            map.remove(i);
+        }
+        map.put(1, "first");
+        map.put(1000, "last");
+
+        List<String> values = map.values();
+        assertEquals(51, values.size(), "Неверное количество значений");
+        assertEquals("v99", values.getFirst(), "Нарушен порядок добавления");
+        assertEquals("first", values.get(49), "Замена значения переместила запись");
+        assertEquals("last", values.getLast(), "Новая запись не в конце");
+
+        List<String> visited = new ArrayList<>();
+        map.forEachValue(visited::add);
+        assertEquals(values, visited, "forEachValue обходит записи в другом порядке");
+    }
+
+    @Test
+    void randomOperationsMatchHashMap() {
+        Map<Integer, String> expected = new HashMap<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 200_000; i++) {
+            int key = random.nextInt(5_000) - 100;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(key), "Расхождение при удалении ключа " + key);
+            } else {
+                String value = "v" + i;
+                assertEquals(expected.put(key, value), map.put(key, value), "Расхождение при записи ключа " + key);
+            }
+        }
+        assertEquals(expected.size(), map.size(), "Размер не совпадает с HashMap");
+        for (int key = -100; key < 4_900; key++) {
+            assertEquals(expected.get(key), map.get(key), "Значение не совпадает для ключа " + key);
+            assertEquals(expected.containsKey(key), map.containsKey(key), "containsKey не совпадает для ключа " + key);
+        }
+
+        map.clear();
+        assertEquals(0, map.size(), "Отображение не очищено");
+        assertNull(map.get(expected.keySet().iterator().next()), "Значение осталось после очистки");
+    }
+
+    @Test
+    void sortedValuesAfterMatchTreeMap() {
+        SortedIntObjectMap<String> sortedMap = new SortedIntObjectMap<>();
+        TreeMap<Integer, String> expected = new TreeMap<>();
+        Random random = new Random(11);
+        for (int i = 0; i < 50_000; i++) {
+            int key = i % 7 == 0 ? random.nextInt(i + 1) : i;
+            if (random.nextInt(3) == 0) {
+                expected.remove(key);
+                sortedMap.remove(key);
+            } else {
+                expected.put(key, "v" + i);
+                sortedMap.put(key, "v" + i);
+            }
+            if (i % 1_000 == 0) {
+                Integer afterKey = random.nextBoolean() ? null : random.nextInt(i + 1);
+                assertEquals(page(expected, afterKey, 20), sortedMap.valuesAfter(afterKey, 20),
+                        "Страница после ключа " + afterKey + " неверна");
+            }
+        }
+
+        Integer afterKey = null;
+        int pages = 0;
+        while (!pageMap(expected, afterKey).isEmpty()) {
+            assertEquals(page(expected, afterKey, 1_000), sortedMap.valuesAfter(afterKey, 1_000),
+                    "Страница после ключа " + afterKey + " неверна");
+            List<Integer> keys = pageMap(expected, afterKey).keySet().stream().limit(1_000).toList();
+            afterKey = keys.get(keys.size() - 1);
+            pages++;
+        }
+        assertEquals((expected.size() + 999) / 1_000, pages, "Неверное число страниц");
+    }
+
+    private static Map<Integer, String> pageMap(TreeMap<Integer, String> map, Integer afterKey) {
+        return afterKey == null ? map : map.tailMap(afterKey, false);
+    }
+
+    private static List<String> page(TreeMap<Integer, String> map, Integer afterKey, int limit) {
+        return pageMap(map, afterKey).values().stream().limit(limit).toList();
+    }
+}
@@ -0,0 +1,193 @@
+package ru.practicum.tasktracker.manager;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.tasktracker.enums.Status;
+import ru.practicum.tasktracker.task.Task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IntervalTreeTest {
+    private final LocalDateTime DATE = LocalDateTime.of(2024, 8, 14, 0, 0);
+    private IntervalTree tree;
+
+    @BeforeEach
+    void setUp() {
+        tree = new IntervalTree();
+    }
+
+    private Task task(int id, int startMinute, int minutes) {
+        return new Task(id, "Задача" + id, "description" + id, Status.NEW,
+                DATE.plusMinutes(startMinute), Duration.ofMinutes(minutes));
+    }
+
+    @Test
+    void findOverlap() {
+        tree.add(task(1, 0, 10));
+        tree.add(task(2, 20, 10));
+        tree.add(task(3, 100, 500));
+
+        assertNull(tree.findOverlap(DATE.plusMinutes(11), DATE.plusMinutes(19), null),
+                "Найдено пересечение в свободном окне");
+        assertEquals(2, tree.findOverlap(DATE.plusMinutes(15), DATE.plusMinutes(20), null).getId(),
+                "Пересечение на границе интервала не найдено");
+        assertEquals(3, tree.findOverlap(DATE.plusMinutes(300), DATE.plusMinutes(301), null).getId(),
+                "Длинный интервал не найден");
+        assertNull(tree.findOverlap(DATE.plusMinutes(300), DATE.plusMinutes(301), 3),
+                "Исключённая задача найдена");
+    }
+
+    @Test
+    void addReplacesTaskWithSameId() {
+        Task task = task(1, 0, 10);
+        tree.add(task);
+        tree.add(task(1, 50, 10));
+        task.setStartTime(DATE.plusMinutes(200));
+
+        assertEquals(1, tree.size(), "Старая версия задачи осталась в индексе");
+        assertNull(tree.findOverlap(DATE, DATE.plusMinutes(10), null), "Старый интервал остался в индексе");
+        assertNotNull(tree.findOverlap(DATE.plusMinutes(55), DATE.plusMinutes(55), null),
+                "Новый интервал не добавлен");
+    }
+
+    @Test
+    void removeKeepsOrder() {
+        for (int i = 1; i <= 100; i++) {
+            tree.add(task(i, (100 - i) * 10, 5));
+        }
+        for (int i = 1; i <= 100; i += 2) {
+            tree.remove(i);
+        }
+        List<Task> tasks = tree.toList();
+        assertEquals(50, tasks.size(), "Неверное количество задач после удаления");
+        for (int i = 1; i < tasks.size(); i++) {
+            assertTrue(tasks.get(i - 1).getStartTime().isBefore(tasks.get(i).getStartTime()),
+                    "Нарушен порядок задач");
+        }
+        assertNull(tree.findOverlap(DATE.plusMinutes(990), DATE.plusMinutes(990), null),
+                "Удалённая задача найдена");
+    }
+
+    @Test
+    void findGap() {
+        tree.add(task(1, 0, 10));
+        tree.add(task(2, 11, 9));
+        tree.add(task(3, 40, 10));
+        tree.add(task(4, 60, 440));
+
+        assertEquals(DATE.plusMinutes(21), tree.findGap(DATE, null, Duration.ofMinutes(5)),
+                "Не найдено окно сразу после занятого отрезка");
+        assertEquals(DATE.plusMinutes(501), tree.findGap(DATE, null, Duration.ofMinutes(20)),
+                "Окно не найдено после всех задач");
+        assertEquals(DATE.minusMinutes(30), tree.findGap(DATE.minusMinutes(30), null, Duration.ofMinutes(29)),
+                "Не найдено окно до первой задачи");
+        assertEquals(DATE.plusMinutes(51), tree.findGap(DATE.plusMinutes(45), null, Duration.ofMinutes(8)),
+                "Не учтена задача, начавшаяся до начала поиска");
+        assertNull(tree.findGap(DATE, DATE.plusMinutes(300), Duration.ofMinutes(20)),
+                "Найдено окно за пределами интервала поиска");
+    }
+
+    @Test
+    void addAllBuildsBalancedTree() {
+        List<Task> batch = new ArrayList<>();
+        for (int i = 1; i <= 1000; i++) {
+            batch.add(task(i, (1000 - i) * 10, 5));
+        }
+        tree.addAll(batch);
+
+        List<Task> tasks = tree.toList();
+        assertEquals(1000, tasks.size(), "Неверное количество задач после пакетной вставки");
+        assertEquals(1000, tasks.get(0).getId(), "Нарушен порядок задач после пакетной вставки");
+        assertEquals(500, tree.findOverlap(DATE.plusMinutes(5003), DATE.plusMinutes(5003), null).getId(),
+                "Пересечение не найдено после пакетной вставки");
+        tree.remove(500);
+        tree.add(task(1001, 5000, 5));
+        assertEquals(1001, tree.findOverlap(DATE.plusMinutes(5003), DATE.plusMinutes(5003), null).getId(),
+                "Дерево после пакетной вставки не поддерживает изменения");
+    }
+
+    @Test
+    void pageWalksInStartAndIdOrder() {
+        List<Task> tasks = new ArrayList<>();
+        for (int id = 1; id <= 50; id++) {
+            tasks.add(task(id, (id % 10) * 5, 1));
+        }
+        tasks.forEach(tree::add);
+        List<Task> walked = new ArrayList<>();
+        List<Task> page = tree.page(null, null, 7);
+        while (!page.isEmpty()) {
+            assertTrue(page.size() <= 7, "Страница больше лимита");
+            walked.addAll(page);
+            Task last = page.get(page.size() - 1);
+            page = tree.page(last.getStartTime(), last.getId(), 7);
+        }
+
+        assertEquals(tree.toList(), walked, "Страницы не совпадают с полным списком");
+        assertEquals(List.of(20, 30, 40), tree.page(DATE, 10, 3).stream().map(Task::getId).toList(),
+                "Задачи с тем же временем начала не упорядочены по id");
+    }
+
+    @Test
+    void countAndCollectStarting() {
+        for (int id = 1; id <= 20; id++) {
+            tree.add(task(id, id * 10, 5));
+        }
+        tree.remove(5);
+
+        assertEquals(4, tree.countStarting(DATE.plusMinutes(30), DATE.plusMinutes(80)), "Неверное число задач");
+        assertEquals(List.of(3, 4, 6, 7), tree.starting(DATE.plusMinutes(30), DATE.plusMinutes(80)).stream()
+                .map(Task::getId).toList(), "Неверные задачи интервала");
+        assertEquals(19, tree.countStarting(null, null), "Неверное число задач без границ");
+        assertEquals(2, tree.countStarting(DATE.plusMinutes(190), null), "Неверное число задач без конца");
+        assertEquals(0, tree.countStarting(DATE.plusMinutes(80), DATE.plusMinutes(80)), "Пустой интервал не пуст");
+    }
+
+    @Test
+    void addIfFreeRejectsOverlap() {
+        tree.add(task(1, 0, 10));
+
+        assertEquals(1, tree.addIfFree(task(2, 5, 10)).getId(), "Пересечение не найдено");
+        assertFalse(tree.contains(2), "Пересекающаяся задача добавлена");
+        assertNull(tree.addIfFree(task(1, 5, 10)), "Задача пересеклась сама с собой");
+        assertNull(tree.addIfFree(task(2, 20, 10)), "Свободный интервал не занят");
+        assertEquals(2, tree.size(), "Неверное число задач");
+        assertNull(tree.addIfFree(new Task(1, "Задача1", "description1", Status.NEW)),
+                "Задача без времени не принята");
+        assertFalse(tree.contains(1), "Задача без времени осталась в расписании");
+    }
+
+    @Test
+    void concurrentScheduleReadsMatchTree() {
+        ConcurrentSchedule schedule = new ConcurrentSchedule();
+        List<Task> batch = new ArrayList<>();
+        for (int id = 1; id <= 30; id++) {
+            batch.add(task(id, (id % 10) * 20, 5));
+        }
+        batch.add(task(7, 500, 5));
+        tree.addAll(batch);
+        schedule.addAll(batch);
+        Task moved = task(4, 600, 5);
+        Task added = task(31, 700, 5);
+        for (IntervalTree each : List.of(tree, schedule)) {
+            each.remove(3);
+            each.add(moved);
+            each.addIfFree(added);
+        }
+
+        assertEquals(tree.toList(), schedule.toList(), "Порядок расписания расходится с деревом");
+        assertEquals(tree.page(DATE.plusMinutes(40), 2, 5), schedule.page(DATE.plusMinutes(40), 2, 5),
+                "Страница расписания расходится с деревом");
+        assertEquals(tree.page(null, null, 4), schedule.page(null, null, 4), "Первая страница расходится с деревом");
+        assertEquals(tree.starting(DATE.plusMinutes(20), DATE.plusMinutes(100)),
+                schedule.starting(DATE.plusMinutes(20), DATE.plusMinutes(100)),
+                "Выборка по времени начала расходится с деревом");
+        assertEquals(tree.starting(null, null), schedule.starting(null, null), "Выборка без границ расходится");
+        schedule.clear();
+        assertTrue(schedule.toList().isEmpty(), "Расписание не очищено");
+    }
+}
@@ -0,0 +1,65 @@
+package ru.practicum.tasktracker.manager;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.tasktracker.metrics.LatencyHistogram;
+import ru.practicum.tasktracker.metrics.MetricsRegistry;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MetricsRegistryTest {
+
+    @Test
+    void histogramPercentilesWithinBucketError() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getPercentileNanos(0.5), "Перцентиль пустой гистограммы не равен 0");
+        for (long micros = 1; micros <= 10_000; micros++) {
+            histogram.record(micros * 1_000);
+        }
+        assertEquals(10_000, histogram.getCount());
+        assertEquals(50_005_000_000L, histogram.getSumNanos());
+        assertWithin(5_000_000, histogram.getPercentileNanos(0.5));
+        assertWithin(9_900_000, histogram.getPercentileNanos(0.99));
+        assertWithin(9_990_000, histogram.getPercentileNanos(0.999));
+        assertWithin(10_000_000, histogram.getPercentileNanos(1));
+
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE);
+        assertEquals(10_002, histogram.getCount(), "Значения вне диапазона не учтены");
+    }
+
+    private static void assertWithin(long expected, long actual) {
+        assertTrue(actual >= expected && actual <= expected + expected / 16,
+                "Перцентиль " + actual + " дальше 1/16 от " + expected);
+    }
+
+    @Test
+    void scrapeWritesPrometheusText() {
+        MetricsRegistry metrics = new MetricsRegistry();
+        metrics.counter("requests_total", "Запросы.", "route", "/tasks", "status", "200").add(3);
+        metrics.counter("requests_total", "Запросы.", "route", "/tasks", "status", "404").increment();
+        metrics.gauge("cache_bytes", "Объём\nкэша.", () -> 1.5);
+        metrics.summary("duration_seconds", "Время.", "path", "a\"b").record(2_000_000);
+
+        String expected = """
+                # HELP cache_bytes Объём\\nкэша.
+                # TYPE cache_bytes gauge
+                cache_bytes 1.5
+                # HELP duration_seconds Время.
+                # TYPE duration_seconds summary
+                duration_seconds{path="a\\"b",quantile="0.5"} 0.002031615
+                duration_seconds{path="a\\"b",quantile="0.99"} 0.002031615
+                duration_seconds{path="a\\"b",quantile="0.999"} 0.002031615
+                duration_seconds_sum{path="a\\"b"} 0.002
+                duration_seconds_count{path="a\\"b"} 1
+                # HELP requests_total Запросы.
+                # TYPE requests_total counter
+                requests_total{route="/tasks",status="200"} 3
+                requests_total{route="/tasks",status="404"} 1
+                """;
+        assertEquals(expected, metrics.scrape());
+        assertThrows(IllegalArgumentException.class, () -> metrics.gauge("requests_total", "", () -> 0),
+                "Метрика зарегистрирована с другим типом");
+        assertThrows(IllegalArgumentException.class, () -> metrics.counter("other_total", "", "route"),
+                "Метка без значения");
+    }
+}
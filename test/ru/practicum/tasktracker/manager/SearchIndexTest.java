@@ -0,0 +1,68 @@
+package ru.practicum.tasktracker.manager;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.tasktracker.enums.Status;
+import ru.practicum.tasktracker.task.Task;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SearchIndexTest {
+    private SearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new SearchIndex();
+    }
+
+    private Task task(int id, String name) {
+        return new Task(id, name, null, Status.NEW);
+    }
+
+    @Test
+    void intersectsWordsAndMergesPrefixes() {
+        for (int id = 1; id <= 1_000; id++) {
+            index.put(task(id, "отчёт" + (id % 7) + " квартал" + (id % 3 == 0 ? " срочно" : "")));
+        }
+        int[] expected = IntStream.rangeClosed(1, 1_000).filter(id -> id % 3 == 0).toArray();
+
+        assertArrayEquals(expected, index.search("срочно отч", 1_000), "Неверное пересечение с префиксом");
+        assertArrayEquals(Arrays.copyOf(expected, 5), index.search("СРОЧНО отчёт", 5), "Не учтён лимит");
+        assertArrayEquals(new int[]{7, 14, 21}, index.search("отчёт0", 3), "Неверный поиск слова");
+        assertEquals(0, index.search("срочно отчет", 10).length, "Найдено слово с другой буквой");
+    }
+
+    @Test
+    void removeDropsEmptyTerms() {
+        index.put(task(2, "Первая задача"));
+        index.put(task(1, "Вторая задача"));
+        index.put(task(1, "Вторая версия"));
+
+        assertArrayEquals(new int[]{2}, index.search("задача", 10), "Слова старой версии остались");
+        assertArrayEquals(new int[]{1}, index.search("в", 10), "Неверный поиск по префиксу");
+        index.remove(2);
+        index.remove(2);
+        assertEquals(2, index.termCount(), "Пустые слова не удалены");
+        assertEquals(1, index.documentCount(), "Неверное число задач");
+    }
+
+    @Test
+    void stripedIndexMergesStripesInIdOrder() {
+        StripedSearchIndex striped = new StripedSearchIndex(4);
+        for (int id = 1; id <= 1_000; id++) {
+            Task task = task(id, "отчёт" + (id % 7) + " квартал" + (id % 3 == 0 ? " срочно" : ""));
+            index.put(task);
+            striped.put(task);
+        }
+        striped.remove(9);
+        index.remove(9);
+
+        assertArrayEquals(index.search("срочно отч", 1_000), striped.search("срочно отч", 1_000),
+                "Полосы слиты неверно");
+        assertArrayEquals(new int[]{3, 6, 12, 15, 18}, striped.search("срочно", 5), "Не учтён лимит");
+        assertEquals(999, striped.documentCount(), "Неверное число задач");
+    }
+}
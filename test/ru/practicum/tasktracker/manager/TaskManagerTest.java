@@ -2,11 +2,14 @@ package ru.practicum.tasktracker.manager;
 
 import org.junit.jupiter.api.Test;
 import ru.practicum.tasktracker.enums.Status;
+import ru.practicum.tasktracker.enums.Type;
 import ru.practicum.tasktracker.exceptions.PriorityTaskException;
 import ru.practicum.tasktracker.exceptions.TaskNotFoundException;
+import ru.practicum.tasktracker.exceptions.ValidationException;
 import ru.practicum.tasktracker.task.Epic;
 import ru.practicum.tasktracker.task.Subtask;
 import ru.practicum.tasktracker.task.Task;
+import ru.practicum.tasktracker.task.TimeSlot;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
@@ -120,6 +123,17 @@ public abstract class TaskManagerTest<T extends TaskManager> {
         assertEquals(4, prioritizedTasks.get(2).getId(), "Задача 4 не приоритизирована");
     }
 
+    @Test
+    void updateTaskReplacesPrioritizedEntry() {
+        Task updatedTask = new Task(1, "Задача", "description1", Status.NEW, DATE.plusDays(3),
+                Duration.ofMinutes(1));
+        taskManager.updateTask(updatedTask);
+        List<Task> prioritizedTasks = taskManager.getPrioritizedTasks();
+        assertEquals(3, prioritizedTasks.size(), "Старая версия задачи осталась в списке приоритизации");
+        assertEquals(3, prioritizedTasks.get(0).getId(), "Задача 3 не приоритизирована");
+        assertSame(updatedTask, prioritizedTasks.get(2), "Обновлённая задача не переместилась в конец списка");
+    }
+
     @Test
     void deleteTask() {
         assertNotNull(taskManager.getTasks(), "Список задач не заполнен");
@@ -146,6 +160,41 @@ public abstract class TaskManagerTest<T extends TaskManager> {
         assertNull(subtaskPriority, "Задача не удалена из списка приоритизации");
     }
 
+    @Test
+    void epicSubtasksFollowUpdatesAndDeletes() {
+        Subtask updated = new Subtask(3, "Подзадача", "изменена", Status.DONE, DATE.plusDays(3),
+                Duration.ofMinutes(1), EPIC_ID);
+        taskManager.updateSubtask(updated);
+        Epic epic = taskManager.getEpic(EPIC_ID);
+        assertEquals(List.of(3, 4), epic.getSubtaskList().stream().map(Subtask::getId).toList(),
+                "Подзадачи эпика не в порядке id");
+        assertSame(updated, epic.getSubtaskList().get(0), "Эпик хранит прежнюю версию подзадачи");
+
+        taskManager.deleteSubtask(3);
+        assertEquals(List.of(4), epic.getSubtaskList().stream().map(Subtask::getId).toList(),
+                "Изменённая подзадача не отвязана от эпика");
+    }
+
+    @Test
+    void updateEpicTimeWindow() {
+        Epic epic = taskManager.getEpic(EPIC_ID);
+        assertEquals(DATE.plusDays(1), epic.getStartTime(), "Неверное время начала эпика");
+        assertEquals(DATE.plusDays(2).plusMinutes(1), epic.getEndTime(), "Неверное время окончания эпика");
+
+        taskManager.deleteSubtask(3);
+        assertEquals(DATE.plusDays(2), epic.getStartTime(), "Время начала эпика не обновилось");
+        assertEquals(Duration.ofMinutes(1), epic.getDuration(), "Продолжительность эпика не обновилась");
+
+        taskManager.updateSubtask(new Subtask(4, "Подзадача", "description4", Status.DONE,
+                DATE.plusDays(5), Duration.ofMinutes(30), EPIC_ID));
+        assertEquals(Status.DONE, epic.getStatus(), "Статус не DONE");
+        assertEquals(DATE.plusDays(5).plusMinutes(30), epic.getEndTime(), "Время окончания эпика не обновилось");
+
+        taskManager.deleteSubtask(4);
+        assertNull(epic.getStartTime(), "Время начала эпика без подзадач не сброшено");
+        assertNull(epic.getEndTime(), "Время окончания эпика без подзадач не сброшено");
+    }
+
     @Test
     void deleteEpic() {
         assertNotNull(taskManager.getEpics(), "Список эпиков не заполнен");
@@ -166,4 +215,198 @@ public abstract class TaskManagerTest<T extends TaskManager> {
         assertEquals("Время выполнения задачи пересекается со временем уже существующей " +
                 "задачи. Выберите другую дату.", exception.getMessage());
     }
-}
\ No newline at end of file
+
+    @Test
+    void findFreeSlot() {
+        TimeSlot slot = taskManager.findFreeSlot(Duration.ofMinutes(10), DATE, null);
+        assertEquals(DATE.plusMinutes(2), slot.getStartTime(), "Неверное начало свободного окна");
+        assertEquals(DATE.plusMinutes(12), slot.getEndTime(), "Неверный конец свободного окна");
+        assertDoesNotThrow(() -> taskManager.createTask(new Task("Задача", "description", Status.NEW,
+                slot.getStartTime(), slot.getDuration())), "Найденное окно занято");
+
+        assertEquals(DATE.plusDays(2).plusMinutes(2),
+                taskManager.findFreeSlot(Duration.ofDays(1), DATE, null).getStartTime(),
+                "Окно не найдено после всех подзадач");
+        assertThrows(TaskNotFoundException.class,
+                () -> taskManager.findFreeSlot(Duration.ofDays(1), DATE, DATE.plusDays(2)),
+                "Найдено окно за пределами интервала поиска");
+        assertThrows(ValidationException.class,
+                () -> taskManager.findFreeSlot(Duration.ZERO, DATE, null), "Принята нулевая продолжительность");
+    }
+
+    @Test
+    void createAll() {
+        Epic epic = new Epic(10, "Эпик", "description10", Status.NEW);
+        Subtask subtask = new Subtask("Подзадача", "description", Status.DONE, DATE.plusHours(1),
+                Duration.ofMinutes(10), 10);
+        Task task = new Task("Задача", "description", Status.NEW, DATE.plusHours(2), Duration.ofMinutes(10));
+
+        List<Task> created = taskManager.createAll(List.of(subtask, task, epic));
+
+        assertEquals(List.of(subtask, task, epic), created, "Неверный порядок созданных задач");
+        assertNotNull(subtask.getId(), "Подзадаче не присвоен id");
+        assertNotNull(task.getId(), "Задаче не присвоен id");
+        assertEquals(List.of(subtask), taskManager.getEpic(10).getSubtaskList(), "Подзадача не привязана к эпику");
+        assertEquals(Status.DONE, taskManager.getEpic(10).getStatus(), "Статус эпика не пересчитан");
+        assertEquals(5, taskManager.getPrioritizedTasks().size(), "Пакет не добавлен в список приоритизации");
+    }
+
+    @Test
+    void createAllIsAtomic() {
+        Task task = new Task("Задача", "description", Status.NEW, DATE.plusHours(1), Duration.ofMinutes(10));
+        Task overlapping = new Task("Задача", "description", Status.NEW, DATE.plusHours(1).plusMinutes(5),
+                Duration.ofMinutes(10));
+        Subtask orphan = new Subtask("Подзадача", "description", Status.NEW, DATE.plusHours(3),
+                Duration.ofMinutes(10), 999);
+
+        assertThrows(PriorityTaskException.class, () -> taskManager.createAll(List.of(task, overlapping)),
+                "Пересечение внутри пакета не найдено");
+        assertThrows(PriorityTaskException.class, () -> taskManager.createAll(List.of(task,
+                        new Task("Задача", "description", Status.NEW, DATE, Duration.ofMinutes(10)))),
+                "Пересечение с существующей задачей не найдено");
+        assertThrows(TaskNotFoundException.class, () -> taskManager.createAll(List.of(task, orphan)),
+                "Создана подзадача несуществующего эпика");
+        assertEquals(1, taskManager.getTasks().size(), "Часть пакета создана после ошибки");
+        assertEquals(2, taskManager.getSubtasks().size(), "Часть пакета создана после ошибки");
+        assertNull(task.getId(), "Задаче присвоен id после ошибки");
+    }
+
+    @Test
+    void updateAllSwapsTimes() {
+        Task task = taskManager.createTask(new Task("Задача", "description", Status.NEW, DATE.plusHours(1),
+                Duration.ofMinutes(10)));
+        Task movedTask1 = new Task(1, "Задача", "description1", Status.IN_PROGRESS, DATE.plusHours(1),
+                Duration.ofMinutes(1));
+        Task movedTask = new Task(task.getId(), "Задача", "description", Status.NEW, DATE, Duration.ofMinutes(10));
+        Subtask doneSubtask = new Subtask(3, "Подзадача", "description3", Status.DONE, DATE.plusDays(1),
+                Duration.ofMinutes(1), EPIC_ID);
+
+        assertThrows(PriorityTaskException.class, () -> taskManager.updateTask(movedTask1),
+                "Одиночное обновление должно пересекаться со старым временем задачи");
+        taskManager.updateAll(List.of(movedTask1, movedTask, doneSubtask));
+
+        assertEquals(List.of(movedTask, movedTask1, doneSubtask, subtask4), taskManager.getPrioritizedTasks(),
+                "Неверный порядок после пакетного обновления");
+        assertEquals(Status.IN_PROGRESS, taskManager.getEpic(EPIC_ID).getStatus(), "Статус эпика не пересчитан");
+        assertThrows(TaskNotFoundException.class, () -> taskManager.updateAll(List.of(
+                        new Task(999, "Задача", "description", Status.NEW))),
+                "Обновлена несуществующая задача");
+    }
+
+    @Test
+    void getTasksByPages() {
+        for (int i = 0; i < 5; i++) {
+            taskManager.createTask(new Task("Задача", "description", Status.NEW));
+        }
+        List<Task> first = taskManager.getTasks(null, 4);
+        List<Task> second = taskManager.getTasks(first.get(first.size() - 1).getId(), 4);
+
+        assertEquals(List.of(1, 5, 6, 7), first.stream().map(Task::getId).toList(), "Неверная первая страница");
+        assertEquals(List.of(8, 9), second.stream().map(Task::getId).toList(), "Неверная вторая страница");
+        assertEquals(List.of(3, 4), taskManager.getSubtasks(2, 10).stream().map(Task::getId).toList(),
+                "Неверная страница подзадач");
+        assertTrue(taskManager.getEpics(EPIC_ID, 10).isEmpty(), "Страница после последнего эпика не пуста");
+        assertThrows(ValidationException.class, () -> taskManager.getTasks(null, 0), "Принят пустой размер страницы");
+    }
+
+    @Test
+    void getPrioritizedTasksByPages() {
+        taskManager.createTask(new Task("Задача", "description", Status.NEW, DATE.plusDays(3), Duration.ofMinutes(1)));
+        taskManager.createTask(new Task("Задача", "description", Status.NEW, DATE.plusHours(1),
+                Duration.ofMinutes(1)));
+
+        List<Task> all = taskManager.getPrioritizedTasks();
+        List<Task> first = taskManager.getPrioritizedTasks(null, null, 2);
+        Task last = first.get(first.size() - 1);
+        List<Task> rest = taskManager.getPrioritizedTasks(last.getStartTime(), last.getId(), 10);
+
+        assertEquals(all.subList(0, 2), first, "Неверная первая страница расписания");
+        assertEquals(all.subList(2, all.size()), rest, "Неверная вторая страница расписания");
+        assertTrue(taskManager.getPrioritizedTasks(DATE.plusYears(1), 0, 10).isEmpty(),
+                "Страница после последней задачи не пуста");
+    }
+
+    @Test
+    void findTasksByIndexes() {
+        taskManager.updateSubtask(new Subtask(3, "Подзадача", "description3", Status.IN_PROGRESS, DATE.plusDays(1),
+                Duration.ofMinutes(1), EPIC_ID));
+        taskManager.updateTask(new Task(1, "Задача", "description1", Status.DONE, DATE, Duration.ofMinutes(1)));
+
+        assertEquals(List.of(2, 3), ids(TaskQuery.builder().status(Status.IN_PROGRESS).build()),
+                "Неверная выборка по статусу");
+        assertEquals(List.of(3), ids(TaskQuery.builder().status(Status.IN_PROGRESS).type(Type.SUBTASK).build()),
+                "Неверная выборка по статусу и типу");
+        assertEquals(List.of(1), ids(TaskQuery.builder().status(Status.DONE).build()),
+                "Задача осталась под старым статусом");
+        assertEquals(List.of(1, 2, 3), ids(TaskQuery.builder().from(DATE).to(DATE.plusDays(2)).build()),
+                "Неверная выборка по времени начала");
+        assertEquals(List.of(3, 4), ids(TaskQuery.builder().epicId(EPIC_ID).build()),
+                "Неверная выборка подзадач эпика");
+        assertEquals(List.of(4), ids(TaskQuery.builder().epicId(EPIC_ID).status(Status.NEW).build()),
+                "Неверная выборка подзадач эпика по статусу");
+        assertTrue(ids(TaskQuery.builder().epicId(EPIC_ID).type(Type.TASK).build()).isEmpty(),
+                "У эпика найдены задачи другого типа");
+        assertEquals(List.of(1, 2, 3, 4), ids(TaskQuery.builder().build()), "Пустой фильтр вернул не всё");
+
+        taskManager.deleteSubtask(3);
+        assertTrue(ids(TaskQuery.builder().status(Status.IN_PROGRESS).build()).isEmpty(),
+                "Удалённая подзадача осталась в индексе");
+        assertThrows(ValidationException.class, () -> TaskQuery.builder().from(DATE).to(DATE.minusDays(1)).build(),
+                "Принят интервал с концом раньше начала");
+    }
+
+    private List<Integer> ids(TaskQuery query) {
+        return taskManager.findTasks(query).stream().map(Task::getId).toList();
+    }
+
+    @Test
+    void searchByWords() {
+        Task milk = taskManager.createTask(new Task("Купить молоко", "Срочно, до вечера", Status.NEW));
+        Task bread = taskManager.createTask(new Task("Купить хлеб", "Белый", Status.NEW));
+        Epic shop = taskManager.createEpic(new Epic("Магазин", "Молоко и хлеб", Status.NEW));
+
+        assertEquals(List.of(milk.getId(), shop.getId()), searchIds("МОЛОК"), "Неверный поиск по префиксу");
+        assertEquals(List.of(milk.getId()), searchIds("купить мол"), "Неверный поиск по двум словам");
+        assertEquals(List.of(milk.getId()), searchIds("купить мол", 1).subList(0, 1), "Не учтён лимит");
+        assertTrue(searchIds("купи молоко").isEmpty(), "Префикс принят не в последнем слове");
+
+        taskManager.updateTask(new Task(bread.getId(), "Купить молоко", "Обезжиренное", Status.NEW));
+        taskManager.deleteTask(milk.getId());
+        assertEquals(List.of(bread.getId(), shop.getId()), searchIds("молоко"), "Индекс не обновлён");
+        assertTrue(searchIds("белый").isEmpty(), "Старый текст задачи остался в индексе");
+        assertTrue(searchIds(" ,. ").isEmpty(), "Найдены задачи по пустому запросу");
+        assertThrows(ValidationException.class, () -> taskManager.search("молоко", 0), "Принят пустой лимит");
+    }
+
+    @Test
+    void versionGrowsOnEveryChange() {
+        long version = taskManager.getVersion();
+        long tasks = taskManager.getVersion(Type.TASK);
+        long epics = taskManager.getVersion(Type.EPIC);
+        long subtasks = taskManager.getVersion(Type.SUBTASK);
+
+        taskManager.getTasks();
+        taskManager.getSubtask(subtask3.getId());
+        assertEquals(version, taskManager.getVersion(), "Номер изменился при чтении");
+
+        taskManager.updateSubtask(new Subtask(subtask3.getId(), "Подзадача", "description3", Status.DONE,
+                subtask3.getStartTime(), subtask3.getDuration(), subtask3.getEpicId()));
+        assertTrue(taskManager.getVersion(Type.SUBTASK) > subtasks, "Не изменился номер подзадач");
+        assertTrue(taskManager.getVersion(Type.EPIC) > epics, "Не изменился номер эпика после пересчёта статуса");
+        assertEquals(tasks, taskManager.getVersion(Type.TASK), "Изменился номер задач");
+        assertTrue(taskManager.getVersion() > version, "Не изменился общий номер");
+
+        long beforeDelete = taskManager.getVersion(Type.TASK);
+        taskManager.deleteTasks();
+        assertTrue(taskManager.getVersion(Type.TASK) > beforeDelete, "Не изменился номер задач после удаления");
+    }
+
+    private List<Integer> searchIds(String query) {
+
+        return searchIds(query, 100);
+    }
+
+    private List<Integer> searchIds(String query, int limit) {
+        return taskManager.search(query, limit).stream().map(Task::getId).toList();
+    }
+}
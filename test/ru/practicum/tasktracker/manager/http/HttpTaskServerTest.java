@@ -2,33 +2,50 @@ package ru.practicum.tasktracker.manager.http;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import ru.practicum.tasktracker.enums.Durability;
+import ru.practicum.tasktracker.enums.ExecutorMode;
+import ru.practicum.tasktracker.enums.PersistenceMode;
 import ru.practicum.tasktracker.enums.Status;
 import ru.practicum.tasktracker.exceptions.TaskNotFoundException;
 import ru.practicum.tasktracker.http.HttpTaskServer;
 import ru.practicum.tasktracker.http.adapter.DurationAdapter;
 import ru.practicum.tasktracker.http.adapter.LocalDateTimeAdapter;
+import ru.practicum.tasktracker.manager.FileBackedTaskManager;
 import ru.practicum.tasktracker.manager.HistoryManager;
 import ru.practicum.tasktracker.manager.Managers;
 import ru.practicum.tasktracker.manager.TaskManager;
 import ru.practicum.tasktracker.task.Epic;
 import ru.practicum.tasktracker.task.Subtask;
 import ru.practicum.tasktracker.task.Task;
+import ru.practicum.tasktracker.task.TimeSlot;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.net.URI;
+import java.net.URLEncoder;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class HttpTaskServerTest {
 
@@ -104,6 +121,41 @@ class HttpTaskServerTest {
         assertEquals(expectedGson.toJson(Duration.ofMinutes(10)), gson.toJson(Duration.ofMinutes(10)));
     }
 
+    @Test
+    void testTaskAdaptersMatchReflectiveGson() {
+        Gson reflectiveGson = new GsonBuilder()
+                .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())
+                .registerTypeAdapter(Duration.class, new DurationAdapter())
+                .create();
+        Task untimed = new Task("Задача <\"без времени\">", null, Status.DONE);
+        Epic emptyEpic = new Epic(7, "Эпик", "description7", Status.NEW);
+        List<Object> values = List.of(task1, subtask3, untimed, taskManager.getPrioritizedTasks(),
+                List.of(task1, subtask3));
+        for (Object value : values) {
+            assertEquals(reflectiveGson.toJson(value), gson.toJson(value), "JSON отличается от рефлексивного Gson");
+        }
+        assertEquals("{\"subtaskList\":[" + gson.toJson(subtask3) + "]," + reflectiveGson.toJson(epic5).substring(1),
+                gson.toJson(epic5), "Подзадачи эпика не записаны массивом перед полями эпика");
+        assertEquals("{\"subtaskList\":[]," + reflectiveGson.toJson(emptyEpic).substring(1), gson.toJson(emptyEpic),
+                "Пустой эпик записан не с пустым массивом подзадач");
+        assertEquals("[" + gson.toJson(task1) + "," + gson.toJson(epic5) + "]", gson.toJson(List.of(task1, epic5)),
+                "Эпик в списке записан не своим адаптером");
+
+        Epic epic = gson.fromJson(gson.toJson(epic5), Epic.class);
+        assertEquals(epic5.getId(), epic.getId(), "id эпика не прочитан");
+        assertEquals(epic5.getSubtaskList().stream().map(Subtask::getId).toList(),
+                epic.getSubtaskList().stream().map(Subtask::getId).toList(),
+                "Подзадачи эпика не прочитаны");
+        Subtask subtask = gson.fromJson("{\"epicId\":\"5\",\"name\":\"Подзадача\",\"status\":\"UNKNOWN\","
+                + "\"startTime\":\"2024-08-30T09:00:00\",\"duration\":15,\"extra\":{\"a\":[1]}}", Subtask.class);
+        assertEquals(5, subtask.getEpicId(), "epicId не прочитан");
+        assertNull(subtask.getId(), "Отсутствующий id прочитан не как null");
+        assertNull(subtask.getStatus(), "Неизвестный статус прочитан не как null");
+        assertEquals(LocalDateTime.of(2024, 8, 30, 9, 15), subtask.getEndTime(), "Время подзадачи не прочитано");
+        assertThrows(JsonParseException.class, () -> gson.fromJson("{\"id\":\"x\"}", Task.class),
+                "Неверный id не отклонён как ошибка разбора JSON");
+    }
+
     @Test
     void testGetTasks() throws IOException, InterruptedException {
         HttpRequest request = HttpRequest.newBuilder()
@@ -117,6 +169,75 @@ class HttpTaskServerTest {
         assertEquals(gson.toJson(taskManager.getTasks()), response.body());
     }
 
+    @Test
+    void testGetTasksStreamsChunkedResponse() throws IOException, InterruptedException {
+        List<Task> batch = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            batch.add(new Task("Задача <" + i + ">", "description, \"" + i + "\"", Status.NEW,
+                    LocalDateTime.of(2025, 1, 1, 0, 0).plusMinutes(i * 10L), Duration.ofMinutes(5)));
+        }
+        taskManager.createAll(batch);
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/tasks"))
+                .GET()
+                .build();
+
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode());
+        assertTrue(response.headers().firstValue("Content-Length").isEmpty(), "Ответ отправлен не потоком");
+        assertEquals(gson.toJson(taskManager.getTasks()), response.body(), "Потоковый JSON отличается от toJson");
+    }
+
+    @Test
+    void testGetTasksByPages() throws IOException, InterruptedException {
+        HttpRequest first = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/subtasks?limit=1"))
+                .GET()
+                .build();
+        HttpResponse<String> firstResponse = client.send(first, HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, firstResponse.statusCode());
+        assertEquals(gson.toJson(List.of(subtask3)), firstResponse.body());
+        assertEquals("3", firstResponse.headers().firstValue("X-Next-Cursor").orElse(null),
+                "Нет курсора следующей страницы");
+
+        HttpRequest second = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/subtasks?limit=5&cursor=3"))
+                .GET()
+                .build();
+        HttpResponse<String> secondResponse = client.send(second, HttpResponse.BodyHandlers.ofString());
+        assertEquals(gson.toJson(List.of(subtask4)), secondResponse.body());
+        assertTrue(secondResponse.headers().firstValue("X-Next-Cursor").isEmpty(), "Курсор у последней страницы");
+
+        HttpRequest invalid = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/tasks?limit=abc"))
+                .GET()
+                .build();
+        assertEquals(400, client.send(invalid, HttpResponse.BodyHandlers.ofString()).statusCode());
+    }
+
+    @Test
+    void testFindTasks() throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/tasks?type=SUBTASK&status=NEW&from=2024-08-31T00:00:00"))
+                .GET()
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode());
+        assertEquals(gson.toJson(List.of(subtask4)), response.body());
+
+        HttpRequest byEpic = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/tasks?epicId=5"))
+                .GET()
+                .build();
+        assertEquals(gson.toJson(List.of(subtask3)), client.send(byEpic, HttpResponse.BodyHandlers.ofString()).body());
+
+        HttpRequest invalid = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/tasks?status=UNKNOWN"))
+                .GET()
+                .build();
+        assertEquals(400, client.send(invalid, HttpResponse.BodyHandlers.ofString()).statusCode());
+    }
+
     @Test
     void testGetTaskById() throws IOException, InterruptedException {
         HttpRequest request = HttpRequest.newBuilder()
@@ -157,6 +278,34 @@ class HttpTaskServerTest {
         assertEquals(201, response.statusCode());
     }
 
+    @Test
+    void testCreateTasksBatch() throws IOException, InterruptedException {
+        Task task3 = new Task("Задача 3", "description3", Status.NEW,
+                LocalDateTime.of(2024, 8, 18, 12, 0, 0),
+                Duration.ofMinutes(10));
+        Task task4 = new Task("Задача 4", "description4", Status.NEW,
+                LocalDateTime.of(2024, 8, 18, 13, 0, 0),
+                Duration.ofMinutes(10));
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/tasks/batch"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(gson.toJson(List.of(task3, task4))))
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(201, response.statusCode());
+        assertEquals(4, taskManager.getTasks().size());
+
+        task3.setStartTime(LocalDateTime.of(2024, 8, 25, 9, 5, 0));
+        HttpRequest requestIntersect = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/tasks/batch"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(gson.toJson(List.of(task3))))
+                .build();
+        assertEquals(406, client.send(requestIntersect, HttpResponse.BodyHandlers.ofString()).statusCode());
+    }
+
     @Test
     void testCreateTaskWithIntersect() throws IOException, InterruptedException {
         Task task3 = new Task(10, "Задача 3", "description3", Status.NEW,
@@ -189,11 +338,13 @@ class HttpTaskServerTest {
 
     @Test
     void testUpdateTask() throws IOException, InterruptedException {
-        task1.setId(9);
-        taskManager.createTask(task1);
+        Task task9 = new Task(9, "Задача 9", "description9", Status.NEW,
+                LocalDateTime.of(2024, 8, 27, 9, 0, 0),
+                Duration.ofMinutes(10));
+        taskManager.createTask(task9);
 
-        taskManager.updateTask(task1);
-        String taskJson = gson.toJson(task1);
+        taskManager.updateTask(task9);
+        String taskJson = gson.toJson(task9);
 
         HttpRequest request = HttpRequest.newBuilder()
                 .uri(URI.create("http://localhost:8080/tasks"))
@@ -219,6 +370,7 @@ class HttpTaskServerTest {
 
         task2.setStartTime(LocalDateTime.of(2024, 8, 19, 12, 5, 0));
         task2.setDuration(Duration.ofMinutes(10));
+        taskManager.updateTask(task2);
 
         String taskJson1 = gson.toJson(task3);
         String taskJson2 = gson.toJson(task1);
@@ -357,8 +509,8 @@ class HttpTaskServerTest {
 
     @Test
     void testUpdateSubtask() throws IOException, InterruptedException {
-        subtask3.setId(4);
-        String taskJson = gson.toJson(subtask3);
+        subtask4.setStatus(Status.IN_PROGRESS);
+        String taskJson = gson.toJson(subtask4);
 
         HttpRequest request = HttpRequest.newBuilder()
                 .uri(URI.create("http://localhost:8080/subtasks"))
@@ -381,6 +533,7 @@ class HttpTaskServerTest {
 
         subtask3.setStartTime(LocalDateTime.of(2024, 8, 18, 12, 0, 0));
         subtask3.setDuration(Duration.ofMinutes(10));
+        taskManager.updateSubtask(subtask3);
 
         subtask4.setStartTime(LocalDateTime.of(2024, 8, 18, 12, 5, 0));
         subtask4.setDuration(Duration.ofMinutes(10));
@@ -609,6 +762,201 @@ class HttpTaskServerTest {
         assertEquals(gson.toJson(tasks), response.body());
     }
 
+    @Test
+    void testGetPrioritizedByPages() throws IOException, InterruptedException {
+        HttpRequest first = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/prioritized?limit=3"))
+                .GET()
+                .build();
+        HttpResponse<String> firstResponse = client.send(first, HttpResponse.BodyHandlers.ofString());
+        String cursor = firstResponse.headers().firstValue("X-Next-Cursor").orElse(null);
+        assertEquals(gson.toJson(List.of(task1, task2, subtask3)), firstResponse.body());
+        assertEquals("2024-08-30T09:00,3", cursor, "Неверный курсор расписания");
+
+        HttpRequest second = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/prioritized?limit=3&cursor=" + cursor))
+                .GET()
+                .build();
+        HttpResponse<String> secondResponse = client.send(second, HttpResponse.BodyHandlers.ofString());
+        assertEquals(gson.toJson(List.of(subtask4)), secondResponse.body());
+    }
+
+    @Test
+    void testSearch() throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/search?q=" + URLEncoder.encode("подзадача", StandardCharsets.UTF_8)
+                        + "&limit=1"))
+                .GET()
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode());
+        assertEquals(gson.toJson(List.of(subtask3)), response.body());
+
+        HttpRequest missing = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/search"))
+                .GET()
+                .build();
+        assertEquals(400, client.send(missing, HttpResponse.BodyHandlers.ofString()).statusCode());
+    }
+
+    @Test
+    void testConditionalGet() throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/tasks"))
+                .GET()
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        String etag = response.headers().firstValue("ETag").orElseThrow();
+
+        HttpRequest conditional = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/tasks"))
+                .header("If-None-Match", etag)
+                .GET()
+                .build();
+        HttpResponse<String> notModified = client.send(conditional, HttpResponse.BodyHandlers.ofString());
+        assertEquals(304, notModified.statusCode());
+        assertEquals("", notModified.body());
+
+        HttpRequest prioritized = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/prioritized"))
+                .GET()
+                .build();
+        String scheduleEtag = client.send(prioritized, HttpResponse.BodyHandlers.ofString())
+                .headers().firstValue("ETag").orElseThrow();
+        taskManager.createEpic(new Epic("Эпик 7", "description7", Status.NEW));
+        HttpRequest prioritizedConditional = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/prioritized"))
+                .header("If-None-Match", scheduleEtag)
+                .GET()
+                .build();
+        assertEquals(304, client.send(prioritizedConditional, HttpResponse.BodyHandlers.ofString()).statusCode());
+
+        taskManager.createTask(new Task("Задача 8", "description8", Status.NEW));
+        HttpResponse<String> modified = client.send(conditional, HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, modified.statusCode());
+        assertEquals(gson.toJson(taskManager.getTasks()), modified.body());
+        assertTrue(!etag.equals(modified.headers().firstValue("ETag").orElseThrow()), "ETag не изменился");
+    }
+
+    @Test
+    void testResponseCache() throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/epics/6/subtasks"))
+                .GET()
+                .build();
+        String first = client.send(request, HttpResponse.BodyHandlers.ofString()).body();
+        HttpResponse<String> cached = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, cached.statusCode());
+        assertEquals(first, cached.body());
+        assertEquals(1, server.getResponseCache().getHits());
+
+        taskManager.updateSubtask(new Subtask(subtask4.getId(), "Подзадача4", "description4", Status.DONE,
+                subtask4.getStartTime(), subtask4.getDuration(), 6));
+        HttpResponse<String> changed = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(gson.toJson(taskManager.getEpic(6).getSubtaskList()), changed.body());
+
+        HttpRequest epic = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/epics/6"))
+                .GET()
+                .build();
+        client.send(epic, HttpResponse.BodyHandlers.ofString());
+        taskManager.deleteSubtask(subtask4.getId());
+        assertEquals(gson.toJson(taskManager.getEpic(6)), client.send(epic, HttpResponse.BodyHandlers.ofString()).body());
+    }
+
+    @Test
+    void testCompression() throws IOException, InterruptedException {
+        HttpRequest small = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/tasks/1"))
+                .header("Accept-Encoding", "gzip")
+                .GET()
+                .build();
+        HttpResponse<String> plain = client.send(small, HttpResponse.BodyHandlers.ofString());
+        assertTrue(plain.headers().firstValue("Content-Encoding").isEmpty(), "Сжат короткий ответ");
+        assertEquals(gson.toJson(task1), plain.body());
+
+        List<Task> batch = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            batch.add(new Task("Задача", "description", Status.NEW));
+        }
+        taskManager.createAll(batch);
+        String expected = gson.toJson(taskManager.getTasks());
+        for (int round = 0; round < 2; round++) {
+            HttpRequest gzip = HttpRequest.newBuilder()
+                    .uri(URI.create("http://localhost:8080/tasks"))
+                    .header("Accept-Encoding", "deflate;q=0.5, gzip")
+                    .GET()
+                    .build();
+            HttpResponse<byte[]> response = client.send(gzip, HttpResponse.BodyHandlers.ofByteArray());
+            assertEquals("gzip", response.headers().firstValue("Content-Encoding").orElseThrow());
+            assertEquals(expected, new String(new GZIPInputStream(new ByteArrayInputStream(response.body()))
+                    .readAllBytes(), StandardCharsets.UTF_8));
+        }
+
+        HttpRequest deflate = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/tasks"))
+                .header("Accept-Encoding", "gzip;q=0, deflate")
+                .GET()
+                .build();
+        HttpResponse<byte[]> response = client.send(deflate, HttpResponse.BodyHandlers.ofByteArray());
+        assertEquals("deflate", response.headers().firstValue("Content-Encoding").orElseThrow());
+        assertEquals(expected, new String(new InflaterInputStream(new ByteArrayInputStream(response.body()))
+                .readAllBytes(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testMetrics() throws IOException, InterruptedException {
+        for (String path : new String[]{"/tasks", "/tasks/1", "/tasks/9999"}) {
+            HttpRequest request = HttpRequest.newBuilder().uri(URI.create("http://localhost:8080" + path)).GET().build();
+            client.send(request, HttpResponse.BodyHandlers.ofString());
+        }
+
+        HttpRequest request = HttpRequest.newBuilder().uri(URI.create("http://localhost:8080/metrics")).GET().build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode());
+        assertTrue(response.headers().firstValue("Content-Type").orElseThrow().startsWith("text/plain; version=0.0.4"));
+        String body = response.body();
+        assertTrue(body.contains("http_requests_total{route=\"/tasks\",method=\"GET\",status=\"200\"} 1\n"),
+                "Не учтён запрос списка задач");
+        assertTrue(body.contains("http_requests_total{route=\"/tasks/{id}\",method=\"GET\",status=\"200\"} 1\n"),
+                "Идентификатор не заменён в маршруте");
+        assertTrue(body.contains("http_requests_total{route=\"/tasks/{id}\",method=\"GET\",status=\"404\"} 1\n"),
+                "Не учтён ответ 404");
+        assertTrue(body.contains("http_request_duration_seconds{route=\"/tasks\",method=\"GET\",quantile=\"0.99\"}"),
+                "Нет перцентилей времени запросов");
+        assertTrue(body.contains("http_request_duration_seconds_count{route=\"/tasks/{id}\",method=\"GET\"} 2\n"));
+        assertTrue(body.contains("task_manager_operation_duration_seconds_count{operation=\"getTask\"} 2\n"),
+                "Не замерены операции менеджера");
+        assertTrue(body.contains("# TYPE response_cache_hits_total counter\n"));
+    }
+
+    @Test
+    void testFreeSlot()throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/prioritized/free?duration=30" +
+                        "&from=2024-08-25T08:50:00&to=2024-08-25T10:00:00"))
+                .GET()
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, response.statusCode());
+        assertEquals(gson.toJson(new TimeSlot(LocalDateTime.of(2024, 8, 25, 9, 11), Duration.ofMinutes(30))),
+                response.body());
+
+        HttpRequest requestNoSlot = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/prioritized/free?duration=30" +
+                        "&from=2024-08-25T08:50:00&to=2024-08-25T09:30:00"))
+                .GET()
+                .build();
+        assertEquals(404, client.send(requestNoSlot, HttpResponse.BodyHandlers.ofString()).statusCode());
+
+        HttpRequest requestBad = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/prioritized/free?duration=abc"))
+                .GET()
+                .build();
+        assertEquals(400, client.send(requestBad, HttpResponse.BodyHandlers.ofString()).statusCode());
+    }
+
     @Test
     void testHistoryTasks() throws IOException, InterruptedException {
         List<Task> tasks = new ArrayList<>();
@@ -646,5 +994,75 @@ class HttpTaskServerTest {
         HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
 
         assertEquals(gson.toJson(tasks), response.body());
+
+        HttpRequest limited = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/history?limit=2"))
+                .GET()
+                .build();
+        assertEquals(gson.toJson(tasks.subList(1, 3)), client.send(limited, HttpResponse.BodyHandlers.ofString()).body());
+        for (String limit : new String[]{"abc", "-1", "0"}) {
+            HttpRequest bad = HttpRequest.newBuilder()
+                    .uri(URI.create("http://localhost:8080/history?limit=" + limit))
+                    .GET()
+                    .build();
+            assertEquals(400, client.send(bad, HttpResponse.BodyHandlers.ofString()).statusCode(),
+                    "Неверный limit истории не отклонён");
+        }
+    }
+
+    @Test
+    void testConcurrentRequestsOnVirtualThreads() throws IOException {
+        TaskManager concurrentManager = Managers.getConcurrentTaskManager();
+        HttpTaskServer concurrentServer = HttpTaskServer.builder(concurrentManager)
+                .port(0)
+                .executorMode(ExecutorMode.VIRTUAL_THREADS)
+                .build();
+        concurrentServer.start();
+        try {
+            URI uri = URI.create("http://localhost:" + concurrentServer.getAddress().getPort() + "/tasks");
+            List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                Task task = new Task("Задача " + i, "description", Status.NEW,
+                        LocalDateTime.of(2024, 9, 1, 0, 0).plusHours(i), Duration.ofMinutes(10));
+                HttpRequest request = HttpRequest.newBuilder()
+                        .uri(uri)
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(gson.toJson(task)))
+                        .build();
+                responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.ofString()));
+            }
+            responses.forEach(response -> assertEquals(201, response.join().statusCode()));
+            assertEquals(50, concurrentManager.getTasks().size());
+            assertEquals(50, concurrentManager.getPrioritizedTasks().size());
+        } finally {
+            concurrentServer.stop();
+        }
+    }
+
+    @Test
+    void testStopFlushesPendingWrites() throws IOException, InterruptedException {
+        Path file = Files.createTempFile("kanban", ".csv");
+        FileBackedTaskManager fileManager = new FileBackedTaskManager(file.toString(), PersistenceMode.WAL,
+                Durability.GROUP_COMMIT, TimeUnit.HOURS.toMillis(1), 1_000);
+        HttpTaskServer fileServer = HttpTaskServer.builder(fileManager).port(0).build();
+        fileServer.start();
+        try {
+            Task task = new Task("Задача", "description", Status.NEW,
+                    LocalDateTime.of(2024, 9, 1, 0, 0), Duration.ofMinutes(10));
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create("http://localhost:" + fileServer.getAddress().getPort() + "/tasks"))
+                    .POST(HttpRequest.BodyPublishers.ofString(gson.toJson(task)))
+                    .build();
+            assertEquals(201, client.send(request, HttpResponse.BodyHandlers.ofString()).statusCode());
+        } finally {
+            fileServer.stop();
+            fileManager.close();
+        }
+
+        FileBackedTaskManager loaded = new FileBackedTaskManager(file.toString(), PersistenceMode.WAL);
+        loaded.loadFromFile();
+        assertEquals(1, loaded.getTasks().size());
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(Path.of(file + ".wal"));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,68 @@
+package ru.practicum.tasktracker.manager.http;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.tasktracker.enums.Type;
+import ru.practicum.tasktracker.http.ResponseCache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ResponseCacheTest {
+    private ResponseCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new ResponseCache(400);
+    }
+
+    private void put(String key, int size, String... tags) {
+        cache.put(key, new byte[size], cache.stamp(), tags);
+    }
+
+    @Test
+    void changeRemovesOnlyTaggedEntries() {
+        put("/tasks", 10, ResponseCache.collection(Type.TASK));
+        put("/tasks/1", 10, ResponseCache.entity(Type.TASK, 1));
+        put("/tasks/2", 10, ResponseCache.entity(Type.TASK, 2));
+        put("/epics", 10, ResponseCache.collection(Type.EPIC));
+
+        cache.onChange(Type.TASK, 1);
+        assertNull(cache.get("/tasks"), "Список задач не сброшен");
+        assertNull(cache.get("/tasks/1"), "Изменённая задача не сброшена");
+        assertNotNull(cache.get("/tasks/2"), "Сброшена другая задача");
+        assertNotNull(cache.get("/epics"), "Сброшен список эпиков");
+
+        cache.onChange(Type.TASK, null);
+        assertNull(cache.get("/tasks/2"), "Изменение всей коллекции не сбросило задачу");
+        assertEquals(1, cache.getSize());
+        assertEquals(2, cache.getHits());
+        assertEquals(3, cache.getMisses());
+        assertEquals(3, cache.getInvalidations());
+    }
+
+    @Test
+    void rejectsResponseBuiltBeforeChange() {
+        long stamp = cache.stamp();
+        cache.onChange(Type.SUBTASK, 3);
+        cache.put("/subtasks", new byte[10], stamp, ResponseCache.collection(Type.SUBTASK));
+
+        assertNull(cache.get("/subtasks"), "Закэширован ответ, собранный до изменения");
+    }
+
+    @Test
+    void evictsLeastRecentlyReadWithinBytes() {
+        put("/tasks/1", 100);
+        put("/tasks/2", 100);
+        put("/tasks/3", 100);
+        put("/tasks/4", 100);
+        cache.get("/tasks/1");
+        put("/tasks/5", 100);
+        put("/tasks/6", 101);
+
+        assertNotNull(cache.get("/tasks/1"), "Вытеснена недавно прочитанная запись");
+        assertNull(cache.get("/tasks/2"), "Не вытеснена самая старая запись");
+        assertNull(cache.get("/tasks/6"), "Закэширован ответ больше допустимого");
+        assertEquals(400, cache.getBytes());
+        assertEquals(1, cache.getEvictions());
+    }
+}